@@ -0,0 +1,75 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.services.Point;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path search only: the Board is parsed once in setUp(), the same AStarAlgo is reused between calls
+ * (as YourSolver does it).
+ * The search effort is reported next to the time: expandedNodes / traces is the number of cells,
+ * that one trace() expands, e.g. "AStarAlgoBenchmark.trace -p size=200 -p mode=A_STAR,BIDIRECTIONAL".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AStarAlgoBenchmark {
+
+    @Param({"A_STAR", "BIDIRECTIONAL"})
+    public AStarAlgo.Mode mode;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Effort {
+        public long expandedNodes;
+        public long traces;
+    }
+
+    private AStarAlgo aStarAlgo;
+    private Point head;
+    private Point apple;
+    private Point stone;
+    private IntDeque snake;
+    private SinglyLinkedList<Point> snakeLL;
+
+    @Setup
+    public void setUp(BoardState state) {
+        Board board = state.board;
+        aStarAlgo = new AStarAlgo(board.size(), board.size());
+        aStarAlgo.setMode(mode);
+        head = board.getHead();
+        apple = board.getApples().get(0);
+        stone = board.getStones().get(0);
+        snake = board.getSnakeAsDeque();
+        snakeLL = board.getSnakeAsLinkedList();
+    }
+
+    @Benchmark
+    public Optional<Point> trace(Effort effort) {
+        Optional<Point> step = aStarAlgo.trace(head, apple, snake, stone);
+        effort.expandedNodes += aStarAlgo.getExpandedNodes();
+        effort.traces++;
+        return step;
+    }
+
+    @Benchmark
+    public Optional<Point> traceLinkedList() {
+        return aStarAlgo.trace(head, apple, snakeLL, stone);
+    }
+}
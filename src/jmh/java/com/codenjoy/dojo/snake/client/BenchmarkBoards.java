@@ -0,0 +1,66 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.snake.model.BoardRenderer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible game-boards for benchmarks.
+ * The snake is laid out as a "serpentine" (row by row, changing the direction in every row) starting from
+ * the bottom left corner, so a snake of any length fits into the game-board. The apple is placed far from
+ * the head and the rest of free cells are filled with stones, according to the obstacle density.
+ */
+public final class BenchmarkBoards {
+
+    private BenchmarkBoards() {
+    }
+
+    /**
+     * @param size        -> size of the game-board (including borders);
+     * @param snakeLength -> requested length of the snake. It is clamped to a half of the playable cells,
+     *                    so that the snake always has some space to move;
+     * @param density     -> part of the free cells (from 0.0 to 1.0), that are taken by stones;
+     * @param seed        -> seed for the placement of the apple and stones.
+     * @return String -> the board string, as it comes from the server.
+     */
+    public static String generate(int size, int snakeLength, double density, long seed) {
+        int inner = size - 2;
+        List<Integer> serpentine = new ArrayList<>(inner * inner);
+        for (int y = 1; y <= inner; y++) {
+            for (int i = 0; i < inner; i++) {
+                int x = (y % 2 == 1) ? 1 + i : inner - i;
+                serpentine.add(y * size + x);
+            }
+        }
+
+        int length = clampSnakeLength(size, snakeLength);
+        // the tail is at the beginning of the serpentine, the head is at the end
+        int[] snake = new int[length];
+        for (int i = 0; i < length; i++) {
+            snake[i] = serpentine.get(length - 1 - i);
+        }
+
+        List<Integer> free = new ArrayList<>(serpentine.subList(length, serpentine.size()));
+        Random random = new Random(seed);
+
+        // the apple is at the top of the game-board, so that the search has to cross it
+        int apple = free.remove(free.size() - 1 - random.nextInt(Math.max(1, inner / 2)));
+
+        int stonesCount = (int) Math.round(free.size() * density);
+        int[] stones = new int[Math.max(1, stonesCount)];
+        // the cell right in front of the head stays free, otherwise the snake is trapped from the start
+        free.remove(0);
+        for (int i = 0; i < stones.length; i++) {
+            stones[i] = free.remove(random.nextInt(free.size()));
+        }
+
+        return BoardRenderer.render(size, snake, new int[]{apple}, stones);
+    }
+
+    public static int clampSnakeLength(int size, int snakeLength) {
+        int inner = size - 2;
+        return Math.max(2, Math.min(snakeLength, inner * inner / 2));
+    }
+}
@@ -0,0 +1,21 @@
+package com.codenjoy.dojo.snake.client;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: runs benchmarks with the GC profiler, so that allocation rate
+ * (gc.alloc.rate.norm - bytes per operation) is reported next to ns/op.
+ * All usual JMH options are accepted, e.g. "AStarAlgoBenchmark -p size=200 -p density=0.2".
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
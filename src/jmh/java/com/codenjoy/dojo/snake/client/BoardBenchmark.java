@@ -0,0 +1,43 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.services.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the board string, that comes from the server every tick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Benchmark
+    public Board forString(BoardState state) {
+        Board board = new Board();
+        board.forString(state.raw);
+        return board;
+    }
+
+    // parsing is included: the index of the Board is built lazily, once per board string
+    @Benchmark
+    public SinglyLinkedList<Point> getSnakeAsLinkedList(BoardState state) {
+        state.board.forString(state.raw);
+        return state.board.getSnakeAsLinkedList();
+    }
+
+    @Benchmark
+    public IntDeque getSnakeAsDeque(BoardState state) {
+        state.board.forString(state.raw);
+        return state.board.getSnakeAsDeque();
+    }
+}
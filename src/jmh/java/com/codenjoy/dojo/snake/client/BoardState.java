@@ -0,0 +1,33 @@
+package com.codenjoy.dojo.snake.client;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Game-board shared by all benchmarks: the same parameters give the same board (see BenchmarkBoards),
+ * so the results of different runs can be compared with each other.
+ */
+@State(Scope.Thread)
+public class BoardState {
+
+    @Param({"15", "50", "100", "200"})
+    public int size;
+
+    @Param({"5", "50", "500"})
+    public int snakeLength;   // clamped to a half of the game-board
+
+    @Param({"0.0", "0.05", "0.2"})
+    public double density;    // part of free cells taken by stones
+
+    public String raw;
+    public Board board;
+
+    @Setup
+    public void setUp() {
+        raw = BenchmarkBoards.generate(size, snakeLength, density, 42);
+        board = new Board();
+        board.forString(raw);
+    }
+}
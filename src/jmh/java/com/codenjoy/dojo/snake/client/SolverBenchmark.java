@@ -0,0 +1,44 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.services.RandomDice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole tick: parsing of the board string and YourSolver.get().
+ * The same board comes every time, so BoardTracker can't find a move of the snake and rebuilds its state:
+ * this is the worst case of a tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+    private YourSolver solver;
+    private Board board;
+
+    @Setup
+    public void setUp() {
+        solver = new YourSolver(new RandomDice());
+        board = new Board();
+    }
+
+    @Benchmark
+    public String get(BoardState state) {
+        board.forString(state.raw);
+        return solver.get(board);
+    }
+}
@@ -1,102 +1,663 @@
 package com.codenjoy.dojo.snake.client;
 
 import com.codenjoy.dojo.services.Point;
-import com.codenjoy.dojo.services.PointImpl;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import com.codenjoy.dojo.snake.client.DoublyLinkedList.Node;
 
 public class AStarAlgo {
-    private final int dimX;
-    private final int dimY;
-    private final int[][] board;
+
+    /**
+     * GREEDY - the snake walks to the neighbour, that is the closest one to the goal,
+     * and backs up when it gets stuck (initial version of the algorithm);
+     * A_STAR - true A* search with an open set in a binary heap;
+     * BIDIRECTIONAL - breadth-first search from the head and from the goal at the same time,
+     * that stops when they meet (see doTraceBidirectional()), for big game-boards.
+     */
+    public enum Mode {
+        GREEDY,
+        A_STAR,
+        BIDIRECTIONAL
+    }
+
+    private int dimX;
+    private int dimY;
     private Point head;
     private Point goal;
-    private Point stone;
 
-    private DoublyLinkedList<Point> path = new DoublyLinkedList<>();
-    private SinglyLinkedList snake = new SinglyLinkedList();
+    // cell ids of the calculated path: first - the end of the path (goal), last - the head of the snake
+    private final IntDeque path = new IntDeque();
+
+    // all the memory for path modelling lives in the arena, it is reused from tick to tick
+    private final SearchArena arena;
+    private CellRegistry cells;
+    private BitBoard bits;
+    private BodyTimeline timeline;
+    private DistanceField distances;
+    private int[] stoneCells = new int[1];   // cell ids of the stones of the current tick
+    private int stoneCount;
+    private boolean distancesUsable;   // whether the head is connected with the goal in the DistanceField
+
+    private Mode mode = Mode.A_STAR;
+
+    private static final int TIE_RANGE = 1024;   // see key()
+
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+    private long tickDeadline = Long.MAX_VALUE;   // see setDeadline()
+    private long deadline;                        // of the current trace()
+    private int nextClockCheck;   // expandedNodes, when the budget reads the clock next time
+
+    // effort of the last trace(), see SolverMetrics
+    private int expandedNodes;
+    private int backtracks;
+    private int forbiddenCells;
+    private boolean budgetExhausted;
+
+    // safe move, that was chosen before the search started (see chooseFallback())
+    private Optional<Point> fallback = Optional.empty();
+    private boolean fallbackUsed;
 
     public AStarAlgo(int dimX, int dimY) {
-        this.dimX = dimX;
-        this.dimY = dimY;
-        this.board = new int[dimY][dimX];
+        this(new SearchArena(dimX, dimY));
+    }
+
+    public AStarAlgo(SearchArena arena) {
+        this.arena = arena;
+        attachArena();
     }
 
-    private boolean isOnBoard(Point p) {
-        return p.getX() >= 1 && p.getY() >= 1 && p.getX() < dimX - 1 && p.getY() < dimY - 1;
+    private void attachArena() {
+        this.dimX = arena.getDimX();
+        this.dimY = arena.getDimY();
+        this.cells = arena.cells();
+        this.bits = arena.bits();
+        this.timeline = arena.timeline();
+        this.distances = arena.distances();
     }
 
-    private Point move(Point pt, int dx, int dy) {
-        return new PointImpl(pt.getX() + dx, pt.getY() + dy);
+    /**
+     * Should be called when the dimensions of the game-board are known (e.g. every tick with Board.size()).
+     * Nothing is reallocated unless the dimensions have changed.
+     */
+    public void resize(int dimX, int dimY) {
+        if (arena.ensureSize(dimX, dimY)) {
+            attachArena();
+        }
     }
 
-    private Stream<Point> neighbours(Point pt) {
-        return Stream.of(
-                move(pt, -1, 0),
-                move(pt, +1, 0),
-                move(pt, 0, +1),
-                move(pt, 0, -1)
-        )
-                .filter(this::isOnBoard);
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * @param budget -> limit of the work for every trace() (SearchBudget.UNLIMITED by default).
+     */
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @param deadline -> System.nanoTime(), by which every following trace() must stop (the deadline of the tick,
+     *                 see SearchBudget.deadline()), even if the time of its own budget isn't over yet;
+     *                 Long.MAX_VALUE - only the budget limits a trace() (the default).
+     */
+    public void setDeadline(long deadline) {
+        this.tickDeadline = deadline;
+    }
+
+    private int cell(Point p) {
+        return cells.id(p);
     }
 
     public Optional<Point> trace(Point head,
                                  Point goal,
                                  SinglyLinkedList<Point> snakeLL,
                                  Point stone) {
+        bits.clearPlane(BitBoard.BODY);
+        timeline.build(snakeLL);
+        setStone(stone);
+        return trace(head, goal);
+    }
+
+    /**
+     * The same as trace(head, goal, snakeLL, stone), but the body of the snake is given as cell ids
+     * (e.g. from BoardTracker or Board.getSnakeAsDeque()). Cell ids must belong to the game-board
+     * of the same size as this AStarAlgo.
+     */
+    public Optional<Point> trace(Point head,
+                                 Point goal,
+                                 IntDeque snake,
+                                 Point stone) {
+        bits.clearPlane(BitBoard.BODY);
+        timeline.build(snake);
+        setStone(stone);
+        return trace(head, goal);
+    }
+
+    /**
+     * The same as trace(head, goal, snake, stone) for a game-board with several stones.
+     *
+     * @param stones     -> cell ids of the stones, only the first stoneCount values are used;
+     * @param stoneCount -> number of stones.
+     */
+    public Optional<Point> trace(Point head,
+                                 Point goal,
+                                 IntDeque snake,
+                                 int[] stones,
+                                 int stoneCount) {
+        bits.clearPlane(BitBoard.BODY);
+        timeline.build(snake);
+        setStones(stones, stoneCount);
+        return trace(head, goal);
+    }
+
+    /**
+     * Brings the obstacles (body of the snake, stone, walls) in line with the current tick without searching
+     * for a path, e.g. when the path of the previous tick is still followed (see PathPlan).
+     * After that isSafe(), getFallback() and getReachableArea() answer about this tick.
+     */
+    public void prepare(Point head, IntDeque snake, Point stone) {
+        bits.clearPlane(BitBoard.BODY);
+        timeline.build(snake);
+        setStone(stone);
+        prepare(head);
+    }
+
+    /**
+     * The same as prepare(head, snake, stone) for a game-board with several stones.
+     */
+    public void prepare(Point head, IntDeque snake, int[] stones, int stoneCount) {
+        bits.clearPlane(BitBoard.BODY);
+        timeline.build(snake);
+        setStones(stones, stoneCount);
+        prepare(head);
+    }
+
+    private void setStone(Point stone) {
+        stoneCount = 0;
+        if (stone != null) {
+            stoneCells[stoneCount++] = cell(stone);
+        }
+    }
+
+    private void setStones(int[] stones, int count) {
+        if (stoneCells.length < count) {
+            stoneCells = new int[Math.max(count, stoneCells.length * 2)];
+        }
+        System.arraycopy(stones, 0, stoneCells, 0, count);
+        stoneCount = count;
+    }
+
+    private void prepare(Point head) {
         this.head = head;
+
+        // BODY plane of the BitBoard holds all the cells, that the snake occupies right now
+        for (int i = 0; i < timeline.size(); i++) {
+            bits.set(BitBoard.BODY, timeline.cellAt(i));
+        }
+        bits.clearPlane(BitBoard.PATH);
+        bits.clearPlane(BitBoard.FORBIDDEN);
+        bits.clearPlane(BitBoard.STONES);
+        for (int i = 0; i < stoneCount; i++) {
+            bits.set(BitBoard.STONES, stoneCells[i]);
+        }
+
+        fallback = chooseFallback();
+        fallbackUsed = false;
+    }
+
+    /**
+     * The fallback move is chosen before the search starts. It is returned, if the search
+     * hasn't found any step (e.g. the goal is walled off), so the snake never moves into an obstacle
+     * while there is a safe cell next to the head.
+     */
+    private Optional<Point> trace(Point head, Point goal) {
         this.goal = goal;
-        this.snake = snakeLL;
-        this.stone = stone;
+        this.deadline = Math.min(budget.deadline(System.nanoTime()), tickDeadline);
+        this.expandedNodes = 0;
+        this.nextClockCheck = SearchBudget.CLOCK_CHECK_INTERVAL;
+        this.backtracks = 0;
+        this.forbiddenCells = 0;
+        this.budgetExhausted = false;
+
+        prepare(head);
+        if (mode != Mode.BIDIRECTIONAL) {
+            // the bidirectional search doesn't need the heuristic, the field is built only if it falls back to A*
+            updateDistances();
+        }
 
 //        printSnakeCoords();
 
+        Optional<Point> step;
+        if (mode == Mode.GREEDY) {
+            step = doTraceGreedy();
+        } else if (mode == Mode.BIDIRECTIONAL) {
+            step = doTraceBidirectional();
+        } else {
+            step = doTraceAStar();
+        }
+        fallbackUsed = step.isEmpty() && fallback.isPresent();
+        return fallbackUsed ? fallback : step;
+    }
+
+    private void updateDistances() {
+        distances.update(cell(goal), stoneCells, stoneCount);
+        distancesUsable = distances.distance(cell(head)) != DistanceField.UNREACHABLE;
+    }
+
+    /**
+     * @return DistanceField -> distances to the goal of the last trace() (in BIDIRECTIONAL mode
+     * only if the search has fallen back to A*).
+     */
+    public DistanceField getDistances() {
+        return distances;
+    }
+
+    /**
+     * Picks a safe neighbour of the head (not a wall, not a stone, not the body of the snake after the first step),
+     * that leaves the snake the most room: the one with the biggest number of safe cells around it.
+     *
+     * @return Optional<Point> -> empty if all the neighbours of the head are blocked.
+     */
+    private Optional<Point> chooseFallback() {
+        int best = -1;
+        int bestRoom = -1;
+        int[] neighbours = cells.neighbours(cell(head));
+        for (int i = 0; i < neighbours.length; i++) {
+            int candidate = neighbours[i];
+            if (!isSafe(candidate, 1)) {
+                continue;
+            }
+            int room = 0;
+            int[] next = cells.neighbours(candidate);
+            for (int j = 0; j < next.length; j++) {
+                if (isSafe(next[j], 2)) {
+                    room++;
+                }
+            }
+            if (room > bestRoom) {
+                best = candidate;
+                bestRoom = room;
+            }
+        }
+        return best == -1 ? Optional.empty() : Optional.of(cells.point(best));
+    }
+
+    /**
+     * @param cell  -> the cell, that the head of the snake enters;
+     * @param steps -> the number of steps, after which the head enters the cell;
+     * @return boolean -> whether there is no wall, stone or body of the snake in the cell at that moment
+     * (according to the last trace() or prepare()).
+     */
+    public boolean isSafe(int cell, int steps) {
+        return !bits.isBlockedBesidesBody(cell) && timeline.isFreeAt(cell, steps);
+    }
+
+    /**
+     * @return Optional<Point> -> the fallback move of the last trace() (see chooseFallback()).
+     */
+    public Optional<Point> getFallback() {
+        return fallback;
+    }
+
+    /**
+     * @return boolean -> whether the last trace() returned the fallback move, because the search found nothing.
+     */
+    public boolean isFallbackUsed() {
+        return fallbackUsed;
+    }
+
+    /**
+     * @return boolean -> whether the last trace() was stopped by the SearchBudget.
+     */
+    public boolean isBudgetExhausted() {
+        return budgetExhausted;
+    }
+
+    private boolean outOfBudget() {
+        boolean clockDue = expandedNodes >= nextClockCheck;
+        if (clockDue) {
+            nextClockCheck = expandedNodes + SearchBudget.CLOCK_CHECK_INTERVAL;
+        }
+        if (budget.isExhausted(expandedNodes, deadline, clockDue)) {
+            budgetExhausted = true;
+        }
+        return budgetExhausted;
+    }
+
+    /**
+     * @return IntDeque -> cell ids of the path, calculated by the last trace():
+     * first - the end of the path, last - the head of the snake.
+     */
+    public IntDeque getPath() {
+        return path;
+    }
+
+    /**
+     * @return ReachableArea -> evaluator of free regions, that works on the obstacles and the body of the snake
+     * of the last trace().
+     */
+    public ReachableArea getReachableArea() {
+        return arena.reachable();
+    }
+
+    /**
+     * @return MultiTargetSearch -> the nearest of several goals (e.g. apples), that works on the obstacles
+     * and the body of the snake of the last trace() or prepare().
+     */
+    public MultiTargetSearch getTargets() {
+        return arena.targets();
+    }
+
+    public CellRegistry getCells() {
+        return cells;
+    }
+
+    /**
+     * @return int -> number of cells, whose neighbours were examined by the last trace().
+     */
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * @return int -> how many times the last trace() backed up along the path (greedy search only,
+     * A* never backs up).
+     */
+    public int getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * @return int -> number of cells, that were marked as forbidden by the last trace() (greedy search only).
+     */
+    public int getForbiddenCells() {
+        return forbiddenCells;
+    }
+
+    /**
+     * @return Optional<Point> -> the first step of the calculated path (the cell right after the head).
+     */
+    private Optional<Point> firstStep() {
+        if (path.size() < 2) {
+            return Optional.empty();
+        }
+        return Optional.of(cells.point(path.getFromLast(1)));
+    }
+
+    /**
+     * A* search from the head of the snake to the goal.
+     * g-score of a cell is the number of steps that the snake needs to reach it, so the body of the snake
+     * is checked in the same way as in the greedy search: the tail will be N cells shorter in N steps.
+     * h-score is the exact distance to the goal around walls and stones (see DistanceField). If the goal is
+     * cut off from the head by them, the Manhattan distance is used (the snake can't move diagonally).
+     * If the goal can't be reached, then the path leads to the reached cell, that is the closest one to the goal.
+     * The same happens, when the SearchBudget runs out: the best path found so far is returned.
+     *
+     * @return Optional<Point> -> the first step of the found path, or empty if the snake has nowhere to go.
+     */
+    public Optional<Point> doTraceAStar() {
+        arena.nextGeneration();
+        IntMinHeap open = arena.open();
+
+        int start = cell(head);
+        int target = cell(goal);
+        int best = start;    // the closest to the goal cell among reached ones
+        arena.visit(start, 0, -1);
+        open.offer(start, heuristic(start, target));
+
+        while (!open.isEmpty() && !outOfBudget()) {
+            int current = open.poll();
+            if (current == target) {
+                best = current;
+                break;
+            }
+            arena.close(current);
+            expandedNodes++;
+            if (heuristic(current, target) < heuristic(best, target)) {
+                best = current;
+            }
+
+            int steps = arena.gScore(current) + 1;
+            int[] neighbours = cells.neighbours(current);
+            for (int i = 0; i < neighbours.length; i++) {
+                expand(current, neighbours[i], steps, target);
+            }
+        }
+        open.clear();
+
+        path.clear();
+        for (int c = best; c != -1; c = arena.parent(c)) {
+            path.addLast(c);
+        }
+        return firstStep();
+    }
+
+    /**
+     * Bidirectional A*: one frontier grows from the head towards the goal, the other one from the goal towards
+     * the head, both with the Manhattan distance as the heuristic, and the frontier with the smaller f-score
+     * is expanded next. The search stops, when the shortest path found through a cell, that both frontiers
+     * have reached, is not longer than the smallest f-score of one of the frontiers.
+     * Unlike doTraceAStar() it doesn't need the DistanceField, that costs a pass over the whole game-board
+     * on every trace(). Ties of f-scores go to the deeper cell, otherwise an open game-board is expanded
+     * as a whole rectangle between the head and the goal.
+     * <p>
+     * The forward frontier checks the body of the snake exactly: the cell must be free at the step, when the head
+     * enters it (see BodyTimeline). The backward frontier doesn't know that step, so it lets a body cell in, if
+     * the tail may have left it by the earliest possible moment (the Manhattan distance from the head).
+     * When the frontiers meet, the part of the path from the meeting cell to the goal is checked with the real
+     * steps. If no path passes the check (the body is in the way), the search falls back to doTraceAStar(),
+     * so the result is never worse than in A_STAR mode. If the budget runs out before the frontiers meet,
+     * the path leads to the cell of the forward frontier, that is the closest one to the goal.
+     *
+     * @return Optional<Point> -> the first step of the found path, or empty if the snake has nowhere to go.
+     */
+    public Optional<Point> doTraceBidirectional() {
+        arena.nextGeneration();
+        IntMinHeap open = arena.open();
+        IntMinHeap openBack = arena.backwardOpen();
+        int start = cell(head);
+        int target = cell(goal);
+        if (start == target || bits.isBlockedBesidesBody(target)) {
+            return fallBackToAStar();
+        }
+        arena.visit(start, 0, -1);
+        open.offer(start, key(0, manhattan(start, target)));
+        arena.visitBackward(target, 0, -1);
+        openBack.offer(target, key(0, manhattan(target, start)));
+
+        int best = start;    // the closest to the goal cell reached from the head
+        int meeting = -1;
+        int shortest = Integer.MAX_VALUE;
+        while (!open.isEmpty() && !openBack.isEmpty() && !outOfBudget()) {
+            int forwardF = open.keyOf(open.peek()) / TIE_RANGE;
+            int backwardF = openBack.keyOf(openBack.peek()) / TIE_RANGE;
+            if (shortest <= Math.max(forwardF, backwardF)) {
+                break;
+            }
+            expandedNodes++;
+            if (forwardF <= backwardF) {
+                int current = open.poll();
+                arena.close(current);
+                if (manhattan(current, target) < manhattan(best, target)) {
+                    best = current;
+                }
+                int steps = arena.gScore(current) + 1;
+                int[] neighbours = cells.neighbours(current);
+                for (int i = 0; i < neighbours.length; i++) {
+                    int next = neighbours[i];
+                    if (arena.isClosed(next) || bits.isBlockedBesidesBody(next) || !timeline.isFreeAt(next, steps)) {
+                        continue;
+                    }
+                    int g = arena.gScore(next);
+                    if (g != -1 && g <= steps) {
+                        continue;
+                    }
+                    arena.visit(next, steps, current);
+                    open.offer(next, key(steps, manhattan(next, target)));
+                    int rest = arena.backwardDistance(next);
+                    if (rest != -1 && steps + rest < shortest && isFreeTowardsGoal(next, steps)) {
+                        meeting = next;
+                        shortest = steps + rest;
+                    }
+                }
+            } else {
+                int current = openBack.poll();
+                arena.closeBackward(current);
+                int distance = arena.backwardDistance(current) + 1;
+                int[] neighbours = cells.neighbours(current);
+                for (int i = 0; i < neighbours.length; i++) {
+                    int next = neighbours[i];
+                    if (arena.isClosedBackward(next) || bits.isBlockedBesidesBody(next)
+                            || !timeline.isFreeAt(next, manhattan(start, next))) {
+                        continue;
+                    }
+                    int d = arena.backwardDistance(next);
+                    if (d != -1 && d <= distance) {
+                        continue;
+                    }
+                    arena.visitBackward(next, distance, current);
+                    openBack.offer(next, key(distance, manhattan(next, start)));
+                    int steps = arena.gScore(next);
+                    if (steps != -1 && steps + distance < shortest && isFreeTowardsGoal(next, steps)) {
+                        meeting = next;
+                        shortest = steps + distance;
+                    }
+                }
+            }
+        }
+        open.clear();
+        openBack.clear();
+        // parents may have changed after the meeting was checked, so the path is checked once more
+        if (meeting != -1 && !isFreeTowardsGoal(meeting, arena.gScore(meeting))) {
+            meeting = -1;
+        }
+        if (meeting == -1 && !budgetExhausted) {
+            return fallBackToAStar();
+        }
+
+        // cell ids from the goal (first) to the head (last), as doTraceAStar() lays them out
+        path.clear();
+        for (int c = meeting == -1 ? best : meeting; c != -1; c = arena.parent(c)) {
+            path.addLast(c);
+        }
+        if (meeting != -1) {
+            for (int c = arena.backwardParent(meeting); c != -1; c = arena.backwardParent(c)) {
+                path.addFirst(c);
+            }
+        }
+        return firstStep();
+    }
+
+    // f-score first, then the deeper cell (g-scores over TIE_RANGE just don't break ties)
+    private static int key(int g, int h) {
+        return (g + h) * TIE_RANGE + (TIE_RANGE - 1 - Math.min(g, TIE_RANGE - 1));
+    }
+
+    /**
+     * @param meeting -> a cell, that both frontiers have reached;
+     * @param steps   -> the step, when the head enters it;
+     * @return boolean -> whether every cell of the backward path from the meeting cell to the goal is free,
+     * when the head enters it.
+     */
+    private boolean isFreeTowardsGoal(int meeting, int steps) {
+        for (int c = arena.backwardParent(meeting); c != -1; c = arena.backwardParent(c)) {
+            if (!timeline.isFreeAt(c, ++steps)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Optional<Point> fallBackToAStar() {
+        updateDistances();
         return doTraceAStar();
     }
 
+    private int manhattan(int from, int to) {
+        return Math.abs(from % dimX - to % dimX) + Math.abs(from / dimX - to / dimX);
+    }
+
+    private void expand(int from, int to, int steps, int target) {
+        if (arena.isClosed(to) || bits.isBlockedBesidesBody(to) || !timeline.isFreeAt(to, steps)) {
+            return;
+        }
+        int g = arena.gScore(to);
+        if (g != -1 && g <= steps) {
+            return;
+        }
+        arena.visit(to, steps, from);
+        arena.open().offer(to, steps + heuristic(to, target));
+    }
+
+    private int heuristic(int from, int to) {
+        if (distancesUsable) {
+            int distance = distances.distance(from);
+            if (distance != DistanceField.UNREACHABLE) {
+                return distance;
+            }
+        }
+        return Math.abs(from % dimX - to % dimX) + Math.abs(from / dimX - to / dimX);
+    }
+
     // PATHFINDING ALGORITHM
-    public Optional<Point> doTraceAStar() {
-        path = new DoublyLinkedList<>();
-        path.addFirst(head);
+    public Optional<Point> doTraceGreedy() {
+        path.clear();
+        path.addFirst(cell(head));
 
-        ArrayList<Point> forbiddenPoints = new ArrayList<>();
-        forbiddenPoints.add(stone);
+        bits.set(BitBoard.PATH, cell(head));
 
         boolean continueToSearch = true;
         int steps = 1;
 
         while (continueToSearch) {
-            Node<Point> current = path.getHeader();
-            Point nextPathPoint = getClosest(current.getElement(), forbiddenPoints, steps);
+            if (outOfBudget()) {
+                // the path found so far is followed, it is better than sending the answer too late
+                break;
+            }
+            int current = path.peekFirst();
+            Point nextPathPoint = getClosest(cells.point(current), steps);
             while (nextPathPoint == null) {
-                forbiddenPoints.add(current.getElement());
+                bits.set(BitBoard.FORBIDDEN, current);
+                bits.clear(BitBoard.PATH, current);
+                forbiddenCells++;
                 // if the function getClosest did not manage to find some suitable Point nextPathPoint
-                // then we should add this Point to forbiddenPoints array
-                // and not consider it when trying to build an alternative path
+                // then we should mark this Point as forbidden
+                // and not consider it when trying to build an alternative path.
+                // It is no longer a part of currently calculated path either.
 
-                current = current.getNext();
+                path.pollFirst();
+                backtracks++;
                 // in this case current is the very first Point of path, that was calculated at this moment;
-                // When we run getNext() method on current this means that we move 1 step BACK
+                // When we remove it from the path this means that we move 1 step BACK
                 // in currently calculated path.
                 // This is, so to say, SAFETY BACKUP mechanism: if snake is unable to find path from this point
                 // it goes 1 step back and tries to find path from that previous point.
                 steps -= 1;
                 if (steps < 1) {  // there is no way to find route
-                    System.out.println("exited");
                     continueToSearch = false;
                     break;
                 }
-                nextPathPoint = getClosest(current.getElement(), forbiddenPoints, steps);
+                if (outOfBudget()) {
+                    // every step back costs an expansion, a long backtrack must not run past the budget
+                    break;
+                }
+                current = path.peekFirst();
+                nextPathPoint = getClosest(cells.point(current), steps);
             }
 
             // if the new Point for path was found (nextPathPoint) then we should add it to calculated new path.
             // and update steps counter +=1
-            if (nextPathPoint != null && current != null) {
-                path.newHead(nextPathPoint, current);
+            if (nextPathPoint != null) {
+                path.addFirst(cell(nextPathPoint));
+                bits.set(BitBoard.PATH, cell(nextPathPoint));
                 steps += 1;
                 if (nextPathPoint.itsMe(goal))
                     // if our path has reached the goal (apple),
@@ -107,14 +668,11 @@ public class AStarAlgo {
 //        System.out.println("Finished");
 //        System.out.println("Path Size " + steps);
 
-        return Optional.of(path.getTrailer().getPrev().getElement());
+        return firstStep();
     }
 
     /**
      * @param current         -> the Point that the function considers as current for calculating the next Point in path;
-     * @param forbiddenPoints -> an ArrayList of Points that contains all the Points, that are not allowed to
-     *                        be included into the path (e.g. Point stone; other Points that proved to be
-     *                        useless for finding efficient path to the goal (apple);
      * @param steps           ->  number of steps that our "virtual snake" has taken during the process of path modelling,
      *                        starting from the initial position of snake's head (before calculating any path).
      * @return Point -> a single Point that was found among neighbours of Point current, that satisfies all filtering
@@ -122,25 +680,29 @@ public class AStarAlgo {
      * calculated path for the snake; it doesn't collide with all forbiddenPoints, that were discovered),
      * and it has the shortest distance to the goal.
      */
-    public Point getClosest(Point current, ArrayList<Point> forbiddenPoints, int steps) {
-        Point closest = null;
+    public Point getClosest(Point current, int steps) {
+        int closest = -1;
+        int closestDistance = Integer.MAX_VALUE;
+        int target = cell(goal);
+        expandedNodes++;
 
-        List<Point> verifiedNeighbours = neighbours(current)
-                .filter(
-                        potentialHead -> !snakeCollision(potentialHead, steps) &&
-                                !pathCollision(potentialHead) &&
-                                !forbiddenPointsCollision(potentialHead, forbiddenPoints))
-                .collect(Collectors.toList());
-
-        for (Point p : verifiedNeighbours) {
-            if (closest == null) {
-                closest = p;
-            } else if (p.distance(goal) <= closest.distance(goal)) {
-                closest = p;
+        int[] neighbours = cells.neighbours(cell(current));
+        for (int i = 0; i < neighbours.length; i++) {
+            int potentialHead = neighbours[i];
+            // a single bit test over the planes (path, forbidden, stones, walls) and a single lookup
+            // into BodyTimeline replace snakeCollision, pathCollision and forbiddenPointsCollision checks
+            if (bits.isBlockedBesidesBody(potentialHead) || !timeline.isFreeAt(potentialHead, steps)) {
+                continue;
+            }
+            // the distance goes around walls and stones, so the snake doesn't walk into dead ends behind them
+            int distance = heuristic(potentialHead, target);
+            if (closest == -1 || distance <= closestDistance) {
+                closest = potentialHead;
+                closestDistance = distance;
             }
         }
 
-        return closest;
+        return closest == -1 ? null : cells.point(closest);
     }
 
     /**
@@ -152,25 +714,13 @@ public class AStarAlgo {
      * (it will be shorter by N steps from it's tail);
      */
     public boolean snakeCollision(Point potentialHead, int steps) {
-        SinglyLinkedList.Node<Point> node = snake.getHead();
-        int count = 0;
-
-        // why do we traverse the snake's body only until node with (count < snake.size() - steps)  ?
+        // why do we consider only first (snake.size() - steps) cells of the snake's body?
         // Because the tail of the snake will no longer be in the same position after N steps;
         // It will move forward by N steps. And we should consider this issue.
         // These N nodes should migrate somewhere. If snake became shorter at the end, then it should
         // become longer at the start! That's right. These "new nodes", that represent the path,
-        // will be added to the path variable (DoublyLinkedList).
-        while (node != null && count < snake.size() - steps) {
-//            System.out.println("Checking for snake collision Point with coords:");
-//            System.out.printf("X:%d Y:%d \n", potentialHead.getX(), potentialHead.getY());
-            if (potentialHead.itsMe(node.getElement())) {
-                return true;
-            }
-            node = node.getNext();
-            count++;
-        }
-        return false;
+        // will be added to the path variable (IntDeque).
+        return !timeline.isFreeAt(cell(potentialHead), steps);
     }
 
     /**
@@ -180,30 +730,18 @@ public class AStarAlgo {
      * does the Point potentialHead overlaps with currently calculated path.
      */
     public boolean pathCollision(Point potentialHead) {
-        DoublyLinkedList.Node<Point> node = path.getHeader();
-        while (node != null) {
-            if (potentialHead.itsMe(node.getElement())) {
-                return true;
-            }
-            node = node.getNext();
-        }
-        return false;
+        return bits.test(BitBoard.PATH, cell(potentialHead));
     }
 
     /**
      * @param potentialHead -> a Point that we want to examine on whether it is an appropriate next head for the snake
      *                      (i.e. an appropriate next Point in the path);
      * @return boolean -> value, that answers the question:
-     * does the Point potentialHead overlaps with some forbidden Points.
+     * does the Point potentialHead overlaps with some forbidden Points (or stone).
      */
-    public boolean forbiddenPointsCollision(Point potentialHead, ArrayList<Point> forbiddenPoints) {
-        for (int i = 0; i < forbiddenPoints.size(); i++) {
-            Point forbiddenPoint = forbiddenPoints.get(i);
-            if (potentialHead.itsMe(forbiddenPoint)) {
-                return true;
-            }
-        }
-        return false;
+    public boolean forbiddenPointsCollision(Point potentialHead) {
+        int c = cell(potentialHead);
+        return bits.test(BitBoard.FORBIDDEN, c) || bits.test(BitBoard.STONES, c);
     }
 
 
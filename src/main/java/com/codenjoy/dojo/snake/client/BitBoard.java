@@ -0,0 +1,165 @@
+package com.codenjoy.dojo.snake.client;
+
+/**
+ * Packed occupancy grid of the game-board.
+ * Every kind of obstacle (body of the snake, currently calculated path, forbidden Points, stones, walls)
+ * is kept in its own plane - an array of long words, where every bit represents a single cell.
+ * Cell id is calculated as y * dimX + x.
+ * This enables us to answer the question "is this cell occupied?" with a single bit test,
+ * instead of walking through linked lists and array lists.
+ * Every plane remembers the words, that became non-empty, so clearing a plane costs O(cells that were set),
+ * not O(dimX * dimY).
+ */
+public class BitBoard {
+    public static final int BODY = 0;
+    public static final int PATH = 1;
+    public static final int FORBIDDEN = 2;
+    public static final int STONES = 3;
+    public static final int WALLS = 4;
+    private static final int PLANES = 5;
+
+    private final int dimX;
+    private final int dimY;
+    private final int words;
+    private final long[][] planes;
+    private final int[][] dirty;          // indexes of words, that became non-empty since the last clearPlane()
+    private final int[] dirtyCount;
+
+    public BitBoard(int dimX, int dimY) {
+        this.dimX = dimX;
+        this.dimY = dimY;
+        this.words = (dimX * dimY + 63) >>> 6;
+        this.planes = new long[PLANES][words];
+        this.dirty = new int[PLANES][words];
+        this.dirtyCount = new int[PLANES];
+        fillWalls();
+    }
+
+    // borders of the game-board are walls, they never change during the game
+    private void fillWalls() {
+        for (int x = 0; x < dimX; x++) {
+            set(WALLS, cell(x, 0));
+            set(WALLS, cell(x, dimY - 1));
+        }
+        for (int y = 0; y < dimY; y++) {
+            set(WALLS, cell(0, y));
+            set(WALLS, cell(dimX - 1, y));
+        }
+    }
+
+    public int getDimX() {
+        return dimX;
+    }
+
+    public int getDimY() {
+        return dimY;
+    }
+
+    public int cell(int x, int y) {
+        return y * dimX + x;
+    }
+
+    public void set(int plane, int cell) {
+        int word = cell >>> 6;
+        long[] bits = planes[plane];
+        if (bits[word] == 0L && dirtyCount[plane] < words) {
+            dirty[plane][dirtyCount[plane]++] = word;
+        }
+        // if the list of dirty words overflows (a word was cleared and set again many times),
+        // the word is still non-empty, and clearPlane() falls back to clearing the whole plane
+        bits[word] |= 1L << cell;
+    }
+
+    public void clear(int plane, int cell) {
+        planes[plane][cell >>> 6] &= ~(1L << cell);
+    }
+
+    public boolean test(int plane, int cell) {
+        return (planes[plane][cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public void clearPlane(int plane) {
+        long[] bits = planes[plane];
+        int count = dirtyCount[plane];
+        if (count < words) {
+            int[] list = dirty[plane];
+            for (int i = 0; i < count; i++) {
+                bits[list[i]] = 0L;
+            }
+        } else {
+            for (int i = 0; i < words; i++) {
+                bits[i] = 0L;
+            }
+        }
+        dirtyCount[plane] = 0;
+    }
+
+    /**
+     * @param word -> index of the long word within a plane;
+     * @return long -> all the planes merged together with a bitwise OR, i.e. 64 cells at once,
+     * where every set bit means that the cell is occupied by something.
+     */
+    public long occupied(int word) {
+        long[][] p = planes;
+        return p[BODY][word] | p[PATH][word] | p[FORBIDDEN][word] | p[STONES][word] | p[WALLS][word];
+    }
+
+    public boolean isBlocked(int cell) {
+        return (occupied(cell >>> 6) & (1L << cell)) != 0;
+    }
+
+    /**
+     * The same as isBlocked(), but the body of the snake is not taken into account.
+     * The body moves during path modelling, so it is checked separately (see BodyTimeline).
+     */
+    public boolean isBlockedBesidesBody(int cell) {
+        int word = cell >>> 6;
+        long[][] p = planes;
+        long occupied = p[PATH][word] | p[FORBIDDEN][word] | p[STONES][word] | p[WALLS][word];
+        return (occupied & (1L << cell)) != 0;
+    }
+
+    /**
+     * @return boolean -> whether the cell is occupied by a wall or a stone, i.e. by something, that doesn't move
+     * and doesn't depend on the calculated path.
+     */
+    public boolean isObstacle(int cell) {
+        int word = cell >>> 6;
+        return ((planes[STONES][word] | planes[WALLS][word]) & (1L << cell)) != 0;
+    }
+
+    /**
+     * @param cell -> the cell, that the snake (or currently calculated path) is located at;
+     * @return int -> a bit mask of safe moves from this cell. Bits are ordered like the values of Direction:
+     * bit 0 - LEFT, bit 1 - RIGHT, bit 2 - UP, bit 3 - DOWN.
+     * The cell must not be located on the border of the game-board.
+     */
+    public int safeMoves(int cell) {
+        int mask = 0;
+        if (!isBlocked(cell - 1)) mask |= 1;
+        if (!isBlocked(cell + 1)) mask |= 1 << 1;
+        if (!isBlocked(cell + dimX)) mask |= 1 << 2;
+        if (!isBlocked(cell - dimX)) mask |= 1 << 3;
+        return mask;
+    }
+
+    /**
+     * Writes free cells of the whole game-board into the given array (a set bit means a free cell).
+     * All the planes are merged word by word, so this costs (dimX * dimY / 64) operations.
+     *
+     * @param free -> an array with at least words() elements.
+     */
+    public void freeCells(long[] free) {
+        for (int i = 0; i < words; i++) {
+            free[i] = ~occupied(i);
+        }
+        int tail = (dimX * dimY) & 63;
+        if (tail != 0) {
+            free[words - 1] &= (1L << tail) - 1;
+        }
+    }
+
+    public int words() {
+        return words;
+    }
+}
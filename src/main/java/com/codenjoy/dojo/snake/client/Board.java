@@ -24,23 +24,118 @@ package com.codenjoy.dojo.snake.client;
 
 
 import com.codenjoy.dojo.client.AbstractBoard;
+import com.codenjoy.dojo.client.ClientBoard;
 import com.codenjoy.dojo.services.Direction;
 import com.codenjoy.dojo.services.Point;
-import com.codenjoy.dojo.services.PointImpl;
 import com.codenjoy.dojo.snake.model.Elements;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Board extends AbstractBoard<Elements> {
 
+    // NEXT_DIRECTION[elem.ordinal()][currentDirection.value()] -> the direction, where the body of the snake
+    // continues after the elem, when we walk from head to tail (see getNextSnakeDirection())
+    private static final Direction[][] NEXT_DIRECTION = new Direction[Elements.values().length][4];
+    private static final boolean[] SNAKE_TAIL = new boolean[Elements.values().length];
+
+    static {
+        for (Direction d : new Direction[]{Direction.LEFT, Direction.RIGHT, Direction.UP, Direction.DOWN}) {
+            for (Elements elem : Elements.values()) {
+                NEXT_DIRECTION[elem.ordinal()][d.value()] = calculateNextSnakeDirection(d, elem);
+            }
+        }
+        SNAKE_TAIL[Elements.TAIL_END_DOWN.ordinal()] = true;
+        SNAKE_TAIL[Elements.TAIL_END_LEFT.ordinal()] = true;
+        SNAKE_TAIL[Elements.TAIL_END_UP.ordinal()] = true;
+        SNAKE_TAIL[Elements.TAIL_END_RIGHT.ordinal()] = true;
+    }
+
+    private String raw;          // board string, as it came from the server
+    private BoardIndex index;    // built on demand, once per board string
+
+    /**
+     * The field of AbstractBoard is not built: the BoardIndex is the only decoder of the board string,
+     * so a tick parses the field exactly once, and getAt(), isAt(), get() and boardAsString() read the index.
+     */
+    @Override
+    public ClientBoard forString(String boardString) {
+        // the rows may be followed by new lines, (size + 1)^2 is still more than size^2 + size
+        size = (int) Math.sqrt(boardString.length());
+        raw = boardString;
+        index = null;
+        return this;
+    }
+
+    /**
+     * @return BoardIndex -> the whole Board, parsed in a single pass. It is built on the first call
+     * and then shared by all the methods below.
+     */
+    public BoardIndex index() {
+        if (index == null) {
+            index = new BoardIndex(raw, size);
+        }
+        return index;
+    }
+
+    @Override
+    public Elements getAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= size || y >= size) {
+            return null;
+        }
+        return index().getAt(x, y);
+    }
+
+    @Override
+    public Elements getAt(Point point) {
+        return getAt(point.getX(), point.getY());
+    }
+
+    @Override
+    public boolean isAt(int x, int y, Elements element) {
+        return getAt(x, y) == element;
+    }
+
+    @Override
+    public List<Point> get(Elements... elements) {
+        CellRegistry cells = CellRegistry.of(size);
+        BoardIndex index = index();
+        List<Point> result = new ArrayList<>();
+        // column by column, from the bottom to the top, like AbstractBoard does
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                Elements elem = index.getAt(x, y);
+                for (Elements element : elements) {
+                    if (elem == element) {
+                        result.add(cells.point(x, y));
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String boardAsString() {
+        BoardIndex index = index();
+        StringBuilder result = new StringBuilder(size * (size + 1));
+        for (int y = size - 1; y >= 0; y--) {
+            for (int x = 0; x < size; x++) {
+                result.append(index.getAt(x, y).ch());
+            }
+            result.append('\n');
+        }
+        return result.toString();
+    }
+
     @Override
     public Elements valueOf(char ch) {
         return Elements.valueOf(ch);
     }
 
     public List<Point> getApples() {
-        return get(Elements.GOOD_APPLE);
+        return new ArrayList<>(index().getApples());
     }
 
     @Override
@@ -49,15 +144,15 @@ public class Board extends AbstractBoard<Elements> {
     }
 
     public Direction getSnakeDirection() {
-        Point head = getHead();
+        Elements head = index().getHeadElement();
         if (head == null) {
             return null;
         }
-        if (isAt(head.getX(), head.getY(), Elements.HEAD_LEFT)) {
+        if (head == Elements.HEAD_LEFT) {
             return Direction.LEFT;
-        } else if (isAt(head.getX(), head.getY(), Elements.HEAD_RIGHT)) {
+        } else if (head == Elements.HEAD_RIGHT) {
             return Direction.RIGHT;
-        } else if (isAt(head.getX(), head.getY(), Elements.HEAD_UP)) {
+        } else if (head == Elements.HEAD_UP) {
             return Direction.UP;
         } else {
             return Direction.DOWN;
@@ -65,42 +160,24 @@ public class Board extends AbstractBoard<Elements> {
     }
 
     public Point getHead() {
-        List<Point> result = get(
-                Elements.HEAD_UP,
-                Elements.HEAD_DOWN,
-                Elements.HEAD_LEFT,
-                Elements.HEAD_RIGHT);
-        if (result.isEmpty()) {
-            return null;
-        } else {
-            return result.get(0);
-        }
+        return index().getHead();
     }
 
     public List<Point> getBarriers() {
         List<Point> result = getSnake();
-        result.addAll(getStones());
-        result.addAll(getWalls());
+        result.addAll(index().getStones());
+        result.addAll(index().getWalls());
         return result;
     }
 
     public List<Point> getSnake() {
-        Point head = getHead();
-        if (head == null) {
-            return Arrays.asList();
+        BoardIndex index = index();
+        if (index.getHead() == null) {
+            return new ArrayList<>();
         }
-        List<Point> result = get(
-                Elements.TAIL_END_DOWN,
-                Elements.TAIL_END_LEFT,
-                Elements.TAIL_END_UP,
-                Elements.TAIL_END_RIGHT,
-                Elements.TAIL_HORIZONTAL,
-                Elements.TAIL_VERTICAL,
-                Elements.TAIL_LEFT_DOWN,
-                Elements.TAIL_LEFT_UP,
-                Elements.TAIL_RIGHT_DOWN,
-                Elements.TAIL_RIGHT_UP);
-        result.add(0, head);
+        List<Point> result = new ArrayList<>(index.getSnakeSize());
+        result.add(index.getHead());
+        result.addAll(index.getBody());
         return result;
     }
 
@@ -125,11 +202,11 @@ public class Board extends AbstractBoard<Elements> {
     }
 
     public List<Point> getStones() {
-        return get(Elements.BAD_APPLE);
+        return new ArrayList<>(index().getStones());
     }
 
     public List<Point> getWalls() {
-        return get(Elements.BREAK);
+        return new ArrayList<>(index().getWalls());
     }
 
     /**
@@ -138,7 +215,10 @@ public class Board extends AbstractBoard<Elements> {
      * This enables us to "walk through" the body of the snake, taking into account every turn.
      */
     public SinglyLinkedList<Point> getSnakeAsLinkedList() {
-        Point headOfSnake = getHead();
+        CellRegistry cells = CellRegistry.of(size);
+        BoardIndex index = index();
+        // all Points are taken from CellRegistry, so we don't create a new Point for every piece of snake's body
+        Point headOfSnake = index.getHead();
         SinglyLinkedList<Point> snakeLinkedList = new SinglyLinkedList<>();
         snakeLinkedList.addFirst(headOfSnake);
 
@@ -156,7 +236,7 @@ public class Board extends AbstractBoard<Elements> {
         // Having understood this concept, now we can parse the body of the snake from the Board and wrap
         // it into a SinglyLinkedList, where the sequence of all nodes from head to tail will be preserved.
 
-        int counter = getSnake().size() - 1;
+        int counter = index.getSnakeSize() - 1;
         // counter equals to the length of snake minus 1.
         // We subtract 1(node), because head of the snake was already added to the snakeLinkedList.
 
@@ -166,25 +246,25 @@ public class Board extends AbstractBoard<Elements> {
 
             switch (currentDirection.value()) {
                 case 0: { // Direction.LEFT
-                    current = new PointImpl(current.getX() - 1, current.getY());
+                    current = cells.point(current.getX() - 1, current.getY());
                     break;
                 }
                 case 1: { // Direction.RIGHT
-                    current = new PointImpl(current.getX() + 1, current.getY());
+                    current = cells.point(current.getX() + 1, current.getY());
                     break;
                 }
                 case 2: { // Direction.UP
-                    current = new PointImpl(current.getX(), current.getY() + 1);
+                    current = cells.point(current.getX(), current.getY() + 1);
                     break;
                 }
                 case 3: { // Direction.DOWN
-                    current = new PointImpl(current.getX(), current.getY() - 1);
+                    current = cells.point(current.getX(), current.getY() - 1);
                     break;
                 }
             }
             snakeLinkedList.addLast(current); // add one more Point to the snake Linked List
 
-            Elements elem = getAt(current);
+            Elements elem = index.getAt(current);
             // we find out what kind of snake's element is in "current" variable.
             // This is important, because it'll allow us to define the subsequent direction of snake's body.
 
@@ -196,13 +276,39 @@ public class Board extends AbstractBoard<Elements> {
         return snakeLinkedList;
     }
 
+    /**
+     * @return IntDeque -> cell ids (see CellRegistry) of snake's body from head (first) to tail (last).
+     * The same walk as in getSnakeAsLinkedList(), but no node is created for a piece of snake's body.
+     */
+    public IntDeque getSnakeAsDeque() {
+        CellRegistry cells = CellRegistry.of(size);
+        BoardIndex index = index();
+        IntDeque snake = new IntDeque(index.getSnakeSize());
+        if (index.getHead() == null) {
+            return snake;
+        }
+        int current = cells.id(index.getHead());
+        snake.addLast(current);
+
+        Direction currentDirection = getSnakeDirection().inverted();
+        int counter = index.getSnakeSize() - 1;
+        for (int i = 0; i < counter; i++) {
+            current = cells.id(currentDirection.changeX(cells.x(current)), currentDirection.changeY(cells.y(current)));
+            snake.addLast(current);
+
+            Elements elem = index.getAt(cells.x(current), cells.y(current));
+            if (isSnakeTail(elem)) break;
+
+            currentDirection = getNextSnakeDirection(currentDirection, elem);
+        }
+        return snake;
+    }
+
     private Direction getNextSnakeDirection(Direction currentDirection, Elements elem) {
-//        System.out.println("************************************************");
-//        System.out.println("Arguments passed into getNextSnakeDirection(): ");
-//        System.out.println("currentDirection: " + currentDirection);
-//        System.out.println("elem: " + elem);
-//        System.out.println("************************************************");
+        return NEXT_DIRECTION[elem.ordinal()][currentDirection.value()];
+    }
 
+    private static Direction calculateNextSnakeDirection(Direction currentDirection, Elements elem) {
         Direction newDirection = null;
 
         if ((currentDirection == Direction.LEFT || currentDirection == Direction.RIGHT)
@@ -237,9 +343,7 @@ public class Board extends AbstractBoard<Elements> {
      * @return boolean -> whether the given elem represents the tail of the snake.
      */
     private boolean isSnakeTail(Elements elem) {
-        boolean isSnakeTail = (elem == Elements.TAIL_END_DOWN || elem == Elements.TAIL_END_LEFT
-                || elem == Elements.TAIL_END_UP || elem == Elements.TAIL_END_RIGHT);
-        return isSnakeTail;
+        return SNAKE_TAIL[elem.ordinal()];
     }
 
 }
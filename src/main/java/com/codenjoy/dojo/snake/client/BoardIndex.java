@@ -0,0 +1,153 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.services.Point;
+import com.codenjoy.dojo.snake.model.Elements;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything that the solver wants to know about the Board, collected in a single pass over the raw board string.
+ * Every char is decoded once (see Elements.valueOf(char)) and stored in a compact byte grid as Elements ordinal.
+ * Lists of positions are built in the same pass, in the same order as AbstractBoard.get() returns them
+ * (column by column, from the bottom to the top).
+ * All Points are taken from CellRegistry.
+ */
+public class BoardIndex {
+    private static final int HEAD = 1;
+    private static final int BODY = 2;
+    private static final int APPLE = 3;
+    private static final int STONE = 4;
+    private static final int WALL = 5;
+    private static final byte[] KIND = new byte[Elements.values().length];
+
+    static {
+        KIND[Elements.HEAD_UP.ordinal()] = HEAD;
+        KIND[Elements.HEAD_DOWN.ordinal()] = HEAD;
+        KIND[Elements.HEAD_LEFT.ordinal()] = HEAD;
+        KIND[Elements.HEAD_RIGHT.ordinal()] = HEAD;
+        KIND[Elements.TAIL_END_DOWN.ordinal()] = BODY;
+        KIND[Elements.TAIL_END_LEFT.ordinal()] = BODY;
+        KIND[Elements.TAIL_END_UP.ordinal()] = BODY;
+        KIND[Elements.TAIL_END_RIGHT.ordinal()] = BODY;
+        KIND[Elements.TAIL_HORIZONTAL.ordinal()] = BODY;
+        KIND[Elements.TAIL_VERTICAL.ordinal()] = BODY;
+        KIND[Elements.TAIL_LEFT_DOWN.ordinal()] = BODY;
+        KIND[Elements.TAIL_LEFT_UP.ordinal()] = BODY;
+        KIND[Elements.TAIL_RIGHT_DOWN.ordinal()] = BODY;
+        KIND[Elements.TAIL_RIGHT_UP.ordinal()] = BODY;
+        KIND[Elements.GOOD_APPLE.ordinal()] = APPLE;
+        KIND[Elements.BAD_APPLE.ordinal()] = STONE;
+        KIND[Elements.BREAK.ordinal()] = WALL;
+    }
+
+    private final int size;
+    private final CellRegistry cells;
+    private final byte[] grid;    // Elements ordinal for every cell, cell id is y * size + x
+    private final List<Point> apples = new ArrayList<>();
+    private final List<Point> stones = new ArrayList<>();
+    private final List<Point> walls = new ArrayList<>();
+    private final List<Point> body = new ArrayList<>();   // snake without the head
+    private Point head = null;
+    private Elements headElement = null;
+
+    /**
+     * @param board -> the board string, as it came from the server: rows from the top to the bottom,
+     *              new lines are allowed between rows;
+     * @param size  -> size of the game-board.
+     */
+    public BoardIndex(String board, int size) {
+        this.size = size;
+        this.cells = CellRegistry.of(size);
+        this.grid = new byte[size * size];
+
+        if (board.length() != size * size) {
+            board = board.replace("\n", "");
+        }
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                // the first row of the string is the top of the game-board
+                char ch = board.charAt((size - 1 - y) * size + x);
+                Elements elem = Elements.valueOf(ch);
+                int cell = cells.id(x, y);
+                grid[cell] = (byte) elem.ordinal();
+                switch (KIND[elem.ordinal()]) {
+                    case HEAD:
+                        if (head == null) {
+                            head = cells.point(cell);
+                            headElement = elem;
+                        }
+                        break;
+                    case BODY:
+                        body.add(cells.point(cell));
+                        break;
+                    case APPLE:
+                        apples.add(cells.point(cell));
+                        break;
+                    case STONE:
+                        stones.add(cells.point(cell));
+                        break;
+                    case WALL:
+                        walls.add(cells.point(cell));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Elements getAt(int x, int y) {
+        return Elements.byOrdinal(grid[y * size + x]);
+    }
+
+    public Elements getAt(Point p) {
+        return getAt(p.getX(), p.getY());
+    }
+
+    /**
+     * @param cell -> cell id (y * size + x);
+     * @return int -> Elements ordinal of the cell.
+     */
+    public int ordinal(int cell) {
+        return grid[cell];
+    }
+
+    public Point getHead() {
+        return head;
+    }
+
+    public Elements getHeadElement() {
+        return headElement;
+    }
+
+    /**
+     * @return int -> number of cells in the snake, including the head (0 if there is no snake on the Board).
+     */
+    public int getSnakeSize() {
+        return head == null ? 0 : body.size() + 1;
+    }
+
+    /**
+     * Lists below are shared, they must not be modified.
+     */
+    public List<Point> getApples() {
+        return apples;
+    }
+
+    public List<Point> getStones() {
+        return stones;
+    }
+
+    public List<Point> getWalls() {
+        return walls;
+    }
+
+    public List<Point> getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,206 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.services.Point;
+import com.codenjoy.dojo.snake.model.Elements;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the state of the game (snake, apples, stones) between ticks.
+ * Between two ticks only a few cells of the snake change: the head, the neck and the tail.
+ * So instead of parsing the body of the snake from the Board every tick, we look only at these cells
+ * and update the snake at its head and tail. Apples and stones are taken from the BoardIndex every tick:
+ * a new one may appear anywhere, and the index, that the solver builds anyway, has already found them all.
+ * If the new Board doesn't look like a legal move of the snake (death, respawn, new size of the game-board,
+ * the snake ate a stone etc.), then the whole state is rebuilt from the Board.
+ * The Zobrist hash of the position (see ZobristKeys) is updated in the same way: a move changes only
+ * the keys of the head, the old head and the tail.
+ */
+public class BoardTracker {
+    private int size = -1;
+    private CellRegistry cells;
+    private ZobristKeys keys;
+    private long hash;
+    private final IntDeque snake = new IntDeque();   // cell ids from head (first) to tail (last)
+    private final List<Point> apples = new ArrayList<>();
+    private final List<Point> stones = new ArrayList<>();
+
+    private long rebuilds = 0;
+    private long incrementalUpdates = 0;
+
+    /**
+     * Brings the state of the tracker in line with the new Board.
+     *
+     * @return boolean -> true if the state was updated incrementally, false if it was rebuilt from scratch.
+     */
+    public boolean update(Board board) {
+        if (board.isGameOver() || size != board.size() || snake.isEmpty() || !moveSnake(board)) {
+            rebuild(board);
+            return false;
+        }
+        sync(apples, board.index().getApples(), true);
+        sync(stones, board.index().getStones(), false);
+        incrementalUpdates++;
+        return true;
+    }
+
+    /**
+     * Tries to find the new head of the snake next to the old one and to move the tail accordingly.
+     *
+     * @return boolean -> whether the Board matches a legal move of the snake.
+     */
+    private boolean moveSnake(Board board) {
+        int oldHead = snake.peekFirst();
+        int[] neighbours = cells.neighbours(oldHead);
+        int newHead = -1;
+        for (int i = 0; i < neighbours.length; i++) {
+            if (isHead(board.getAt(cells.point(neighbours[i])))) {
+                newHead = neighbours[i];
+                break;
+            }
+        }
+        if (newHead == -1 || !isBody(board.getAt(cells.point(oldHead)))) {
+            return false;
+        }
+
+        // if the tail is still at the same place, then the snake has eaten an apple and became longer
+        int oldTail = snake.peekLast();
+        boolean grew = oldTail != newHead && isTail(board.getAt(cells.point(oldTail)));
+        if (!grew) {
+            snake.pollLast();
+            if (!snake.isEmpty()) {
+                hash ^= keys.link(oldTail, keys.direction(oldTail, snake.peekLast()));
+            }
+        }
+        if (snake.isEmpty() || !newTailIsValid(board, newHead)) {
+            return false;
+        }
+        snake.addFirst(newHead);
+        hash ^= keys.head(oldHead) ^ keys.link(oldHead, keys.direction(oldHead, newHead)) ^ keys.head(newHead);
+        return true;
+    }
+
+    private boolean newTailIsValid(Board board, int newHead) {
+        int tail = snake.peekLast();
+        if (snake.size() == 1) {
+            // the old head became the tail (the snake consists of two cells)
+            return isTail(board.getAt(cells.point(tail)));
+        }
+        return tail != newHead && isTail(board.getAt(cells.point(tail)));
+    }
+
+    /**
+     * Apples and stones are rehashed only when they have changed, the check costs O(number of them).
+     */
+    private void sync(List<Point> target, List<Point> source, boolean apple) {
+        if (target.equals(source)) {
+            return;
+        }
+        hash ^= hashOf(target, apple);
+        reload(target, source);
+        hash ^= hashOf(target, apple);
+    }
+
+    private void rebuild(Board board) {
+        rebuilds++;
+        size = board.size();
+        cells = CellRegistry.of(size);
+        keys = ZobristKeys.of(size);
+        snake.clear();
+        if (!board.isGameOver()) {
+            snake.copyFrom(board.getSnakeAsDeque());
+        }
+        reload(apples, board.index().getApples());
+        reload(stones, board.index().getStones());
+        hash = keys.snake(snake) ^ hashOf(apples, true) ^ hashOf(stones, false);
+    }
+
+    private long hashOf(List<Point> points, boolean apple) {
+        long result = 0;
+        for (int i = 0; i < points.size(); i++) {
+            int cell = cells.id(points.get(i));
+            result ^= apple ? keys.apple(cell) : keys.stone(cell);
+        }
+        return result;
+    }
+
+    private static int[] idsOf(CellRegistry cells, List<Point> points) {
+        int[] result = new int[points.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = cells.id(points.get(i));
+        }
+        return result;
+    }
+
+    private void reload(List<Point> target, List<Point> source) {
+        target.clear();
+        for (Point p : source) {
+            target.add(cells.point(p.getX(), p.getY()));
+        }
+    }
+
+    private static boolean isHead(Elements elem) {
+        return elem == Elements.HEAD_UP || elem == Elements.HEAD_DOWN
+                || elem == Elements.HEAD_LEFT || elem == Elements.HEAD_RIGHT;
+    }
+
+    private static boolean isTail(Elements elem) {
+        return elem == Elements.TAIL_END_DOWN || elem == Elements.TAIL_END_LEFT
+                || elem == Elements.TAIL_END_UP || elem == Elements.TAIL_END_RIGHT;
+    }
+
+    private static boolean isBody(Elements elem) {
+        return elem == Elements.TAIL_HORIZONTAL || elem == Elements.TAIL_VERTICAL
+                || elem == Elements.TAIL_LEFT_DOWN || elem == Elements.TAIL_LEFT_UP
+                || elem == Elements.TAIL_RIGHT_DOWN || elem == Elements.TAIL_RIGHT_UP
+                || isTail(elem);
+    }
+
+    public Point getHead() {
+        return snake.isEmpty() ? null : cells.point(snake.peekFirst());
+    }
+
+    /**
+     * @return IntDeque -> cell ids of snake's body from head to tail. It is owned by the tracker,
+     * so it must not be modified.
+     */
+    public IntDeque getSnake() {
+        return snake;
+    }
+
+    public CellRegistry getCells() {
+        return cells;
+    }
+
+    /**
+     * @return long -> Zobrist hash of the current position (head, ordered body, apples, stones), see ZobristKeys.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return byte[] -> canonical encoding of the current position (see PositionKey), it costs O(snake.size()).
+     */
+    public byte[] getPositionKey() {
+        return PositionKey.pack(size, snake, idsOf(cells, apples), idsOf(cells, stones));
+    }
+
+    public List<Point> getApples() {
+        return Collections.unmodifiableList(apples);
+    }
+
+    public List<Point> getStones() {
+        return Collections.unmodifiableList(stones);
+    }
+
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    public long getIncrementalUpdates() {
+        return incrementalUpdates;
+    }
+}
@@ -0,0 +1,111 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.services.Point;
+
+/**
+ * "Cell is free at step" grid for the body of the snake.
+ * For every cell of snake's body we store the number of steps, after which the tail of the snake
+ * leaves this cell: a body cell with index i (head has index 0) is free after (snake.size() - i) steps.
+ * Cells that are not occupied by the snake are free right away (0 steps).
+ * So the question "does the body of the snake occupy this cell in N steps?" costs a single array lookup.
+ */
+public class BodyTimeline {
+    private final int dimX;
+    private final int[] freeAt;
+    private int[] cells = new int[0];   // body cells from head to tail, needed to clear the grid cheaply
+    private int size = 0;
+
+    public BodyTimeline(int dimX, int dimY) {
+        this.dimX = dimX;
+        this.freeAt = new int[dimX * dimY];
+    }
+
+    /**
+     * Builds the grid in one pass over the body of the snake.
+     * Only cells of the previous snake are cleared, so this costs O(snake.size()), not O(dimX * dimY).
+     *
+     * @param snake -> body of the snake from head to tail (see Board.getSnakeAsLinkedList()).
+     */
+    public void build(SinglyLinkedList<Point> snake) {
+        build(snake, snake.size());
+    }
+
+    /**
+     * @param snake -> cell ids of snake's body from head (first) to tail (last).
+     */
+    public void build(IntDeque snake) {
+        clearPrevious();
+        size = snake.size();
+        if (cells.length < size) {
+            cells = new int[size];
+        }
+        for (int i = 0; i < size; i++) {
+            int cell = snake.get(i);
+            cells[i] = cell;
+            freeAt[cell] = size - i;
+        }
+        protectNeck();
+    }
+
+    /**
+     * @param snake -> body of the snake from head to tail;
+     * @param size  -> number of cells in the body of the snake.
+     */
+    public void build(Iterable<Point> snake, int size) {
+        clearPrevious();
+        this.size = size;
+        if (cells.length < size) {
+            cells = new int[size];
+        }
+
+        int i = 0;
+        for (Point p : snake) {
+            int cell = p.getY() * dimX + p.getX();
+            cells[i] = cell;
+            freeAt[cell] = size - i;
+            i++;
+        }
+        protectNeck();
+    }
+
+    private void clearPrevious() {
+        for (int i = 0; i < size; i++) {
+            freeAt[cells[i]] = 0;
+        }
+    }
+
+    // the snake can't turn back: even if the neck is the tail at the same time,
+    // it is not allowed to move into it right on the next step.
+    private void protectNeck() {
+        if (size == 2) {
+            freeAt[cells[1]] = 2;
+        }
+    }
+
+    /**
+     * @return int -> the number of steps, after which the tail of the snake leaves the cell.
+     */
+    public int freeAt(int cell) {
+        return freeAt[cell];
+    }
+
+    /**
+     * @param cell  -> the cell we want to move into;
+     * @param steps -> the number of steps the "virtual snake" will have made when its head enters the cell;
+     * @return boolean -> whether the body of the snake will have left the cell by that moment.
+     */
+    public boolean isFreeAt(int cell, int steps) {
+        return freeAt[cell] <= steps;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index -> index of the body cell, where 0 is the head and size() - 1 is the tail.
+     */
+    public int cellAt(int index) {
+        return cells[index];
+    }
+}
@@ -0,0 +1,162 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One bot connected to the server: a WebSocket and its own YourSolver.
+ * The server sends "board=..." every tick and waits for the command, so a session handles only one message
+ * at a time and its solver is never called from two threads at once. The state of the solver belongs
+ * to the session; only what the solver is given on purpose (e.g. a DecisionCache, that is safe for many threads,
+ * see MultiSessionRunner.main) is shared between sessions.
+ */
+public class BotSession implements WebSocket.Listener {
+    private static final String BOARD_PREFIX = "board=";
+
+    private final String name;
+    private final URI uri;
+    private final YourSolver solver;
+    private final StringBuilder message = new StringBuilder();  // parts of the current message
+    private final CompletableFuture<BotSession> closed = new CompletableFuture<>();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile WebSocket webSocket;
+
+    /**
+     * @param name   -> name of the session for reports;
+     * @param url    -> board page url from the browser, e.g. "http://host/codenjoy-contest/board/player/id?code=123";
+     * @param solver -> the solver of this session only.
+     */
+    public BotSession(String name, String url, YourSolver solver) {
+        this.name = name;
+        this.uri = toWebSocket(url);
+        this.solver = solver;
+    }
+
+    /**
+     * Converts the board page url into the url of the WebSocket, the same way as WebSocketRunner does:
+     * "http://host/context/board/player/id?code=123" -> "ws://host/context/ws?user=id&code=123".
+     */
+    public static URI toWebSocket(String url) {
+        URI page = URI.create(url);
+        String path = page.getPath();
+        int board = path.indexOf("/board/player/");
+        if (board == -1) {
+            throw new IllegalArgumentException("Not a board page url: " + url);
+        }
+        String context = path.substring(0, board);
+        String user = path.substring(board + "/board/player/".length());
+        String scheme = "https".equals(page.getScheme()) ? "wss" : "ws";
+        String port = page.getPort() == -1 ? "" : ":" + page.getPort();
+        String code = page.getQuery() == null ? "" : "&" + page.getQuery();
+        return URI.create(scheme + "://" + page.getHost() + port + context + "/ws?user=" + user + code);
+    }
+
+    /**
+     * @param client -> the client is shared by all sessions (it owns the selector thread and the executor).
+     */
+    public CompletableFuture<WebSocket> connect(HttpClient client) {
+        return client.newWebSocketBuilder()
+                .buildAsync(uri, this)
+                .whenComplete((ws, error) -> {
+                    if (error != null) {
+                        errors.incrementAndGet();
+                        closed.complete(this);
+                    }
+                });
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        this.webSocket = webSocket;
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        message.append(data);
+        if (!last) {
+            webSocket.request(1);
+            return null;
+        }
+        String text = message.toString();
+        message.setLength(0);
+        if (!text.startsWith(BOARD_PREFIX)) {
+            webSocket.request(1);
+            return null;
+        }
+
+        String command;
+        try {
+            Board board = new Board();
+            board.forString(text.substring(BOARD_PREFIX.length()));
+            command = solver.get(board);
+        } catch (RuntimeException e) {
+            // a broken tick must not kill the session: the snake keeps its direction
+            errors.incrementAndGet();
+            command = "";
+        }
+        ticks.incrementAndGet();
+        return webSocket.sendText(command, true).thenRun(() -> webSocket.request(1));
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        closed.complete(this);
+        return webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "");
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        errors.incrementAndGet();
+        closed.complete(this);
+    }
+
+    /**
+     * Closes the connection (if it is still open).
+     */
+    public void close() {
+        WebSocket ws = webSocket;
+        if (ws != null && !ws.isOutputClosed()) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "");
+        }
+    }
+
+    /**
+     * @return CompletableFuture -> is completed, when the server has closed the session or it has failed.
+     */
+    public CompletableFuture<BotSession> closed() {
+        return closed;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public YourSolver getSolver() {
+        return solver;
+    }
+
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public String toString() {
+        HistogramSnapshot tick = solver.getMetrics().snapshot().getTickLatency();
+        return String.format("%s: ticks=%d errors=%d tick.mean=%dns tick.p99=%dns",
+                name, getTicks(), getErrors(), tick.getMean(), tick.getP99());
+    }
+}
@@ -0,0 +1,147 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.services.Point;
+import com.codenjoy.dojo.services.PointImpl;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of all the cells of the game-board with given dimensions.
+ * Cell id is calculated as y * dimX + x (the same as in BitBoard).
+ * It hands out one canonical immutable Point per cell, so that nobody has to create a new PointImpl
+ * every time the snake (or the "virtual snake" during path modelling) moves.
+ * It also holds a precomputed table of neighbours for every cell, where the walls (borders of the game-board)
+ * are already removed.
+ * Registries are immutable and are cached per board size, so they can be shared by all the solvers.
+ */
+public final class CellRegistry {
+    private static final ConcurrentHashMap<Long, CellRegistry> REGISTRIES = new ConcurrentHashMap<>();
+    private static final int[] NO_NEIGHBOURS = new int[0];
+
+    private final int dimX;
+    private final int dimY;
+    private final Point[] points;
+    private final int[][] neighbours;
+
+    private CellRegistry(int dimX, int dimY) {
+        this.dimX = dimX;
+        this.dimY = dimY;
+        this.points = new Point[dimX * dimY];
+        this.neighbours = new int[dimX * dimY][];
+
+        int[] buffer = new int[4];
+        for (int y = 0; y < dimY; y++) {
+            for (int x = 0; x < dimX; x++) {
+                int id = id(x, y);
+                points[id] = new FixedPoint(x, y);
+                if (!isPlayable(x, y)) {
+                    neighbours[id] = NO_NEIGHBOURS;
+                    continue;
+                }
+                // the same order as it was in AStarAlgo: LEFT, RIGHT, UP, DOWN
+                int count = 0;
+                if (isPlayable(x - 1, y)) buffer[count++] = id(x - 1, y);
+                if (isPlayable(x + 1, y)) buffer[count++] = id(x + 1, y);
+                if (isPlayable(x, y + 1)) buffer[count++] = id(x, y + 1);
+                if (isPlayable(x, y - 1)) buffer[count++] = id(x, y - 1);
+                int[] list = new int[count];
+                System.arraycopy(buffer, 0, list, 0, count);
+                neighbours[id] = list;
+            }
+        }
+    }
+
+    /**
+     * @return CellRegistry -> the registry for the game-board with given dimensions (created once per size).
+     */
+    public static CellRegistry of(int dimX, int dimY) {
+        long key = ((long) dimX << 32) | dimY;
+        CellRegistry registry = REGISTRIES.get(key);
+        if (registry == null) {
+            registry = REGISTRIES.computeIfAbsent(key, k -> new CellRegistry(dimX, dimY));
+        }
+        return registry;
+    }
+
+    public static CellRegistry of(int size) {
+        return of(size, size);
+    }
+
+    public int getDimX() {
+        return dimX;
+    }
+
+    public int getDimY() {
+        return dimY;
+    }
+
+    public int count() {
+        return points.length;
+    }
+
+    public int id(int x, int y) {
+        return y * dimX + x;
+    }
+
+    public int id(Point p) {
+        return p.getY() * dimX + p.getX();
+    }
+
+    public int x(int id) {
+        return id % dimX;
+    }
+
+    public int y(int id) {
+        return id / dimX;
+    }
+
+    public Point point(int id) {
+        return points[id];
+    }
+
+    public Point point(int x, int y) {
+        return points[id(x, y)];
+    }
+
+    /**
+     * @return int[] -> ids of playable neighbours of the cell in order LEFT, RIGHT, UP, DOWN.
+     * The array is shared, it must not be modified.
+     */
+    public int[] neighbours(int id) {
+        return neighbours[id];
+    }
+
+    public boolean isPlayable(int x, int y) {
+        return x >= 1 && y >= 1 && x < dimX - 1 && y < dimY - 1;
+    }
+
+    /**
+     * Point that can't be moved. It is shared between all the users of the registry.
+     */
+    private static final class FixedPoint extends PointImpl {
+
+        FixedPoint(int x, int y) {
+            super(x, y);
+        }
+
+        @Override
+        public void move(int x, int y) {
+            throw new UnsupportedOperationException("Cell point can't be moved");
+        }
+
+        @Override
+        public void move(Point pt) {
+            throw new UnsupportedOperationException("Cell point can't be moved");
+        }
+
+        @Override
+        public void setX(int x) {
+            throw new UnsupportedOperationException("Cell point can't be moved");
+        }
+
+        @Override
+        public void setY(int y) {
+            throw new UnsupportedOperationException("Cell point can't be moved");
+        }
+    }
+}
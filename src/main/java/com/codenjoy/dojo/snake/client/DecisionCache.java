@@ -0,0 +1,168 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of decisions of the solver, keyed by the Zobrist hash of the position (see BoardTracker.getHash()):
+ * the direction of the chosen step and the length of the planned path. A position, that was solved once,
+ * costs one probe of the table instead of a search.
+ * <p>
+ * The table is open-addressed over a fixed AtomicLongArray (two longs per slot), so its memory never grows.
+ * Slots are grouped into buckets of BUCKET slots, a hash is only looked up in its bucket.
+ * When a bucket is full, the victim is chosen with the CLOCK algorithm: every hit marks the entry as
+ * referenced, the hand of the bucket passes over referenced entries (clearing the mark) and evicts
+ * the first one, that wasn't used since the last pass.
+ * <p>
+ * The cache is lock-free and can be shared by all sessions of a JVM (see MultiSessionRunner), if their solvers
+ * have the same settings. A slot stores (hash ^ data, data), so a reader, that sees a slot half-written by another
+ * thread, gets a mismatch and treats it as a miss. Two threads, that write into the same bucket at once,
+ * may lose one of the entries, which is fine for a cache.
+ */
+public class DecisionCache {
+    public static final int MISS = -1;
+    public static final int BUCKET = 4;
+    private static final int BYTES_PER_SLOT = 16;
+
+    private static final long VALID = 1L << 62;       // data of an empty slot is 0
+    private static final long REFERENCED = 1L << 61;
+    private static final int DIRECTION_MASK = 0b11;
+    private static final int PLAN_SHIFT = 2;
+    private static final int MAX_PLAN = Integer.MAX_VALUE >>> PLAN_SHIFT;
+    private static final long DECISION_MASK = Integer.MAX_VALUE;  // direction and plan length
+
+    private final AtomicLongArray table;   // [slot * 2] = hash ^ data, [slot * 2 + 1] = data
+    private final int buckets;
+    private final byte[] hands;            // position of the clock hand in every bucket, races are harmless
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxBytes -> memory cap of the table, the number of slots is the biggest power of 2 that fits.
+     */
+    public DecisionCache(long maxBytes) {
+        long slots = Long.highestOneBit(Math.max(BUCKET, maxBytes / BYTES_PER_SLOT));
+        slots = Math.min(slots, 1L << 29);  // 2 longs per slot must fit into one array
+        this.buckets = (int) (slots / BUCKET);
+        this.table = new AtomicLongArray((int) slots * 2);
+        this.hands = new byte[buckets];
+    }
+
+    /**
+     * @param hash -> Zobrist hash of the position;
+     * @return int -> the decision (see direction(int), planLength(int)) or MISS.
+     */
+    public int get(long hash) {
+        int first = bucket(hash) * BUCKET;
+        for (int slot = first; slot < first + BUCKET; slot++) {
+            long data = table.get(slot * 2 + 1);
+            if ((data & VALID) != 0 && (table.get(slot * 2) ^ data) == hash) {
+                if ((data & REFERENCED) == 0) {
+                    write(slot, hash, data | REFERENCED);
+                }
+                hits.increment();
+                return (int) (data & DECISION_MASK);
+            }
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    /**
+     * @param hash       -> Zobrist hash of the position;
+     * @param direction  -> the step, that the solver has chosen (Direction.value() of LEFT, RIGHT, UP or DOWN);
+     * @param planLength -> length of the path, that the step belongs to (0 if there was no path).
+     */
+    public void put(long hash, int direction, int planLength) {
+        long data = VALID | (direction & DIRECTION_MASK) | ((long) Math.min(planLength, MAX_PLAN) << PLAN_SHIFT);
+        int bucket = bucket(hash);
+        int first = bucket * BUCKET;
+        for (int slot = first; slot < first + BUCKET; slot++) {
+            long old = table.get(slot * 2 + 1);
+            if ((old & VALID) == 0 || (table.get(slot * 2) ^ old) == hash) {
+                write(slot, hash, data);
+                return;
+            }
+        }
+        write(victim(bucket), hash, data);
+        evictions.increment();
+    }
+
+    private int victim(int bucket) {
+        int first = bucket * BUCKET;
+        int hand = hands[bucket];
+        // two passes at most: the first one clears the marks, so the second one always finds a victim
+        for (int i = 0; i < BUCKET * 2; i++) {
+            int slot = first + (hand + i) % BUCKET;
+            long data = table.get(slot * 2 + 1);
+            if ((data & REFERENCED) == 0) {
+                hands[bucket] = (byte) ((hand + i + 1) % BUCKET);
+                return slot;
+            }
+            long hash = table.get(slot * 2) ^ data;
+            write(slot, hash, data & ~REFERENCED);
+        }
+        return first + hand;
+    }
+
+    private void write(int slot, long hash, long data) {
+        table.set(slot * 2 + 1, data);
+        table.set(slot * 2, hash ^ data);
+    }
+
+    private int bucket(long hash) {
+        // the lowest bits of a Zobrist hash are as random as the highest ones
+        return (int) ((hash ^ (hash >>> 32)) & Integer.MAX_VALUE) % buckets;
+    }
+
+    public static int direction(int decision) {
+        return decision & DIRECTION_MASK;
+    }
+
+    public static int planLength(int decision) {
+        return decision >>> PLAN_SHIFT;
+    }
+
+    /**
+     * Removes all entries (e.g. after the solver was changed), counters are kept.
+     */
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, 0);
+        }
+    }
+
+    public int capacity() {
+        return buckets * BUCKET;
+    }
+
+    public long getMemoryBytes() {
+        return (long) capacity() * BYTES_PER_SLOT;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("capacity=%d memory=%d bytes hits=%d misses=%d hitRate=%.3f evictions=%d",
+                capacity(), getMemoryBytes(), getHits(), getMisses(), getHitRate(), getEvictions());
+    }
+}
@@ -0,0 +1,260 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.Arrays;
+
+/**
+ * Exact number of steps from every cell of the game-board to the goal (apple), if walls and stones are
+ * the only obstacles. It is calculated by a single breadth-first search from the goal and is stored
+ * in a flat int[] (cell id is y * dimX + x), so the search gets the distance by a single lookup.
+ * The body of the snake is not taken into account (it moves), so the real path can only be longer:
+ * the distance is a consistent heuristic for A*.
+ * While the goal stays at the same place, the field is not rebuilt: when a stone appears, only cells,
+ * whose shortest way went through it, are recalculated; when a stone disappears, only cells,
+ * that become closer, are updated.
+ */
+public class DistanceField {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final CellRegistry cells;
+    private final int[] distance;
+    private final boolean[] blocked;
+    private final int[] queue;
+    private final int[] stamp;        // generation, when the cell was affected by a new obstacle (or was present)
+    private int generation = 0;
+    private final IntMinHeap heap;
+
+    private int goal = -1;
+    private int[] obstacles = new int[0];   // cells of obstacles, that the field was built with
+    private int obstaclesCount = 0;
+
+    private long fullBuilds = 0;
+    private long incrementalUpdates = 0;
+
+    public DistanceField(CellRegistry cells) {
+        this.cells = cells;
+        int count = cells.count();
+        this.distance = new int[count];
+        this.blocked = new boolean[count];
+        this.queue = new int[count];
+        this.stamp = new int[count];
+        this.heap = new IntMinHeap(count);
+        Arrays.fill(distance, UNREACHABLE);
+    }
+
+    /**
+     * Brings the field in line with the goal and obstacles of the current tick.
+     * If only obstacles have changed, the field is updated incrementally.
+     *
+     * @param goal      -> cell id of the goal;
+     * @param obstacles -> cell ids of obstacles (stones), only the first count values are used;
+     * @param count     -> number of obstacles.
+     */
+    public void update(int goal, int[] obstacles, int count) {
+        if (goal != this.goal) {
+            build(goal, obstacles, count);
+            return;
+        }
+
+        // obstacles, that are present now, are stamped, so the previous ones can be checked in O(1)
+        nextGeneration();
+        for (int i = 0; i < count; i++) {
+            stamp[obstacles[i]] = generation;
+        }
+        boolean changed = false;
+        for (int i = 0; i < obstaclesCount; i++) {
+            int old = this.obstacles[i];
+            if (stamp[old] != generation) {
+                unblock(old);
+                changed = true;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (!blocked[obstacles[i]]) {
+                block(obstacles[i]);
+                changed = true;
+            }
+        }
+        if (changed) {
+            incrementalUpdates++;
+        }
+        remember(obstacles, count);
+    }
+
+    /**
+     * Full rebuild: a breadth-first search from the goal.
+     */
+    public void build(int goal, int[] obstacles, int count) {
+        fullBuilds++;
+        this.goal = goal;
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(blocked, false);
+        for (int i = 0; i < count; i++) {
+            blocked[obstacles[i]] = true;
+        }
+        remember(obstacles, count);
+
+        int head = 0;
+        int tail = 0;
+        distance[goal] = 0;
+        queue[tail++] = goal;
+        while (head < tail) {
+            int current = queue[head++];
+            int next = distance[current] + 1;
+            int[] neighbours = cells.neighbours(current);
+            for (int i = 0; i < neighbours.length; i++) {
+                int n = neighbours[i];
+                if (!blocked[n] && distance[n] == UNREACHABLE) {
+                    distance[n] = next;
+                    queue[tail++] = n;
+                }
+            }
+        }
+    }
+
+    private void remember(int[] obstacles, int count) {
+        if (this.obstacles.length < count) {
+            this.obstacles = new int[count];
+        }
+        System.arraycopy(obstacles, 0, this.obstacles, 0, count);
+        this.obstaclesCount = count;
+    }
+
+    /**
+     * A new obstacle can only make distances longer. Affected cells are the ones, that have no other
+     * neighbour one step closer to the goal, than the cells already affected. They are found level by level
+     * (in the order of distance), then their distances are recalculated from the unaffected border
+     * with Dijkstra's algorithm.
+     */
+    private void block(int cell) {
+        blocked[cell] = true;
+        if (distance[cell] == UNREACHABLE || cell == goal) {
+            distance[cell] = UNREACHABLE;
+            return;
+        }
+
+        nextGeneration();
+        int head = 0;
+        int tail = 0;
+        stamp[cell] = generation;
+        queue[tail++] = cell;
+        while (head < tail) {
+            int current = queue[head++];
+            int[] neighbours = cells.neighbours(current);
+            for (int i = 0; i < neighbours.length; i++) {
+                int n = neighbours[i];
+                if (stamp[n] != generation && !blocked[n] && distance[n] == distance[current] + 1 && !hasSupport(n)) {
+                    stamp[n] = generation;
+                    queue[tail++] = n;
+                }
+            }
+        }
+
+        distance[cell] = UNREACHABLE;
+        for (int i = 1; i < tail; i++) {
+            distance[queue[i]] = UNREACHABLE;
+        }
+        heap.clear();
+        for (int i = 1; i < tail; i++) {
+            int affected = queue[i];
+            int best = UNREACHABLE;
+            int[] neighbours = cells.neighbours(affected);
+            for (int j = 0; j < neighbours.length; j++) {
+                int n = neighbours[j];
+                if (stamp[n] != generation && !blocked[n] && distance[n] != UNREACHABLE) {
+                    best = Math.min(best, distance[n] + 1);
+                }
+            }
+            if (best != UNREACHABLE) {
+                distance[affected] = best;
+                heap.offer(affected, best);
+            }
+        }
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            int next = distance[current] + 1;
+            int[] neighbours = cells.neighbours(current);
+            for (int i = 0; i < neighbours.length; i++) {
+                int n = neighbours[i];
+                if (stamp[n] == generation && !blocked[n] && next < distance[n]) {
+                    distance[n] = next;
+                    heap.offer(n, next);
+                }
+            }
+        }
+    }
+
+    // whether the cell has a neighbour one step closer to the goal, that is not affected by the new obstacle
+    private boolean hasSupport(int cell) {
+        int[] neighbours = cells.neighbours(cell);
+        for (int i = 0; i < neighbours.length; i++) {
+            int n = neighbours[i];
+            if (stamp[n] != generation && !blocked[n] && distance[n] == distance[cell] - 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A removed obstacle can only make distances shorter: they are propagated from the freed cell
+     * by a breadth-first search, that stops where nothing improves.
+     */
+    private void unblock(int cell) {
+        blocked[cell] = false;
+        int best = cell == goal ? 0 : UNREACHABLE;
+        int[] neighbours = cells.neighbours(cell);
+        for (int i = 0; i < neighbours.length; i++) {
+            int n = neighbours[i];
+            if (!blocked[n] && distance[n] != UNREACHABLE) {
+                best = Math.min(best, distance[n] + 1);
+            }
+        }
+        distance[cell] = best;
+        if (best == UNREACHABLE) {
+            return;
+        }
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = cell;
+        while (head < tail) {
+            int current = queue[head++];
+            int next = distance[current] + 1;
+            int[] around = cells.neighbours(current);
+            for (int i = 0; i < around.length; i++) {
+                int n = around[i];
+                if (!blocked[n] && next < distance[n]) {
+                    distance[n] = next;
+                    queue[tail++] = n;
+                }
+            }
+        }
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * @return int -> number of steps from the cell to the goal, or UNREACHABLE.
+     */
+    public int distance(int cell) {
+        return distance[cell];
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    public long getFullBuilds() {
+        return fullBuilds;
+    }
+
+    public long getIncrementalUpdates() {
+        return incrementalUpdates;
+    }
+}
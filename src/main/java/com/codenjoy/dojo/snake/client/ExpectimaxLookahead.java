@@ -0,0 +1,298 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-ply lookahead, that scores the moves of the snake: the path search knows the way to the apple,
+ * but not what happens after the apple is eaten and a new one appears somewhere.
+ * <p>
+ * The tree is an expectimax: the snake chooses the best of its moves (max node), a new apple appears
+ * in a random free cell (chance node, the value is the average over a few sampled cells).
+ * A leaf is worth 0 if the snake is dead, otherwise 0.5 plus 0.5 * the part of its length, that fits into
+ * the area reachable from the head (1 if the tail is reachable), plus a small bonus for every eaten apple.
+ * So the value is close to "the chance to survive", and eating only decides between equally safe moves.
+ * The step of the solver is kept, unless another move is better by more than one apple.
+ * <p>
+ * Every move of the root is a separate ForkJoin task (on the common pool by default), so on a machine with
+ * several cores the subtrees are searched at the same time. The search stops at the depth or at the deadline,
+ * whatever comes first: nodes after the deadline are scored as leaves.
+ * Apples are sampled with a SplittableRandom from the given seed, so the same position gives the same result.
+ */
+public class ExpectimaxLookahead {
+    public static final int DEFAULT_DEPTH = 6;
+    public static final int DEFAULT_SAMPLES = 4;
+    public static final long DEFAULT_TIME_MILLIS = 50;
+
+    private static final double APPLE_BONUS = 0.05;
+    // another move must be better by more than an apple, so that sampling noise doesn't override the solver
+    private static final double MARGIN = APPLE_BONUS;
+    private static final int SAMPLE_ATTEMPTS = 64;
+
+    private final int depth;
+    private final int samples;
+    private final long timeNanos;
+    private final ForkJoinPool pool;
+
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder overrides = new LongAdder();
+
+    public ExpectimaxLookahead() {
+        this(DEFAULT_DEPTH, DEFAULT_SAMPLES, DEFAULT_TIME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param depth   -> number of moves of the snake to look ahead;
+     * @param samples -> number of sampled cells for every new apple;
+     * @param time    -> time limit of one evaluation.
+     */
+    public ExpectimaxLookahead(int depth, int samples, long time, TimeUnit unit) {
+        this(depth, samples, time, unit, ForkJoinPool.commonPool());
+    }
+
+    public ExpectimaxLookahead(int depth, int samples, long time, TimeUnit unit, ForkJoinPool pool) {
+        this.depth = depth;
+        this.samples = samples;
+        this.timeNanos = unit.toNanos(time);
+        this.pool = pool;
+    }
+
+    /**
+     * @param root      -> the current position;
+     * @param preferred -> the step, that the solver has chosen (it is kept, unless another move is better);
+     * @param seed      -> seed for sampling of apples (e.g. the hash of the position);
+     * @return int -> the best step (cell id).
+     */
+    public int choose(SnakeState root, int preferred, long seed) {
+        return choose(root, preferred, seed, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param deadline -> System.nanoTime(), by which the search must stop, even if its own time isn't over yet
+     *                 (e.g. the deadline of the tick, see SearchBudget.deadline());
+     * @return int -> the best step (cell id).
+     */
+    public int choose(SnakeState root, int preferred, long seed, long deadline) {
+        int[] moves = new int[4];
+        int count = root.moves(moves);
+        double[] values = evaluate(root, moves, count, seed, deadline);
+        evaluations.increment();
+
+        int best = preferred;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == preferred) {
+                bestValue = values[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (values[i] > bestValue + MARGIN) {
+                best = moves[i];
+                bestValue = values[i];
+            }
+        }
+        if (best != preferred) {
+            overrides.increment();
+        }
+        return best;
+    }
+
+    /**
+     * @param moves -> cells next to the head (see SnakeState.moves());
+     * @return double[] -> the value of every move, in the same order.
+     */
+    public double[] evaluate(SnakeState root, int[] moves, int count, long seed) {
+        return evaluate(root, moves, count, seed, Long.MAX_VALUE);
+    }
+
+    private double[] evaluate(SnakeState root, int[] moves, int count, long seed, long tickDeadline) {
+        long deadline = Math.min(SearchBudget.deadline(System.nanoTime(), timeNanos), tickDeadline);
+        List<MoveTask> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new MoveTask(root.move(moves[i]), deadline, seed + moves[i]));
+        }
+        if (ForkJoinTask.getPool() == pool) {
+            // the caller is a task of this very pool (e.g. a solver of GameFarm, that got GameFarm.getPool()),
+            // so the subtrees are forked here and the worker runs them instead of blocking in join()
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            for (MoveTask task : tasks) {
+                pool.execute(task);
+            }
+        }
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = tasks.get(i).join();
+        }
+        return values;
+    }
+
+    private class MoveTask extends RecursiveTask<Double> {
+        private final SnakeState state;
+        private final long deadline;
+        private final long seed;
+
+        private SplittableRandom random;
+        private int[] queue;
+        private int[] stamps;
+        private int[] freeAt;
+        private int[] deltas;
+        private int stamp;
+        private long visited;
+
+        MoveTask(SnakeState state, long deadline, long seed) {
+            this.state = state;
+            this.deadline = deadline;
+            this.seed = seed;
+        }
+
+        @Override
+        protected Double compute() {
+            int cells = state.size() * state.size();
+            random = new SplittableRandom(seed);
+            queue = new int[cells];
+            stamps = new int[cells];
+            freeAt = new int[cells];
+            deltas = new int[]{-1, 1, state.size(), -state.size()};
+            double value = value(state, depth - 1);
+            nodes.add(visited);
+            return value;
+        }
+
+        private double value(SnakeState node, int depthLeft) {
+            if (node.isDead()) {
+                return 0;
+            }
+            if (node.apple() == -1) {
+                return chance(node, depthLeft);
+            }
+            if (depthLeft <= 0 || System.nanoTime() > deadline) {
+                return leaf(node);
+            }
+            int[] moves = new int[4];
+            int count = node.moves(moves);
+            double best = 0;
+            for (int i = 0; i < count; i++) {
+                best = Math.max(best, value(node.move(moves[i]), depthLeft - 1));
+            }
+            return best;
+        }
+
+        private double chance(SnakeState node, int depthLeft) {
+            double sum = 0;
+            int sampled = 0;
+            for (int i = 0; i < samples; i++) {
+                int apple = sampleFreeCell(node);
+                if (apple == -1) {
+                    break;
+                }
+                sum += value(node.withApple(apple), depthLeft);
+                sampled++;
+            }
+            return sampled == 0 ? leaf(node) : sum / sampled;
+        }
+
+        private int sampleFreeCell(SnakeState node) {
+            int cells = node.size() * node.size();
+            for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+                int cell = random.nextInt(cells);
+                if (node.isFree(cell)) {
+                    return cell;
+                }
+            }
+            // the board is almost full, the first free cell after a random one is taken
+            int start = random.nextInt(cells);
+            for (int i = 0; i < cells; i++) {
+                int cell = (start + i) % cells;
+                if (node.isFree(cell)) {
+                    return cell;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Breadth-first search from the head, where a cell of the body becomes free, when the tail has left it
+         * (the same idea as ReachableArea): it stops as soon as the whole snake fits or the tail is reachable.
+         */
+        private double leaf(SnakeState node) {
+            visited++;
+            int length = node.length();
+            double bonus = APPLE_BONUS * node.applesEaten();
+            stamp++;
+            for (int i = 1; i < length; i++) {
+                int cell = node.bodyAt(i);
+                freeAt[cell] = length - i;
+                stamps[cell] = -stamp;  // a body cell, that is not visited yet
+            }
+
+            int head = node.head();
+            int first = 0;
+            int last = 0;
+            queue[last++] = head;
+            stamps[head] = stamp;
+            int levelEnd = last;
+            int steps = 0;
+            int reached = 0;
+            while (first < last) {
+                if (first == levelEnd) {
+                    steps++;
+                    levelEnd = last;
+                }
+                int cell = queue[first++];
+                for (int delta : deltas) {
+                    int next = cell + delta;
+                    if (stamps[next] == stamp || node.isWall(next) || node.isStone(next)) {
+                        continue;
+                    }
+                    if (stamps[next] == -stamp) {
+                        if (freeAt[next] > steps + 1) {
+                            continue;
+                        }
+                        // the tail has left this cell before the head could come: the snake can follow its tail
+                        return 1 + bonus;
+                    }
+                    stamps[next] = stamp;
+                    queue[last++] = next;
+                    if (++reached >= length) {
+                        return 1 + bonus;
+                    }
+                }
+            }
+            return 0.5 + 0.5 * reached / length + bonus;
+        }
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return long -> nodes of all evaluations, to see how deep the lookahead gets inside its time limit.
+     */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * @return long -> how many times the lookahead has chosen another step than the solver.
+     */
+    public long getOverrides() {
+        return overrides.sum();
+    }
+}
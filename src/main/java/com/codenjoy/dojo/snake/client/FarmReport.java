@@ -0,0 +1,82 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.List;
+
+/**
+ * Summary of many simulated games (see GameFarm).
+ */
+public class FarmReport {
+    private final List<GameResult> results;
+    private final long wallNanos;
+    private final long games;
+    private final long deaths;
+    private final long apples;
+    private final long ticks;
+    private final long decisionNanos;
+    private final int maxApples;
+
+    public FarmReport(List<GameResult> results, long wallNanos) {
+        this.results = results;
+        this.wallNanos = wallNanos;
+        long deaths = 0;
+        long apples = 0;
+        long ticks = 0;
+        long decisionNanos = 0;
+        int maxApples = 0;
+        for (GameResult result : results) {
+            deaths += result.isDied() ? 1 : 0;
+            apples += result.getApples();
+            ticks += result.getTicks();
+            decisionNanos += result.getDecisionNanos();
+            maxApples = Math.max(maxApples, result.getApples());
+        }
+        this.games = results.size();
+        this.deaths = deaths;
+        this.apples = apples;
+        this.ticks = ticks;
+        this.decisionNanos = decisionNanos;
+        this.maxApples = maxApples;
+    }
+
+    public List<GameResult> getResults() {
+        return results;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getDeaths() {
+        return deaths;
+    }
+
+    public double getApplesPerGame() {
+        return games == 0 ? 0 : (double) apples / games;
+    }
+
+    public int getMaxApples() {
+        return maxApples;
+    }
+
+    /**
+     * @return double -> average number of ticks a game lasted (until death or the limit of ticks).
+     */
+    public double getSurvivalTicks() {
+        return games == 0 ? 0 : (double) ticks / games;
+    }
+
+    public double getNanosPerDecision() {
+        return ticks == 0 ? 0 : (double) decisionNanos / ticks;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games=%d deaths=%d apples/game=%.2f maxApples=%d survivalTicks=%.1f ns/decision=%.0f wall=%d ms",
+                games, deaths, getApplesPerGame(), maxApples, getSurvivalTicks(), getNanosPerDecision(),
+                wallNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,125 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.client.Solver;
+import com.codenjoy.dojo.snake.model.SeededDice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Runs many simulated games in parallel on a ForkJoinPool, one game per task, every game with its own solver.
+ * Games with seeds from firstSeed to (firstSeed + games - 1) are played, so a run can be repeated exactly
+ * and two versions of the solver can be compared on the same games.
+ */
+public class GameFarm {
+    private static final int GAMES_PER_TASK = 4;
+
+    private final GameSimulator simulator;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param simulator   -> size of the game-board and the limit of ticks for every game;
+     * @param parallelism -> number of worker threads (e.g. the number of cores).
+     */
+    public GameFarm(GameSimulator simulator, int parallelism) {
+        this.simulator = simulator;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * @param solvers   -> creates a new solver for the game with the given seed (solvers keep state between ticks,
+     *                  so they can't be shared by games, that run at the same time);
+     * @param firstSeed -> seed of the first game;
+     * @param games     -> number of games.
+     */
+    public FarmReport run(LongFunction<Solver<Board>> solvers, long firstSeed, int games) {
+        long start = System.nanoTime();
+        GameResult[] results = pool.invoke(new Games(solvers, firstSeed, 0, games, new GameResult[games]));
+        return new FarmReport(new ArrayList<>(Arrays.asList(results)), System.nanoTime() - start);
+    }
+
+    /**
+     * @return ForkJoinPool -> pool of the games: a search of a solver (ExpectimaxLookahead, MonteCarloSearch),
+     * that is given this pool, forks its subtrees inside the task of the game, so the worker runs them itself
+     * instead of waiting in join() for the tasks of another pool.
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @param seed -> seed of the game;
+     * @param size -> size of the game-board;
+     * @param pool -> pool of the games (see getPool());
+     * @return YourSolver -> the solver, whose searches are limited by nodes, not by the clock: the same seed gives
+     * the same game on any machine and under any load, so two versions of the solver are compared on equal terms.
+     */
+    static YourSolver solver(long seed, int size, ForkJoinPool pool) {
+        YourSolver solver = new YourSolver(new SeededDice(seed));
+        // A* never expands a cell twice, so one search is never cut on a free game-board
+        solver.setBudget(SearchBudget.ofExpansions(size * size));
+        solver.setLookahead(new ExpectimaxLookahead(ExpectimaxLookahead.DEFAULT_DEPTH,
+                ExpectimaxLookahead.DEFAULT_SAMPLES, Long.MAX_VALUE, TimeUnit.NANOSECONDS, pool));
+        return solver;
+    }
+
+    private class Games extends RecursiveTask<GameResult[]> {
+        private final LongFunction<Solver<Board>> solvers;
+        private final long firstSeed;
+        private final int from;
+        private final int to;
+        private final GameResult[] results;
+
+        Games(LongFunction<Solver<Board>> solvers, long firstSeed, int from, int to, GameResult[] results) {
+            this.solvers = solvers;
+            this.firstSeed = firstSeed;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        @Override
+        protected GameResult[] compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    long seed = firstSeed + i;
+                    results[i] = simulator.play(solvers.apply(seed), seed);
+                }
+                return results;
+            }
+            int middle = (from + to) >>> 1;
+            Games left = new Games(solvers, firstSeed, from, middle, results);
+            left.fork();
+            new Games(solvers, firstSeed, middle, to, results).compute();
+            left.join();
+            return results;
+        }
+    }
+
+    /**
+     * Usage: GameFarm [games] [size] [maxTicks] [threads]
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+        int maxTicks = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        GameFarm farm = new GameFarm(new GameSimulator(size, maxTicks), threads);
+        try {
+            FarmReport report = farm.run(seed -> solver(seed, size, farm.getPool()), 1, games);
+            System.out.println(report);
+        } finally {
+            farm.shutdown();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.Objects;
+
+/**
+ * Outcome of a single simulated game (see GameSimulator).
+ */
+public class GameResult {
+    private final long seed;
+    private final int ticks;
+    private final int apples;
+    private final int stones;
+    private final int length;
+    private final boolean died;
+    private final long decisionNanos;   // time spent by the solver (parsing + get()) over the whole game
+
+    public GameResult(long seed, int ticks, int apples, int stones, int length, boolean died, long decisionNanos) {
+        this.seed = seed;
+        this.ticks = ticks;
+        this.apples = apples;
+        this.stones = stones;
+        this.length = length;
+        this.died = died;
+        this.decisionNanos = decisionNanos;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return int -> number of ticks the snake has survived (every tick is one decision of the solver).
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    public int getApples() {
+        return apples;
+    }
+
+    public int getStones() {
+        return stones;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isDied() {
+        return died;
+    }
+
+    public long getDecisionNanos() {
+        return decisionNanos;
+    }
+
+    /**
+     * Results of one game are equal, when the games went the same way: the time of the solver is not compared.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GameResult)) {
+            return false;
+        }
+        GameResult that = (GameResult) o;
+        return seed == that.seed && ticks == that.ticks && apples == that.apples && stones == that.stones
+                && length == that.length && died == that.died;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(seed, ticks, apples, stones, length, died);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("seed=%d ticks=%d apples=%d stones=%d length=%d %s",
+                seed, ticks, apples, stones, length, died ? "died" : "alive");
+    }
+}
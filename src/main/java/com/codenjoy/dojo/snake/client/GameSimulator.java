@@ -0,0 +1,50 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.client.Solver;
+import com.codenjoy.dojo.snake.model.SeededDice;
+import com.codenjoy.dojo.snake.model.SnakeGame;
+
+/**
+ * Plays a whole game of SnakeGame with a solver in the current thread, as fast as the solver answers.
+ * Every tick the board string is parsed by a new Board, exactly as WebSocketRunner does it.
+ */
+public class GameSimulator {
+    private final int size;
+    private final int maxTicks;
+
+    /**
+     * @param size     -> size of the game-board;
+     * @param maxTicks -> the game is stopped after this number of ticks, even if the snake is alive.
+     */
+    public GameSimulator(int size, int maxTicks) {
+        this.size = size;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * @param seed -> seed of the game (apples and stones), the same seed gives the same game for the same solver.
+     */
+    public GameResult play(Solver<Board> solver, long seed) {
+        SnakeGame game = new SnakeGame(size, new SeededDice(seed));
+        long decisionNanos = 0;
+        while (game.isAlive() && game.getTicks() < maxTicks) {
+            String state = game.render();
+            long start = System.nanoTime();
+            Board board = new Board();
+            board.forString(state);
+            String command = solver.get(board);
+            decisionNanos += System.nanoTime() - start;
+            game.tick(command);
+        }
+        return new GameResult(seed, game.getTicks(), game.getApples(), game.getStones(),
+                game.getLength(), !game.isAlive(), decisionNanos);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxTicks() {
+        return maxTicks;
+    }
+}
@@ -0,0 +1,146 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A closed route over the playable area of the game-board, that visits every cell exactly once.
+ * A snake, that follows the route, never collides with itself, whatever its length is.
+ * The route is built like this (coordinates inside the playable area):
+ * the bottom row from left to right, then rows from the bottom to the top in a "serpentine" over all columns
+ * but the first one, then down the first column back to the start.
+ * Such a route exists only if one of the dimensions is even. If both dimensions are odd (e.g. 15x15 board with
+ * 13x13 playable area), no cell-covering cycle exists at all, so the top right corner is left out of the route
+ * (order() returns -1 for it).
+ * Cycles are immutable and are cached per board size.
+ */
+public final class HamiltonianCycle {
+    private static final ConcurrentHashMap<Long, HamiltonianCycle> CYCLES = new ConcurrentHashMap<>();
+
+    private final CellRegistry cells;
+    private final int[] cycle;   // cell ids in the order of the route
+    private final int[] order;   // index of the cell in the route, or -1
+
+    private HamiltonianCycle(int dimX, int dimY) {
+        this.cells = CellRegistry.of(dimX, dimY);
+        int w = dimX - 2;
+        int h = dimY - 2;
+        if (w < 2 || h < 2) {
+            throw new IllegalArgumentException("Board is too small for a cycle: " + dimX + "x" + dimY);
+        }
+
+        int[] route;
+        if (h % 2 == 0) {
+            route = serpentine(w, h, false);
+        } else if (w % 2 == 0) {
+            route = serpentine(h, w, true);
+        } else {
+            route = withTopRow(serpentine(w, h - 1, false), w, h);
+        }
+
+        this.cycle = route;
+        this.order = new int[dimX * dimY];
+        Arrays.fill(order, -1);
+        for (int i = 0; i < route.length; i++) {
+            order[route[i]] = i;
+        }
+    }
+
+    /**
+     * @return HamiltonianCycle -> the cycle for the game-board with given dimensions (created once per size).
+     */
+    public static HamiltonianCycle of(int dimX, int dimY) {
+        long key = ((long) dimX << 32) | dimY;
+        HamiltonianCycle cycle = CYCLES.get(key);
+        if (cycle == null) {
+            cycle = CYCLES.computeIfAbsent(key, k -> new HamiltonianCycle(dimX, dimY));
+        }
+        return cycle;
+    }
+
+    /**
+     * The route over w columns and h rows (h is even), that is described in the comment of the class.
+     *
+     * @param transposed -> whether x and y must be swapped (then w is the number of rows).
+     */
+    private int[] serpentine(int w, int h, boolean transposed) {
+        int[] route = new int[w * h];
+        int i = 0;
+        for (int x = 0; x < w; x++) {
+            route[i++] = id(x, 0, transposed);
+        }
+        for (int y = 1; y < h; y++) {
+            for (int k = 1; k < w; k++) {
+                // odd rows go from the right to the left, so the last (odd) row ends next to the first column
+                int x = (y % 2 == 1) ? w - k : k;
+                route[i++] = id(x, y, transposed);
+            }
+        }
+        for (int y = h - 1; y >= 1; y--) {
+            route[i++] = id(0, y, transposed);
+        }
+        return route;
+    }
+
+    /**
+     * Adds the top row (all but the right corner) to the route over the rows below it.
+     * The row below the top one goes from the right to the left, so every step (x + 1) -> x with even x
+     * is replaced with a detour over the top row: (x + 1) -> top (x + 1) -> top x -> x.
+     */
+    private int[] withTopRow(int[] route, int w, int h) {
+        int[] result = new int[route.length + w - 1];
+        int below = h - 2;
+        int j = 0;
+        for (int i = 0; i < route.length; i++) {
+            result[j++] = route[i];
+            int from = route[i];
+            int to = route[(i + 1) % route.length];
+            int x = cells.x(to) - 1;
+            if (cells.y(from) - 1 == below && cells.y(to) - 1 == below
+                    && cells.x(from) - 1 == x + 1 && x % 2 == 0) {
+                result[j++] = id(x + 1, h - 1, false);
+                result[j++] = id(x, h - 1, false);
+            }
+        }
+        return result;
+    }
+
+    // coordinates inside the playable area -> cell id of the game-board
+    private int id(int x, int y, boolean transposed) {
+        return transposed ? cells.id(y + 1, x + 1) : cells.id(x + 1, y + 1);
+    }
+
+    /**
+     * @return int -> number of cells in the route.
+     */
+    public int length() {
+        return cycle.length;
+    }
+
+    /**
+     * @return int -> index of the cell in the route, or -1 if the cell is not a part of the route.
+     */
+    public int order(int cell) {
+        return order[cell];
+    }
+
+    public int cellAt(int index) {
+        return cycle[index];
+    }
+
+    /**
+     * @return int -> the next cell of the route (the cell must be a part of the route).
+     */
+    public int successor(int cell) {
+        int next = order[cell] + 1;
+        return cycle[next == cycle.length ? 0 : next];
+    }
+
+    /**
+     * @return int -> number of steps along the route from one cell to another (both must be a part of the route).
+     */
+    public int distance(int from, int to) {
+        int d = order[to] - order[from];
+        return d < 0 ? d + cycle.length : d;
+    }
+}
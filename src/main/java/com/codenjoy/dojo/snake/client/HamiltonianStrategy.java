@@ -0,0 +1,185 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.snake.model.GameRules;
+
+/**
+ * Strategy for a long snake: follow the HamiltonianCycle and take shortcuts to the apple, when it is safe.
+ * The body of the snake is "ordered", when the cells from the tail to the head go forward along the cycle.
+ * Then every cell of the cycle between the head and the tail is free, and the snake may jump forward to any of them
+ * (a shortcut), as long as enough free cells are left in front of the tail for the snake to grow.
+ * Shortcuts are taken only while the snake takes less than a half of the board, then it just follows the cycle.
+ * When the strategy is switched on, the body is usually not ordered yet: the snake follows the cycle
+ * wherever it is free and doesn't lead into a pocket (see ReachableArea), until the whole body is ordered.
+ * An apple off the cycle (the corner, that is left out on a board with odd sides) is eaten by a detour:
+ * the head enters it from the neighbour on the cycle and leaves it to the other neighbour, that is two cells
+ * further along the cycle, so the detour takes as many steps as the cycle itself and the body stays ordered.
+ * Every move costs O(1): the order of the body is checked in O(snake length) only while it is not proven by
+ * consecutive cycle moves.
+ */
+public class HamiltonianStrategy {
+    private static final int BUFFER = 3;   // free cells, that are always kept in front of the tail
+
+    private CellRegistry cells;
+    private HamiltonianCycle cycle;
+    private int expected = -1;    // the cell, that was returned by the last call
+    private int cycleMoves = 0;   // consecutive moves along the cycle (or shortcuts), that the snake made
+    private int exit = -1;        // the cell of the cycle, that the head returns to after a detour to the apple
+
+    /**
+     * @param algo  -> AStarAlgo prepared for the current tick (see AStarAlgo.prepare()), it knows the obstacles;
+     * @param snake -> cell ids of the body from the head to the tail;
+     * @param apple -> cell id of the apple, or -1;
+     * @param stone -> cell id of the stone, or -1. An ordered snake, that is long enough, eats the stone,
+     *              if it is on the way: the tail just becomes shorter, so the body stays ordered;
+     * @return int -> cell id of the next step, or -1 if the strategy can't move safely on this tick
+     * (e.g. the head is not on the cycle or the cycle is blocked by a stone).
+     */
+    public int next(AStarAlgo algo, IntDeque snake, int apple, int stone) {
+        if (cells != algo.getCells()) {
+            // registries are cached per board size, so this happens only when the size changes
+            cells = algo.getCells();
+            cycle = HamiltonianCycle.of(cells.getDimX(), cells.getDimY());
+            reset();
+        }
+
+        int head = snake.peekFirst();
+        if (cycle.order(head) < 0) {
+            if (head != expected || exit == -1 || !algo.isSafe(exit, 1)) {
+                return reset();
+            }
+            // the head has eaten the apple off the cycle and comes back to it
+            cycleMoves++;
+            expected = exit;
+            exit = -1;
+            return expected;
+        }
+        cycleMoves = head == expected ? cycleMoves + 1 : 0;
+        int length = snake.size();
+        if (cycleMoves < length && isOrdered(snake)) {
+            cycleMoves = length;
+        }
+        if (detour(algo, head, apple)) {
+            expected = apple;
+            return apple;
+        }
+
+        int successor = cycle.successor(head);
+        int move;
+        if (cycleMoves >= length) {
+            move = shortcut(algo, snake, apple, stone);
+        } else {
+            // the body is not ordered yet, so only the cycle itself is followed, while it doesn't lead into a pocket
+            move = algo.isSafe(successor, 1) && algo.getReachableArea().isSafe(successor, length) ? successor : -1;
+        }
+        if (move == -1) {
+            return reset();
+        }
+        expected = move;
+        return move;
+    }
+
+    /**
+     * @return boolean -> whether the apple is off the cycle next to the head and can be eaten by a detour
+     * (see the comment of the class), the cell to return to is kept in exit.
+     */
+    private boolean detour(AStarAlgo algo, int head, int apple) {
+        if (apple < 0 || cycle.order(apple) >= 0 || !isNeighbour(head, apple) || !algo.isSafe(apple, 1)) {
+            return false;
+        }
+        int[] neighbours = cells.neighbours(apple);
+        for (int i = 0; i < neighbours.length; i++) {
+            int n = neighbours[i];
+            if (cycle.order(n) >= 0 && cycle.distance(head, n) == 2 && algo.isSafe(n, 2)) {
+                exit = n;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isNeighbour(int cell, int other) {
+        int[] neighbours = cells.neighbours(cell);
+        for (int i = 0; i < neighbours.length; i++) {
+            if (neighbours[i] == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int shortcut(AStarAlgo algo, IntDeque snake, int apple, int stone) {
+        int head = snake.peekFirst();
+        int tail = snake.peekLast();
+        int length = snake.size();
+
+        // the tail moves forward as the head moves, but stays in place for one tick when the snake grows
+        int maxJump = cycle.distance(head, tail) - 1 - BUFFER;
+        if (cycle.length() - length < cycle.length() / 2) {
+            maxJump = 1;
+        }
+        if (apple >= 0 && cycle.order(apple) >= 0) {
+            // never jump over the apple
+            maxJump = Math.min(maxJump, cycle.distance(head, apple));
+        } else if (apple >= 0) {
+            // nor over the cells, from which the apple off the cycle is eaten by a detour
+            int[] neighbours = cells.neighbours(apple);
+            for (int i = 0; i < neighbours.length; i++) {
+                if (cycle.order(neighbours[i]) >= 0 && neighbours[i] != head) {
+                    maxJump = Math.min(maxJump, cycle.distance(head, neighbours[i]));
+                }
+            }
+        }
+
+        boolean canEatStone = length > GameRules.STONE_PENALTY;
+        int successor = cycle.successor(head);
+        int best = algo.isSafe(successor, 1) || (canEatStone && successor == stone) ? successor : -1;
+        int bestJump = 1;
+        int[] neighbours = cells.neighbours(head);
+        for (int i = 0; i < neighbours.length; i++) {
+            int n = neighbours[i];
+            if (cycle.order(n) < 0) {
+                continue;
+            }
+            int jump = cycle.distance(head, n);
+            if (jump > bestJump && jump <= maxJump && algo.isSafe(n, 1)) {
+                best = n;
+                bestJump = jump;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return boolean -> whether the cells of the body from the tail to the head go forward along the cycle.
+     */
+    private boolean isOrdered(IntDeque snake) {
+        int tail = snake.peekLast();
+        if (cycle.order(tail) < 0) {
+            return false;
+        }
+        int previous = 0;
+        for (int i = snake.size() - 2; i >= 0; i--) {
+            int cell = snake.get(i);
+            if (cycle.order(cell) < 0) {
+                return false;
+            }
+            int distance = cycle.distance(tail, cell);
+            if (distance <= previous) {
+                return false;
+            }
+            previous = distance;
+        }
+        return true;
+    }
+
+    private int reset() {
+        expected = -1;
+        cycleMoves = 0;
+        exit = -1;
+        return -1;
+    }
+
+    public HamiltonianCycle getCycle() {
+        return cycle;
+    }
+}
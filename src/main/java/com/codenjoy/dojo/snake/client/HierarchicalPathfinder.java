@@ -0,0 +1,494 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical path search (HPA*) for big game-boards, where even a pass over all the cells on every tick
+ * costs too much (see DistanceField).
+ * <p>
+ * The game-board is divided into square clusters. Where two neighbour clusters have free cells on both sides
+ * of their border, there are transitions: one in the middle of a short run of such cells, two at the ends
+ * of a long one. The cells of transitions are the entrances of a cluster, distances between the entrances
+ * inside the cluster are found by breadth-first searches over its cells and cached.
+ * A cluster is rebuilt only when an obstacle (a cell of the body or a stone) enters or leaves it (or the border
+ * cells of its neighbour), so a moving snake makes one or two clusters dirty per tick.
+ * <p>
+ * The path is searched by A* over the abstract graph: the head, the entrances and the goal. The head and the goal
+ * are connected to the entrances of their clusters by searches inside those clusters. Only the first leg of the
+ * abstract path (from the head to the first entrance) is refined into cells, it is enough for the next few steps.
+ * So a search costs O(clusters on the way * entrances) plus two clusters of cells, not O(cells).
+ * <p>
+ * The whole body is a fixed obstacle here: the cells, that the tail leaves on the way, are not used,
+ * so the path may be longer than the exact one (see AStarAlgo), and may not be found at all, when the body
+ * closes the goal for a while.
+ */
+public class HierarchicalPathfinder {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+
+    private static final int SINGLE_TRANSITION_RUN = 6;   // longer runs of free cells get two transitions
+
+    private final int size;
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clusterCount;
+
+    // obstacles of the current tick: body cells and stones (walls are checked by coordinates)
+    private final long[] blocked;
+    private final long[] incoming;
+    private int[] obstacles = new int[0];
+    private int[] spare = new int[0];
+    private int obstaclesCount = 0;
+
+    // the abstract graph: for every cluster its entrances, their partners across the border and the distances
+    private final boolean[] dirty;
+    private final int[][] entrances;
+    private final int[][] partners;
+    private final int[] entrancesCount;
+    private final int[][] distances;      // [i * count + j], -1 if j can't be reached from i inside the cluster
+
+    // breadth-first search inside a cluster, stamped, so it never has to be cleared
+    private final int[] localStamp;
+    private final int[] localDistance;
+    private final int[] localParent;
+    private final int[] queue;
+    private int localGeneration = 0;
+
+    // A* over the abstract graph
+    private final int[] searchStamp;
+    private final int[] gScore;
+    private final int[] parent;
+    private final IntMinHeap open;
+    private int searchGeneration = 0;
+    private int[] goalDistances = new int[0];   // distance from every entrance of the goal's cluster to the goal
+
+    private final IntDeque abstractPath = new IntDeque();
+    private final IntDeque localPath = new IntDeque();
+    private int expandedNodes;
+    private int pathLength = -1;
+    private long rebuiltClusters;
+
+    public HierarchicalPathfinder(int size) {
+        this(size, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * @param size        -> size of the game-board (borders are walls);
+     * @param clusterSize -> side of a cluster in cells.
+     */
+    public HierarchicalPathfinder(int size, int clusterSize) {
+        this.size = size;
+        this.clusterSize = clusterSize;
+        this.clustersX = (size + clusterSize - 1) / clusterSize;
+        this.clusterCount = clustersX * clustersX;
+        int cells = size * size;
+        this.blocked = new long[(cells + 63) >>> 6];
+        this.incoming = new long[blocked.length];
+        this.dirty = new boolean[clusterCount];
+        this.entrances = new int[clusterCount][];
+        this.partners = new int[clusterCount][];
+        this.entrancesCount = new int[clusterCount];
+        this.distances = new int[clusterCount][];
+        Arrays.fill(dirty, true);
+
+        this.localStamp = new int[cells];
+        this.localDistance = new int[cells];
+        this.localParent = new int[cells];
+        this.queue = new int[clusterSize * clusterSize];
+        this.searchStamp = new int[cells];
+        this.gScore = new int[cells];
+        this.parent = new int[cells];
+        this.open = new IntMinHeap(cells);
+    }
+
+    /**
+     * Brings the obstacles in line with the current tick. Only the cells, that were or became obstacles,
+     * are examined, so this costs O(length of the snake + stones), and only their clusters become dirty.
+     *
+     * @param snake  -> cell ids of snake's body from head to tail;
+     * @param stones -> cell ids of stones, only the first stoneCount values are used.
+     */
+    public void update(IntDeque snake, int[] stones, int stoneCount) {
+        int count = snake.size() + stoneCount;
+        if (spare.length < count) {
+            spare = new int[Math.max(count, spare.length * 2)];
+        }
+        int[] current = spare;
+        for (int i = 0; i < snake.size(); i++) {
+            current[i] = snake.get(i);
+        }
+        System.arraycopy(stones, 0, current, snake.size(), stoneCount);
+
+        for (int i = 0; i < count; i++) {
+            int cell = current[i];
+            set(incoming, cell);
+            if (!test(blocked, cell)) {
+                changed(cell);   // a new obstacle
+            }
+        }
+        for (int i = 0; i < obstaclesCount; i++) {
+            int cell = obstacles[i];
+            if (!test(incoming, cell) && test(blocked, cell)) {
+                clear(blocked, cell);
+                changed(cell);   // the obstacle has left the cell
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            set(blocked, current[i]);
+            clear(incoming, current[i]);
+        }
+        // the arrays of this and the previous tick are swapped, nothing is allocated while the snake doesn't grow
+        spare = obstacles;
+        obstacles = current;
+        obstaclesCount = count;
+    }
+
+    private void changed(int cell) {
+        int x = cell % size;
+        int y = cell / size;
+        dirty[clusterOf(x, y)] = true;
+        // transitions depend on the cells on both sides of a border, so the neighbour is rebuilt as well
+        int inX = x % clusterSize;
+        int inY = y % clusterSize;
+        if (inX == 0 && x > 0) dirty[clusterOf(x - 1, y)] = true;
+        if (inX == clusterSize - 1 && x < size - 1) dirty[clusterOf(x + 1, y)] = true;
+        if (inY == 0 && y > 0) dirty[clusterOf(x, y - 1)] = true;
+        if (inY == clusterSize - 1 && y < size - 1) dirty[clusterOf(x, y + 1)] = true;
+    }
+
+    /**
+     * @param head -> cell id of the head;
+     * @param goal -> cell id of the goal;
+     * @return int -> cell id of the next step, or -1 if there is no path, while the body stays where it is.
+     */
+    public int next(int head, int goal) {
+        return next(head, goal, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param deadline -> System.nanoTime(), by which the search stops (see SearchBudget.deadline());
+     * @return int -> cell id of the next step, or -1 if there is no path or the deadline has passed.
+     */
+    public int next(int head, int goal, long deadline) {
+        expandedNodes = 0;
+        pathLength = -1;
+        abstractPath.clear();
+        localPath.clear();
+        if (head == goal || isBlocked(goal)) {
+            return -1;
+        }
+        int startCluster = clusterOf(head);
+        int goalCluster = clusterOf(goal);
+        ensureBuilt(startCluster);
+        ensureBuilt(goalCluster);
+
+        // distances from the goal to the entrances of its cluster (the graph is undirected)
+        searchInside(goal, goalCluster);
+        int goalCount = entrancesCount[goalCluster];
+        if (goalDistances.length < goalCount) {
+            goalDistances = new int[goalCount];
+        }
+        for (int i = 0; i < goalCount; i++) {
+            goalDistances[i] = localDistance(entrances[goalCluster][i]);
+        }
+        if (!searchAbstract(head, goal, startCluster, goalCluster, deadline)) {
+            return -1;
+        }
+        pathLength = gScore[goal];
+        for (int c = goal; c != -1; c = parent[c]) {
+            abstractPath.addFirst(c);
+        }
+        refine(head, abstractPath.get(1));
+        return localPath.size() < 2 ? -1 : localPath.getFromLast(1);
+    }
+
+    private boolean searchAbstract(int head, int goal, int startCluster, int goalCluster, long deadline) {
+        if (++searchGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(searchStamp, 0);
+            searchGeneration = 1;
+        }
+        open.clear();
+        relax(head, 0, -1, goal);
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            if (current == goal) {
+                return true;
+            }
+            // a node may rebuild a whole cluster, so the clock is read more often than in AStarAlgo
+            if (SearchBudget.isPast(deadline)) {
+                return false;
+            }
+            expandedNodes++;
+            int g = gScore[current];
+            int cluster = clusterOf(current);
+            if (current == head) {
+                connectInside(head, startCluster, goalCluster, 0, goal);
+                // the head is not an entrance (it is an obstacle itself), so the steps across the border are added
+                stepAcross(head, head - 1, startCluster, goal);
+                stepAcross(head, head + 1, startCluster, goal);
+                stepAcross(head, head - size, startCluster, goal);
+                stepAcross(head, head + size, startCluster, goal);
+                continue;
+            }
+            if (parent[current] == head && cluster != startCluster) {
+                connectInside(current, cluster, goalCluster, g, goal);
+            }
+            ensureBuilt(cluster);
+            int count = entrancesCount[cluster];
+            int[] own = entrances[cluster];
+            for (int i = 0; i < count; i++) {
+                if (own[i] != current) {
+                    continue;
+                }
+                relax(partners[cluster][i], g + 1, current, goal);
+                for (int j = 0; j < count; j++) {
+                    int distance = distances[cluster][i * count + j];
+                    if (distance > 0) {
+                        relax(own[j], g + distance, current, goal);
+                    }
+                }
+                if (cluster == goalCluster && goalDistances[i] != -1) {
+                    relax(goal, g + goalDistances[i], current, goal);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void stepAcross(int head, int neighbour, int startCluster, int goal) {
+        if (clusterOf(neighbour) != startCluster && !isBlocked(neighbour)) {
+            relax(neighbour, 1, head, goal);
+        }
+    }
+
+    // edges from a cell, that may be not an entrance, to the entrances of its cluster and to the goal
+    private void connectInside(int from, int cluster, int goalCluster, int g, int goal) {
+        ensureBuilt(cluster);
+        searchInside(from, cluster);
+        for (int j = 0; j < entrancesCount[cluster]; j++) {
+            int entrance = entrances[cluster][j];
+            int distance = localDistance(entrance);
+            if (distance > 0) {
+                relax(entrance, g + distance, from, goal);
+            }
+        }
+        if (cluster == goalCluster && localDistance(goal) != -1) {
+            relax(goal, g + localDistance(goal), from, goal);
+        }
+    }
+
+    private void relax(int cell, int g, int from, int goal) {
+        if (searchStamp[cell] == searchGeneration && gScore[cell] <= g) {
+            return;
+        }
+        searchStamp[cell] = searchGeneration;
+        gScore[cell] = g;
+        parent[cell] = from;
+        open.offer(cell, g + manhattan(cell, goal));
+    }
+
+    /**
+     * Turns the first leg of the abstract path into cells: the step across a border, or the way inside
+     * the cluster of the head.
+     */
+    private void refine(int head, int waypoint) {
+        if (gScore[waypoint] == 1 && manhattan(head, waypoint) == 1) {
+            localPath.addLast(waypoint);
+            localPath.addLast(head);
+            return;
+        }
+        // clusters, that were rebuilt during the search, have used the same arrays, so the head is searched again
+        searchInside(head, clusterOf(head));
+        for (int c = waypoint; c != -1; c = localParent[c]) {
+            localPath.addLast(c);
+        }
+    }
+
+    private void ensureBuilt(int cluster) {
+        if (!dirty[cluster]) {
+            return;
+        }
+        dirty[cluster] = false;
+        rebuiltClusters++;
+        int x0 = (cluster % clustersX) * clusterSize;
+        int y0 = (cluster / clustersX) * clusterSize;
+        int x1 = Math.min(x0 + clusterSize, size) - 1;
+        int y1 = Math.min(y0 + clusterSize, size) - 1;
+
+        entrancesCount[cluster] = 0;
+        if (x0 > 0) addTransitions(cluster, x0, y0, 0, 1, y1 - y0 + 1, -1);
+        if (x1 < size - 1) addTransitions(cluster, x1, y0, 0, 1, y1 - y0 + 1, 1);
+        if (y0 > 0) addTransitions(cluster, x0, y0, 1, 0, x1 - x0 + 1, -size);
+        if (y1 < size - 1) addTransitions(cluster, x0, y1, 1, 0, x1 - x0 + 1, size);
+
+        int count = entrancesCount[cluster];
+        if (distances[cluster] == null || distances[cluster].length < count * count) {
+            distances[cluster] = new int[Math.max(count * count, 16)];
+        }
+        int[] own = entrances[cluster];
+        for (int i = 0; i < count; i++) {
+            searchInside(own[i], cluster);
+            for (int j = 0; j < count; j++) {
+                distances[cluster][i * count + j] = localDistance(own[j]);
+            }
+        }
+    }
+
+    /**
+     * Scans a border of the cluster from (x, y) along (dx, dy) and adds transitions for runs of cells,
+     * that are free on both sides. The neighbour scans the same cells in the same order, so both clusters
+     * get the same transitions.
+     *
+     * @param across -> the difference between the cell on the other side of the border and the own cell.
+     */
+    private void addTransitions(int cluster, int x, int y, int dx, int dy, int length, int across) {
+        int run = 0;
+        for (int i = 0; i <= length; i++) {
+            int cell = (y + dy * i) * size + x + dx * i;
+            if (i < length && !isBlocked(cell) && !isBlocked(cell + across)) {
+                run++;
+                continue;
+            }
+            if (run > 0) {
+                int step = dy * size + dx;
+                int first = cell - run * step;
+                if (run < SINGLE_TRANSITION_RUN) {
+                    addEntrance(cluster, first + (run - 1) / 2 * step, across);
+                } else {
+                    addEntrance(cluster, first, across);
+                    addEntrance(cluster, cell - step, across);
+                }
+            }
+            run = 0;
+        }
+    }
+
+    private void addEntrance(int cluster, int cell, int across) {
+        int count = entrancesCount[cluster];
+        if (entrances[cluster] == null || entrances[cluster].length == count) {
+            int capacity = Math.max(8, count * 2);
+            entrances[cluster] = entrances[cluster] == null ? new int[capacity] : Arrays.copyOf(entrances[cluster], capacity);
+            partners[cluster] = partners[cluster] == null ? new int[capacity] : Arrays.copyOf(partners[cluster], capacity);
+        }
+        entrances[cluster][count] = cell;
+        partners[cluster][count] = cell + across;
+        entrancesCount[cluster] = count + 1;
+    }
+
+    // breadth-first search from the cell over the free cells of the cluster
+    private void searchInside(int from, int cluster) {
+        if (++localGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(localStamp, 0);
+            localGeneration = 1;
+        }
+        int x0 = (cluster % clustersX) * clusterSize;
+        int y0 = (cluster / clustersX) * clusterSize;
+        int first = 0;
+        int last = 0;
+        queue[last++] = from;
+        localStamp[from] = localGeneration;
+        localDistance[from] = 0;
+        localParent[from] = -1;
+        int x1 = Math.min(x0 + clusterSize, size) - 1;
+        int y1 = Math.min(y0 + clusterSize, size) - 1;
+        while (first < last) {
+            int cell = queue[first++];
+            int x = cell % size;
+            int y = cell / size;
+            int distance = localDistance[cell] + 1;
+            if (x > x0) last = visitInside(cell, cell - 1, distance, last);
+            if (x < x1) last = visitInside(cell, cell + 1, distance, last);
+            if (y > y0) last = visitInside(cell, cell - size, distance, last);
+            if (y < y1) last = visitInside(cell, cell + size, distance, last);
+        }
+    }
+
+    private int visitInside(int from, int to, int distance, int last) {
+        if (localStamp[to] == localGeneration || isBlocked(to)) {
+            return last;
+        }
+        localStamp[to] = localGeneration;
+        localDistance[to] = distance;
+        localParent[to] = from;
+        queue[last] = to;
+        return last + 1;
+    }
+
+    private int localDistance(int cell) {
+        return localStamp[cell] == localGeneration ? localDistance[cell] : -1;
+    }
+
+    private boolean isBlocked(int cell) {
+        int x = cell % size;
+        int y = cell / size;
+        return x <= 0 || y <= 0 || x >= size - 1 || y >= size - 1 || test(blocked, cell);
+    }
+
+    private int clusterOf(int cell) {
+        return clusterOf(cell % size, cell / size);
+    }
+
+    private int clusterOf(int x, int y) {
+        return (y / clusterSize) * clustersX + x / clusterSize;
+    }
+
+    private int manhattan(int from, int to) {
+        return Math.abs(from % size - to % size) + Math.abs(from / size - to / size);
+    }
+
+    private static boolean test(long[] bits, int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    private static void set(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+
+    private static void clear(long[] bits, int cell) {
+        bits[cell >>> 6] &= ~(1L << cell);
+    }
+
+    /**
+     * @return IntDeque -> cell ids of the last abstract path: the head, entrances and the goal.
+     */
+    public IntDeque getAbstractPath() {
+        return abstractPath;
+    }
+
+    /**
+     * @return IntDeque -> cell ids of the refined first leg of the last path, laid out as AStarAlgo.getPath():
+     * first - the first entrance on the way (or the goal), last - the head.
+     */
+    public IntDeque getLocalPath() {
+        return localPath;
+    }
+
+    /**
+     * @return int -> steps of the last path from the head to the goal (all the legs, not only the refined one),
+     * -1 if no path was found.
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * @return int -> nodes of the abstract graph, that the last next() has expanded.
+     */
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * @return long -> how many times clusters were rebuilt (all of them are built on the first search).
+     */
+    public long getRebuiltClusters() {
+        return rebuiltClusters;
+    }
+
+    public int getClusterCount() {
+        return clusterCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
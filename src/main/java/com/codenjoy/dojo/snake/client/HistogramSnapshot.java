@@ -0,0 +1,76 @@
+package com.codenjoy.dojo.snake.client;
+
+/**
+ * Immutable copy of LatencyHistogram. Getters make it usable as a composite value of SolverMetricsMXBean.
+ * All values are in nanoseconds.
+ */
+public class HistogramSnapshot {
+    private final long[] buckets;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] buckets, long count, long sum, long max) {
+        this.buckets = buckets;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getP50() {
+        return percentile(0.5);
+    }
+
+    public long getP90() {
+        return percentile(0.9);
+    }
+
+    public long getP99() {
+        return percentile(0.99);
+    }
+
+    public long getP999() {
+        return percentile(0.999);
+    }
+
+    /**
+     * @param p -> from 0.0 to 1.0;
+     * @return long -> approximate value (upper bound of the bucket), below which p of all values are.
+     */
+    public long percentile(double p) {
+        long total = 0;
+        for (long c : buckets) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%d p50=%d p90=%d p99=%d p999=%d max=%d",
+                count, getMean(), getP50(), getP90(), getP99(), getP999(), max);
+    }
+}
@@ -0,0 +1,152 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Double-ended queue of int values (cell ids of the game-board, see CellRegistry) in a circular array.
+ * It is used for the body of the snake (first - head, last - tail) and for the calculated path.
+ * Unlike SinglyLinkedList it doesn't create a node (and a Point) for every element,
+ * so the whole snake lives in a single contiguous array, even when it grows to hundreds of cells.
+ * Push/poll at both ends, indexed access from both ends and truncation cost O(1) (amortized for pushes).
+ */
+public class IntDeque {
+    private int[] elements;
+    private int mask;        // elements.length - 1, the length is always a power of two
+    private int first = 0;   // index of the first element inside the array
+    private int size = 0;
+
+    public IntDeque() {
+        this(16);
+    }
+
+    public IntDeque(int capacity) {
+        int length = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        elements = new int[length];
+        mask = length - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        first = 0;
+        size = 0;
+    }
+
+    public void addFirst(int value) {
+        ensureCapacity();
+        first = (first - 1) & mask;
+        elements[first] = value;
+        size++;
+    }
+
+    public void addLast(int value) {
+        ensureCapacity();
+        elements[(first + size) & mask] = value;
+        size++;
+    }
+
+    public int pollFirst() {
+        int value = peekFirst();
+        first = (first + 1) & mask;
+        size--;
+        return value;
+    }
+
+    public int pollLast() {
+        int value = peekLast();
+        size--;
+        return value;
+    }
+
+    public int peekFirst() {
+        if (size == 0) throw new NoSuchElementException();
+        return elements[first];
+    }
+
+    public int peekLast() {
+        if (size == 0) throw new NoSuchElementException();
+        return elements[(first + size - 1) & mask];
+    }
+
+    /**
+     * @param index -> 0 is the first element (e.g. the head of the snake).
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        return elements[(first + index) & mask];
+    }
+
+    /**
+     * @param index -> 0 is the last element (e.g. the tail of the snake).
+     */
+    public int getFromLast(int index) {
+        return get(size - 1 - index);
+    }
+
+    /**
+     * Removes first elements, so that only newSize elements are left (e.g. backing up along the calculated path).
+     */
+    public void truncateFirst(int newSize) {
+        if (newSize < 0 || newSize > size) throw new IndexOutOfBoundsException("Size: " + newSize);
+        first = (first + size - newSize) & mask;
+        size = newSize;
+    }
+
+    /**
+     * Removes last elements, so that only newSize elements are left (e.g. the tail of the snake moves forward).
+     */
+    public void truncateLast(int newSize) {
+        if (newSize < 0 || newSize > size) throw new IndexOutOfBoundsException("Size: " + newSize);
+        size = newSize;
+    }
+
+    public void copyFrom(IntDeque other) {
+        clear();
+        if (elements.length < other.size) {
+            elements = new int[other.elements.length];
+            mask = elements.length - 1;
+        }
+        for (int i = 0; i < other.size; i++) {
+            elements[i] = other.get(i);
+        }
+        size = other.size;
+    }
+
+    public boolean contains(int value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[(first + i) & mask] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureCapacity() {
+        if (size < elements.length) {
+            return;
+        }
+        int[] bigger = new int[elements.length << 1];
+        for (int i = 0; i < size; i++) {
+            bigger[i] = elements[(first + i) & mask];
+        }
+        elements = bigger;
+        mask = bigger.length - 1;
+        first = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(get(i));
+        }
+        return sb.append("]").toString();
+    }
+}
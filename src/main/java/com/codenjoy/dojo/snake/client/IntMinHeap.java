@@ -0,0 +1,134 @@
+package com.codenjoy.dojo.snake.client;
+
+/**
+ * Binary min-heap over integer ids (cell ids of the game-board) with integer keys.
+ * Position of every id inside the heap is tracked, so the key of an id that is already
+ * in the heap can be decreased in O(log n) - this is exactly what A* needs for its open set.
+ * Nothing is boxed: ids, keys and positions are stored in flat int arrays.
+ */
+public class IntMinHeap {
+    private final int[] heap;   // ids, ordered as a binary heap
+    private final int[] keys;   // key of every id (indexed by id)
+    private final int[] pos;    // position of every id inside the heap, -1 if it is not there
+    private int size = 0;
+
+    /**
+     * @param capacity -> ids that can be stored in the heap are 0..capacity-1.
+     */
+    public IntMinHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new int[capacity];
+        pos = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            pos[i] = -1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return heap.length;
+    }
+
+    public boolean contains(int id) {
+        return pos[id] >= 0;
+    }
+
+    public int keyOf(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Adds id to the heap, or decreases its key if it is already there.
+     *
+     * @return boolean -> whether the heap was changed (a bigger key for an id inside the heap is ignored).
+     */
+    public boolean offer(int id, int key) {
+        int at = pos[id];
+        if (at < 0) {
+            keys[id] = key;
+            heap[size] = id;
+            pos[id] = size;
+            siftUp(size++);
+            return true;
+        }
+        if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(at);
+            return true;
+        }
+        return false;
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * @return int -> id with the smallest key, that was removed from the heap.
+     */
+    public int poll() {
+        int top = heap[0];
+        pos[top] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            pos[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Removes all the ids from the heap. Costs O(size), not O(capacity).
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        int key = keys[id];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (keys[p] <= key) break;
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        int key = keys[id];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int c = heap[child];
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[c]) {
+                child = right;
+                c = heap[child];
+            }
+            if (key <= keys[c]) break;
+            heap[i] = c;
+            pos[c] = i;
+            i = child;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+}
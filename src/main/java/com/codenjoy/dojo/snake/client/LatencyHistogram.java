@@ -0,0 +1,61 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds with logarithmic buckets:
+ * bucket 0 holds 0 ns, bucket i (i > 0) holds values from 2^(i-1) to 2^i - 1 ns.
+ * Recording costs a couple of atomic increments and never blocks, so it can be called on every tick
+ * by the solver, while another thread (JMX, reporter) takes snapshots.
+ * Percentiles are approximate: the upper bound of the bucket is returned (but not more than the max value),
+ * so the error is less than 2x, which is enough to see tail-latency regressions.
+ */
+public class LatencyHistogram {
+    static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucket(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    static int bucket(long nanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    static long upperBound(int bucket) {
+        return bucket == 0 ? 0 : (bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1);
+    }
+
+    /**
+     * Values are read one by one without locking, so a snapshot taken during recording may be
+     * a little inconsistent (e.g. count is already incremented, but the bucket is not yet).
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new HistogramSnapshot(counts, count.sum(), sum.sum(), max.get());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,260 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.snake.model.SeededDice;
+import com.codenjoy.dojo.snake.model.SnakeGame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for the game server on localhost, to load test MultiSessionRunner without the real server.
+ * Every connection gets its own SnakeGame (the seed grows with every connection) and plays maxTicks ticks
+ * the way the server does: it sends "board=..." over a WebSocket, waits for the command and moves the snake.
+ * A dead snake starts a new game. After the last tick the server closes the connection.
+ * Only the part of RFC 6455, that the JDK client needs, is implemented: the handshake, text and close frames.
+ */
+public class LocalGameServer implements AutoCloseable {
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int READ_TIMEOUT = 30_000;
+
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+
+    private final int size;
+    private final int maxTicks;
+    private final long firstSeed;
+    private final ExecutorService executor = SessionThreads.newPerTaskExecutor("snake-local-server");
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong boards = new AtomicLong();
+    private final AtomicLong answers = new AtomicLong();
+    private final AtomicLong deaths = new AtomicLong();
+    private ServerSocket serverSocket;
+
+    /**
+     * @param size      -> size of the game-board;
+     * @param maxTicks  -> number of ticks for every connection;
+     * @param firstSeed -> seed of the game for the first connection.
+     */
+    public LocalGameServer(int size, int maxTicks, long firstSeed) {
+        this.size = size;
+        this.maxTicks = maxTicks;
+        this.firstSeed = firstSeed;
+    }
+
+    /**
+     * @param port -> port on localhost, 0 for any free port.
+     * @return int -> the port the server listens on.
+     */
+    public int start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        executor.execute(this::accept);
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return String -> board page url for the player, that BotSession understands.
+     */
+    public String getUrl(String player) {
+        return "http://localhost:" + serverSocket.getLocalPort()
+                + "/codenjoy-contest/board/player/" + player + "?code=0";
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                long seed = firstSeed + connections.getAndIncrement();
+                executor.execute(() -> serve(socket, seed));
+            } catch (IOException e) {
+                // the server socket is closed
+            }
+        }
+    }
+
+    private void serve(Socket socket, long seed) {
+        try (Socket s = socket) {
+            s.setSoTimeout(READ_TIMEOUT);
+            s.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            OutputStream out = new BufferedOutputStream(s.getOutputStream());
+            if (!handshake(in, out)) {
+                return;
+            }
+
+            SeededDice dice = new SeededDice(seed);
+            SnakeGame game = new SnakeGame(size, dice);
+            for (int tick = 0; tick < maxTicks; tick++) {
+                writeFrame(out, OPCODE_TEXT, ("board=" + game.render()).getBytes(StandardCharsets.UTF_8));
+                boards.incrementAndGet();
+                String command = readText(in, out);
+                if (command == null) {
+                    return;
+                }
+                answers.incrementAndGet();
+                game.tick(command);
+                if (!game.isAlive()) {
+                    deaths.incrementAndGet();
+                    game = new SnakeGame(size, dice);
+                }
+            }
+            writeFrame(out, OPCODE_CLOSE, new byte[]{0x03, (byte) 0xE8}); // 1000: normal closure
+            readText(in, out); // waits for the close frame of the client
+        } catch (IOException e) {
+            // the client has gone, nothing to do
+        }
+    }
+
+    private boolean handshake(DataInputStream in, OutputStream out) throws IOException {
+        String key = null;
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon != -1 && line.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key")) {
+                key = line.substring(colon + 1).trim();
+            }
+        }
+        if (key == null) {
+            out.write("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return false;
+        }
+        String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + accept(key) + "\r\n\r\n";
+        out.write(response.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return true;
+    }
+
+    private static String accept(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                throw new EOFException();
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Reads frames until a whole text message has come.
+     *
+     * @return String -> the text, or null if the client has closed the connection.
+     */
+    private static String readText(DataInputStream in, OutputStream out) throws IOException {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        while (true) {
+            int first = in.readUnsignedByte();
+            boolean fin = (first & 0x80) != 0;
+            int opcode = first & 0x0F;
+            int second = in.readUnsignedByte();
+            long length = second & 0x7F;
+            if (length == 126) {
+                length = in.readUnsignedShort();
+            } else if (length == 127) {
+                length = in.readLong();
+            }
+            byte[] mask = new byte[4];
+            if ((second & 0x80) != 0) {
+                in.readFully(mask);
+            }
+            byte[] payload = new byte[(int) length];
+            in.readFully(payload);
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= mask[i & 3];
+            }
+
+            if (opcode == OPCODE_CLOSE) {
+                return null;
+            }
+            if (opcode == OPCODE_PING) {
+                writeFrame(out, 0xA, payload);
+                continue;
+            }
+            if (opcode == OPCODE_TEXT || opcode == OPCODE_CONTINUATION) {
+                message.write(payload);
+                if (fin) {
+                    return message.toString(StandardCharsets.UTF_8.name());
+                }
+            }
+        }
+    }
+
+    private static void writeFrame(OutputStream out, int opcode, byte[] payload) throws IOException {
+        out.write(0x80 | opcode);
+        if (payload.length < 126) {
+            out.write(payload.length);
+        } else if (payload.length <= 0xFFFF) {
+            out.write(126);
+            out.write(payload.length >>> 8);
+            out.write(payload.length);
+        } else {
+            out.write(127);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) ((long) payload.length >>> shift));
+            }
+        }
+        out.write(payload);
+        out.flush();
+    }
+
+    public long getConnections() {
+        return connections.get();
+    }
+
+    public long getBoards() {
+        return boards.get();
+    }
+
+    public long getAnswers() {
+        return answers.get();
+    }
+
+    public long getDeaths() {
+        return deaths.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // nothing to do
+        }
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,124 @@
+package com.codenjoy.dojo.snake.client;
+
+/**
+ * Immutable copy of all SolverMetrics values, taken at some moment (see SolverMetrics.snapshot()).
+ */
+public class MetricsSnapshot {
+    private final long timestamp;   // System.currentTimeMillis() of the snapshot
+    private final long ticks;
+    private final HistogramSnapshot tick;
+    private final HistogramSnapshot[] phases;   // indexed by SolverMetrics.Phase ordinal
+    private final long nodesExpanded;
+    private final long backtracks;
+    private final long forbiddenCells;
+    private final long searchFailures;
+    private final long budgetExhausted;
+    private final long fallbackMoves;
+    private final long trapsAvoided;
+    private final long planHits;
+    private final long cycleMoves;
+    private final long cacheHits;
+    private final long cacheMisses;
+
+    MetricsSnapshot(long timestamp, long ticks, HistogramSnapshot tick, HistogramSnapshot[] phases,
+                    long nodesExpanded, long backtracks, long forbiddenCells, long searchFailures,
+                    long budgetExhausted, long fallbackMoves, long trapsAvoided,
+                    long planHits, long cycleMoves, long cacheHits, long cacheMisses) {
+        this.timestamp = timestamp;
+        this.ticks = ticks;
+        this.tick = tick;
+        this.phases = phases;
+        this.nodesExpanded = nodesExpanded;
+        this.backtracks = backtracks;
+        this.forbiddenCells = forbiddenCells;
+        this.searchFailures = searchFailures;
+        this.budgetExhausted = budgetExhausted;
+        this.fallbackMoves = fallbackMoves;
+        this.trapsAvoided = trapsAvoided;
+        this.planHits = planHits;
+        this.cycleMoves = cycleMoves;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public HistogramSnapshot getTickLatency() {
+        return tick;
+    }
+
+    public HistogramSnapshot getLatency(SolverMetrics.Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    public long getNodesExpanded() {
+        return nodesExpanded;
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    public long getForbiddenCells() {
+        return forbiddenCells;
+    }
+
+    public long getSearchFailures() {
+        return searchFailures;
+    }
+
+    public long getBudgetExhausted() {
+        return budgetExhausted;
+    }
+
+    public long getFallbackMoves() {
+        return fallbackMoves;
+    }
+
+    public long getTrapsAvoided() {
+        return trapsAvoided;
+    }
+
+    public long getPlanHits() {
+        return planHits;
+    }
+
+    public long getCycleMoves() {
+        return cycleMoves;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * @return double -> part of the lookups in DecisionCache, that were hits (0 if the cache is not used).
+     */
+    public double getCacheHitRate() {
+        long lookups = cacheHits + cacheMisses;
+        return lookups == 0 ? 0 : (double) cacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("ticks=%d expanded=%d backtracks=%d forbidden=%d failures=%d budgetExhausted=%d fallbacks=%d traps=%d planHits=%d cycleMoves=%d cacheHitRate=%.3f%n",
+                ticks, nodesExpanded, backtracks, forbiddenCells, searchFailures, budgetExhausted, fallbackMoves,
+                trapsAvoided, planHits, cycleMoves, getCacheHitRate()));
+        sb.append(String.format("  %-12s %s%n", "tick", tick));
+        for (SolverMetrics.Phase phase : SolverMetrics.Phase.values()) {
+            sb.append(String.format("  %-12s %s%n", phase.name().toLowerCase(), getLatency(phase)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,349 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monte Carlo tree search for the middle of the game, where a single path to the apple doesn't show,
+ * whether the snake survives afterwards.
+ * <p>
+ * Every worker grows its own UCT tree over the moves of the snake (root parallelization): a playout goes down
+ * the tree by UCB1, adds one node and continues with the RolloutPolicy up to the horizon. New apples appear
+ * in random cells during the playout, so the tree is "open loop": a node is a sequence of moves, not a position.
+ * The result of every playout is also added to the lock-free counters of its root move (visits and score
+ * in AtomicLongArray), that are shared by the workers, and the most visited root move is chosen.
+ * <p>
+ * A playout scores 0.5 * part of the horizon survived, if the snake dies. If the snake is alive at the horizon,
+ * it scores 0.5 + 0.25 * eaten / (eaten + 1) + 0.25 * 0.9 ^ (steps to the first apple - 1), so survival always
+ * wins over apples, and of the safe moves the one, that gets to the apple sooner, wins.
+ * Workers are ForkJoin tasks (on the common pool by default) and stop at the deadline or after maxPlayouts.
+ * The arrays of the trees are reused from tick to tick, so a search is not thread-safe: one MonteCarloSearch
+ * per solver.
+ */
+public class MonteCarloSearch {
+    public static final int DEFAULT_WORKERS = Runtime.getRuntime().availableProcessors();
+    public static final long DEFAULT_TIME_MILLIS = 50;
+    public static final int DEFAULT_HORIZON = 60;
+
+    private static final int MAX_NODES = 1 << 15;   // per worker, the tree stops growing when it is full
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final long SCALE = 1L << 20;      // fixed point scores in the shared counters
+    private static final int CHECK_TIME_EVERY = 64;
+    // every step to the first apple costs a tenth of its value, so a step closer is seen through the noise
+    private static final double APPLE_DISCOUNT = 0.9;
+
+    private final RolloutPolicy policy;
+    private final int workers;
+    private final long timeNanos;
+    private final long maxPlayouts;
+    private final ForkJoinPool pool;
+    private int horizon = DEFAULT_HORIZON;
+
+    private final AtomicLongArray rootVisits = new AtomicLongArray(4);
+    private final AtomicLongArray rootScores = new AtomicLongArray(4);
+    private final LongAdder playouts = new LongAdder();
+    private final LongAdder rolloutSteps = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private Worker[] trees;
+
+    public MonteCarloSearch() {
+        this(RolloutPolicy.epsilonGreedy(0.2), DEFAULT_WORKERS, DEFAULT_TIME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param policy  -> moves of the playouts after the tree;
+     * @param workers -> number of trees, that are searched at the same time;
+     * @param time    -> time limit of one search.
+     */
+    public MonteCarloSearch(RolloutPolicy policy, int workers, long time, TimeUnit unit) {
+        this(policy, workers, time, unit, Long.MAX_VALUE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param maxPlayouts -> playouts of one worker in one search (e.g. for repeatable results in tests).
+     */
+    public MonteCarloSearch(RolloutPolicy policy, int workers, long time, TimeUnit unit, long maxPlayouts,
+                            ForkJoinPool pool) {
+        this.policy = policy;
+        this.workers = Math.max(1, workers);
+        this.timeNanos = unit.toNanos(time);
+        this.maxPlayouts = maxPlayouts;
+        this.pool = pool;
+    }
+
+    /**
+     * @param steps -> moves of one playout (in the tree and after it).
+     */
+    public void setHorizon(int steps) {
+        this.horizon = steps;
+    }
+
+    public int getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * @param root -> the current position;
+     * @param seed -> seed of the workers (e.g. the hash of the position);
+     * @return int -> the best step (cell id), or -1 if every move kills the snake right away.
+     */
+    public int choose(SnakeState root, long seed) {
+        return choose(root, seed, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param deadline -> System.nanoTime(), by which the workers must stop, even if the time of the search
+     *                 isn't over yet (e.g. the deadline of the tick, see SearchBudget.deadline());
+     * @return int -> the best step (cell id), or -1 if every move kills the snake right away.
+     */
+    public int choose(SnakeState root, long seed, long deadline) {
+        int[] moves = new int[4];
+        int count = safeMoves(root, moves);
+        if (count <= 1) {
+            return count == 0 ? -1 : moves[0];
+        }
+        search(root, seed, deadline);
+
+        int best = -1;
+        long bestVisits = -1;
+        for (int i = 0; i < count; i++) {
+            long visits = rootVisits.get(direction(root, moves[i]));
+            if (visits > bestVisits) {
+                best = moves[i];
+                bestVisits = visits;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Runs the workers and leaves their results in the shared counters (see getRootVisits(), getRootScore()).
+     */
+    public void search(SnakeState root, long seed) {
+        search(root, seed, Long.MAX_VALUE);
+    }
+
+    private void search(SnakeState root, long seed, long tickDeadline) {
+        for (int i = 0; i < 4; i++) {
+            rootVisits.set(i, 0);
+            rootScores.set(i, 0);
+        }
+        if (trees == null || trees[0].model.size() != root.size()) {
+            trees = new Worker[workers];
+            for (int i = 0; i < workers; i++) {
+                trees[i] = new Worker(root.size());
+            }
+        }
+        long deadline = Math.min(SearchBudget.deadline(System.nanoTime(), timeNanos), tickDeadline);
+        List<Worker> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            trees[i].start(root, deadline, seed + i);
+            tasks.add(trees[i]);
+        }
+        if (ForkJoinTask.getPool() == pool) {
+            // search() is called from a task of this pool (GameFarm.getPool() handed to the search), so the
+            // workers are forked into the current task and the thread helps with them while it joins
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            for (Worker task : tasks) {
+                pool.execute(task);
+            }
+            for (Worker task : tasks) {
+                task.join();
+            }
+        }
+        searches.increment();
+    }
+
+    private static int safeMoves(SnakeState root, int[] moves) {
+        int[] all = new int[4];
+        int count = 0;
+        for (int i = 0, n = root.moves(all); i < n; i++) {
+            if (!root.move(all[i]).isDead()) {
+                moves[count++] = all[i];
+            }
+        }
+        return count;
+    }
+
+    // index of the shared counter of a root move: Direction.value() of the step
+    private static int direction(SnakeState root, int cell) {
+        return ZobristKeys.direction(root.size(), root.head(), cell);
+    }
+
+    private class Worker extends RecursiveAction {
+        private final RolloutModel model;
+        private final int[] moves = new int[4];
+        private final int[] path = new int[MAX_NODES];  // nodes of the current playout in the tree
+
+        // the tree: children of a node are stored one after another
+        private final int[] firstChild = new int[MAX_NODES];
+        private final byte[] childCount = new byte[MAX_NODES];
+        private final int[] move = new int[MAX_NODES];
+        private final int[] visits = new int[MAX_NODES];
+        private final double[] score = new double[MAX_NODES];
+        private int nodes;
+
+        private SnakeState root;
+        private long deadline;
+        private SplittableRandom random;
+
+        Worker(int size) {
+            this.model = new RolloutModel(size);
+        }
+
+        void start(SnakeState root, long deadline, long seed) {
+            reinitialize();
+            this.root = root;
+            this.deadline = deadline;
+            this.random = new SplittableRandom(seed);
+            nodes = 1;
+            firstChild[0] = -1;
+            visits[0] = 0;
+            score[0] = 0;
+        }
+
+        @Override
+        protected void compute() {
+            long done = 0;
+            long steps = 0;
+            while (done < maxPlayouts && (done % CHECK_TIME_EVERY != 0 || System.nanoTime() < deadline)) {
+                steps += playout();
+                done++;
+            }
+            playouts.add(done);
+            rolloutSteps.add(steps);
+        }
+
+        private int playout() {
+            model.reset(root, random);
+            int node = 0;
+            int depth = 0;
+            path[depth++] = 0;
+            // selection: down the expanded nodes by UCB1
+            while (firstChild[node] >= 0 && childCount[node] > 0 && !model.isDead()) {
+                node = select(node);
+                path[depth++] = node;
+                model.step(move[node]);
+            }
+            // expansion: children of the leaf are the safe moves of its position
+            if (!model.isDead() && firstChild[node] < 0 && (node == 0 || visits[node] > 0)) {
+                expand(node);
+                if (childCount[node] > 0) {
+                    node = firstChild[node] + random.nextInt(childCount[node]);
+                    path[depth++] = node;
+                    model.step(move[node]);
+                }
+            }
+            // rollout
+            boolean trapped = false;
+            while (!model.isDead() && model.steps() < horizon) {
+                int count = model.safeMoves(moves);
+                if (count == 0) {
+                    // any move kills the snake
+                    trapped = true;
+                    break;
+                }
+                model.step(policy.next(model, moves, count, random));
+            }
+
+            double reward = reward(model.isDead() || trapped);
+            for (int i = 0; i < depth; i++) {
+                visits[path[i]]++;
+                score[path[i]] += reward;
+            }
+            if (depth > 1) {
+                int index = direction(root, move[path[1]]);
+                rootVisits.getAndIncrement(index);
+                rootScores.getAndAdd(index, (long) (reward * SCALE));
+            }
+            return model.steps();
+        }
+
+        private double reward(boolean dead) {
+            if (dead) {
+                return 0.5 * model.steps() / horizon;
+            }
+            int eaten = model.eaten();
+            double early = eaten == 0 ? 0 : Math.pow(APPLE_DISCOUNT, model.firstApple() - 1);
+            return 0.5 + 0.25 * eaten / (eaten + 1.0) + 0.25 * early;
+        }
+
+        private int select(int node) {
+            int first = firstChild[node];
+            double log = Math.log(visits[node] + 1);
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + childCount[node]; child++) {
+                if (visits[child] == 0) {
+                    return child;
+                }
+                double value = score[child] / visits[child] + EXPLORATION * Math.sqrt(log / visits[child]);
+                if (value > bestValue) {
+                    best = child;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+
+        private void expand(int node) {
+            int count = model.safeMoves(moves);
+            if (nodes + count > MAX_NODES) {
+                return;
+            }
+            firstChild[node] = nodes;
+            childCount[node] = (byte) count;
+            for (int i = 0; i < count; i++) {
+                int child = nodes++;
+                move[child] = moves[i];
+                firstChild[child] = -1;
+                childCount[child] = 0;
+                visits[child] = 0;
+                score[child] = 0;
+            }
+        }
+    }
+
+    /**
+     * @param direction -> Direction.value() of a root move;
+     * @return long -> playouts of the last search, that started with the move.
+     */
+    public long getRootVisits(int direction) {
+        return rootVisits.get(direction);
+    }
+
+    /**
+     * @return double -> average score of the playouts of the last search, that started with the move.
+     */
+    public double getRootScore(int direction) {
+        long visits = rootVisits.get(direction);
+        return visits == 0 ? 0 : (double) rootScores.get(direction) / SCALE / visits;
+    }
+
+    public long getPlayouts() {
+        return playouts.sum();
+    }
+
+    /**
+     * @return long -> steps of the snake in all playouts, to see the speed of the rollout model.
+     */
+    public long getRolloutSteps() {
+        return rolloutSteps.sum();
+    }
+
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+}
@@ -0,0 +1,168 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.services.RandomDice;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Hosts many bot sessions in one JVM instead of a JVM per bot (see YourSolver.main).
+ * Every session has its own YourSolver and WebSocket, all sessions share one HttpClient, whose callbacks
+ * run on SessionThreads (a virtual thread per task on Java 21+). Immutable tables (CellRegistry,
+ * HamiltonianCycle, Elements) are cached per size of the game-board, so they are shared by all sessions,
+ * and so is the DecisionCache of main().
+ */
+public class MultiSessionRunner implements AutoCloseable {
+    private final Supplier<YourSolver> solvers;
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final List<BotSession> sessions = new ArrayList<>();
+    private long heapBefore;
+
+    /**
+     * @param solvers -> creates a new solver for every session.
+     */
+    public MultiSessionRunner(Supplier<YourSolver> solvers) {
+        this.solvers = solvers;
+        this.executor = SessionThreads.newPerTaskExecutor("snake-session");
+        this.client = HttpClient.newBuilder().executor(executor).build();
+    }
+
+    /**
+     * Opens a session for every url and waits until all of them are connected.
+     *
+     * @param urls -> board page urls from the browser, one per bot.
+     * @return List -> the sessions in the same order as urls.
+     */
+    public List<BotSession> connect(List<String> urls) {
+        heapBefore = usedHeap();
+        List<CompletableFuture<?>> connected = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            BotSession session = new BotSession("session-" + i, urls.get(i), solvers.get());
+            sessions.add(session);
+            connected.add(session.connect(client));
+        }
+        for (CompletableFuture<?> future : connected) {
+            try {
+                future.join();
+            } catch (RuntimeException e) {
+                // the session counts the error and is closed, other sessions keep playing
+            }
+        }
+        return getSessions();
+    }
+
+    /**
+     * @return boolean -> true if all sessions were closed by the server before the timeout.
+     */
+    public boolean awaitClosed(long timeout, TimeUnit unit) throws InterruptedException {
+        CompletableFuture<?>[] closed = new CompletableFuture<?>[sessions.size()];
+        for (int i = 0; i < closed.length; i++) {
+            closed[i] = sessions.get(i).closed();
+        }
+        try {
+            CompletableFuture.allOf(closed).get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Heap, that is retained by one session on average: the growth of the used heap (after GC) since connect()
+     * divided by the number of sessions, not a measure of any single session. It includes the solver with its
+     * search arrays, the WebSocket buffers and the share of the HttpClient, and also everything, that has grown
+     * in objects shared by the sessions (e.g. the DecisionCache of main()), so it makes sense after the first
+     * ticks, when arrays are allocated.
+     *
+     * @return long -> average bytes per session.
+     */
+    public long getAverageHeapPerSession() {
+        if (sessions.isEmpty()) {
+            return 0;
+        }
+        return Math.max(0, usedHeap() - heapBefore) / sessions.size();
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        // a few rounds, so that objects with finalizers and weak references are really gone
+        for (int i = 0; i < 3; i++) {
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public List<BotSession> getSessions() {
+        return Collections.unmodifiableList(sessions);
+    }
+
+    @Override
+    public void close() {
+        for (BotSession session : sessions) {
+            session.close();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Usage: MultiSessionRunner url1 url2 ... (board page urls of the bots)
+     * or MultiSessionRunner [sessions] [ticks] [size] to load test it against LocalGameServer.
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> urls = new ArrayList<>();
+        LocalGameServer server = null;
+        if (args.length > 0 && args[0].startsWith("http")) {
+            Collections.addAll(urls, args);
+        } else {
+            int count = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+            int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+            int size = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+            server = new LocalGameServer(size, ticks, 1);
+            server.start(0);
+            for (int i = 0; i < count; i++) {
+                urls.add(server.getUrl("bot" + i));
+            }
+        }
+
+        DecisionCache cache = new DecisionCache(YourSolver.DEFAULT_CACHE_BYTES * 4);
+        Supplier<YourSolver> solvers = () -> {
+            YourSolver solver = new YourSolver(new RandomDice());
+            solver.setDecisionCache(cache);
+            return solver;
+        };
+        try (MultiSessionRunner runner = new MultiSessionRunner(solvers)) {
+            long start = System.nanoTime();
+            List<BotSession> sessions = runner.connect(urls);
+            // the heap is measured only at the end, right after connect() no search array is allocated yet
+            System.out.printf("sessions=%d virtualThreads=%s%n", sessions.size(), SessionThreads.isVirtual());
+            runner.awaitClosed(1, TimeUnit.DAYS);
+
+            long ticks = 0;
+            for (BotSession session : sessions) {
+                System.out.println(session);
+                ticks += session.getTicks();
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.printf("ticks=%d wall=%d ms ticks/s=%.0f avg heap/session=%d bytes (shared cache included)%n",
+                    ticks, millis, ticks * 1000.0 / Math.max(1, millis), runner.getAverageHeapPerSession());
+            System.out.println("cache: " + cache);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
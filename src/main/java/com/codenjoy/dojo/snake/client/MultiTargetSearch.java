@@ -0,0 +1,200 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.Arrays;
+
+/**
+ * Finds the nearest of several goals (e.g. all the apples of the game-board) by a single breadth-first search
+ * from the head, instead of a path search to every goal. It works on the BitBoard (walls and stones) and
+ * the BodyTimeline of the last AStarAlgo.trace() or prepare(): a body cell can be entered, when the tail
+ * has left it by the moment the head gets there.
+ * The search stops as soon as the first goal is reached. If the next goals should be ordered as well,
+ * it stops at the first tourLength goals, and they are ordered by a cheap tour heuristic: every reached goal
+ * is tried as the first one (by its exact distance), the rest follow nearest neighbour first (by the Manhattan
+ * distance), and the shortest tour wins.
+ * Like ReachableArea, it uses generation stamps instead of clearing its arrays and allocates nothing,
+ * while the number of goals in the tour doesn't grow.
+ */
+public class MultiTargetSearch {
+    private final CellRegistry cells;
+    private final BitBoard bits;
+    private final BodyTimeline timeline;
+
+    private final int[] stamp;      // generation, when the cell was reached
+    private final int[] goalStamp;  // generation, when the cell was marked as a goal
+    private final int[] depth;      // steps the snake needs to reach the cell
+    private final int[] queue;
+    private int generation = 0;
+
+    // reached goals in the order of their distance from the head
+    private int[] reached = new int[1];
+    private int[] distance = new int[1];
+    private int reachedCount;
+
+    private int[] tour = new int[1];
+    private int[] candidate = new int[1];
+    private boolean[] used = new boolean[1];
+    private int tourSteps;
+    private int expandedNodes;
+
+    public MultiTargetSearch(CellRegistry cells, BitBoard bits, BodyTimeline timeline) {
+        this.cells = cells;
+        this.bits = bits;
+        this.timeline = timeline;
+        this.stamp = new int[cells.count()];
+        this.goalStamp = new int[cells.count()];
+        this.depth = new int[cells.count()];
+        this.queue = new int[cells.count()];
+    }
+
+    /**
+     * @param head       -> cell id of the head of the snake;
+     * @param goals      -> cell ids of the goals, only the first goalCount values are used;
+     * @param goalCount  -> number of goals;
+     * @param tourLength -> number of goals to order (1 - just the nearest one);
+     * @return int -> cell id of the first goal of the tour, or -1 if no goal can be reached.
+     */
+    public int search(int head, int[] goals, int goalCount, int tourLength) {
+        return search(head, goals, goalCount, tourLength, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param deadline -> System.nanoTime(), by which the search stops (see SearchBudget.deadline()),
+     *                 the tour is then built of the goals, that were reached by that moment;
+     * @return int -> cell id of the first goal of the tour, or -1 if no goal was reached.
+     */
+    public int search(int head, int[] goals, int goalCount, int tourLength, long deadline) {
+        nextGeneration();
+        expandedNodes = 0;
+        reachedCount = 0;
+        int wanted = Math.max(1, Math.min(tourLength, goalCount));
+        ensureCapacity(wanted);
+        for (int i = 0; i < goalCount; i++) {
+            goalStamp[goals[i]] = generation;
+        }
+
+        int first = 0;
+        int last = 0;
+        stamp[head] = generation;
+        depth[head] = 0;
+        queue[last++] = head;
+        while (first < last && reachedCount < wanted) {
+            if (expandedNodes % SearchBudget.CLOCK_CHECK_INTERVAL == 0 && expandedNodes > 0
+                    && SearchBudget.isPast(deadline)) {
+                break;
+            }
+            int current = queue[first++];
+            expandedNodes++;
+            int steps = depth[current] + 1;
+            int[] neighbours = cells.neighbours(current);
+            for (int i = 0; i < neighbours.length; i++) {
+                int next = neighbours[i];
+                if (stamp[next] == generation || bits.isObstacle(next) || timeline.freeAt(next) > steps) {
+                    // the body is still there, but the cell can be reached later by a longer way
+                    continue;
+                }
+                stamp[next] = generation;
+                depth[next] = steps;
+                queue[last++] = next;
+                if (goalStamp[next] == generation && reachedCount < wanted) {
+                    reached[reachedCount] = next;
+                    distance[reachedCount++] = steps;
+                }
+            }
+        }
+        order();
+        return reachedCount == 0 ? -1 : tour[0];
+    }
+
+    private void order() {
+        tourSteps = 0;
+        if (reachedCount == 0) {
+            return;
+        }
+        int best = Integer.MAX_VALUE;
+        for (int start = 0; start < reachedCount; start++) {
+            int steps = distance[start] + nearestNeighbourTour(start);
+            // on a tie the goal, that is closer to the head, stays first
+            if (steps < best) {
+                best = steps;
+                System.arraycopy(candidate, 0, tour, 0, reachedCount);
+            }
+        }
+        tourSteps = best;
+    }
+
+    private int nearestNeighbourTour(int start) {
+        Arrays.fill(used, 0, reachedCount, false);
+        used[start] = true;
+        candidate[0] = reached[start];
+        int current = reached[start];
+        int steps = 0;
+        for (int k = 1; k < reachedCount; k++) {
+            int next = -1;
+            int nextSteps = Integer.MAX_VALUE;
+            for (int i = 0; i < reachedCount; i++) {
+                if (!used[i] && manhattan(current, reached[i]) < nextSteps) {
+                    next = i;
+                    nextSteps = manhattan(current, reached[i]);
+                }
+            }
+            used[next] = true;
+            candidate[k] = reached[next];
+            current = reached[next];
+            steps += nextSteps;
+        }
+        return steps;
+    }
+
+    private int manhattan(int from, int to) {
+        int dimX = cells.getDimX();
+        return Math.abs(from % dimX - to % dimX) + Math.abs(from / dimX - to / dimX);
+    }
+
+    private void ensureCapacity(int count) {
+        if (reached.length < count) {
+            reached = new int[count];
+            distance = new int[count];
+            tour = new int[count];
+            candidate = new int[count];
+            used = new boolean[count];
+        }
+    }
+
+    /**
+     * @return int -> number of goals in the tour of the last search (not more than its tourLength).
+     */
+    public int getTourSize() {
+        return reachedCount;
+    }
+
+    /**
+     * @param index -> 0 is the goal, that the snake should go to now;
+     * @return int -> cell id of the goal.
+     */
+    public int getTour(int index) {
+        return tour[index];
+    }
+
+    /**
+     * @return int -> estimated number of steps of the whole tour (exact to the first goal, Manhattan after it).
+     */
+    public int getTourSteps() {
+        return tourSteps;
+    }
+
+    /**
+     * @return int -> number of cells, whose neighbours were examined by the last search.
+     */
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(goalStamp, 0);
+            generation = 1;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.codenjoy.dojo.snake.client;
+
+/**
+ * The path, that was calculated by AStarAlgo on one of the previous ticks and is still being followed.
+ * Only the first step of a path is sent to the server, but the rest of it stays valid, while nothing
+ * unexpected happens: the apple and the stone are at the same places, the snake has the same length
+ * and its head has moved exactly to the planned cell. In that case the next step is taken from the plan
+ * and the search is not run at all.
+ * The caller still has to check, that the planned cells are not blocked (see isClear()).
+ */
+public class PathPlan {
+    // planned cells: last - the next step of the snake, first - the end of the path
+    private final IntDeque cells = new IntDeque();
+    private int size = -1;
+    private int apple = -1;
+    private int stone = -1;
+    private int snakeLength = -1;
+
+    /**
+     * @param path        -> the path from AStarAlgo.getPath(): first - the end of the path, last - the head;
+     * @param size        -> size of the game-board, cell ids belong to;
+     * @param apple       -> cell id of the apple (-1 if there is none);
+     * @param stone       -> cell id of the stone (-1 if there is none);
+     * @param snakeLength -> length of the snake at the moment, when the path was calculated.
+     */
+    public void record(IntDeque path, int size, int apple, int stone, int snakeLength) {
+        cells.copyFrom(path);
+        if (!cells.isEmpty()) {
+            cells.pollLast();   // the head itself is not a step
+        }
+        this.size = size;
+        this.apple = apple;
+        this.stone = stone;
+        this.snakeLength = snakeLength;
+    }
+
+    public void invalidate() {
+        cells.clear();
+    }
+
+    /**
+     * Moves the plan one step forward, if the new tick matches it.
+     *
+     * @return boolean -> whether the plan is still valid and has the next step. If not, the plan is invalidated.
+     */
+    public boolean advance(int size, int head, int apple, int stone, int snakeLength) {
+        if (cells.isEmpty()) {
+            return false;
+        }
+        if (this.size != size || this.apple != apple || this.stone != stone
+                || this.snakeLength != snakeLength || cells.peekLast() != head) {
+            invalidate();
+            return false;
+        }
+        cells.pollLast();
+        return !cells.isEmpty();
+    }
+
+    /**
+     * @return int -> cell id of the next step (the plan must not be empty).
+     */
+    public int nextStep() {
+        return cells.peekLast();
+    }
+
+    /**
+     * @param algo -> AStarAlgo, that was prepared for the current tick (see AStarAlgo.prepare());
+     * @return boolean -> whether every planned cell is free at the moment, when the head enters it.
+     */
+    public boolean isClear(AStarAlgo algo) {
+        int steps = 1;
+        for (int i = cells.size() - 1; i >= 0; i--) {
+            if (!algo.isSafe(cells.get(i), steps++)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return cells.isEmpty();
+    }
+
+    /**
+     * @return boolean -> whether the rest of the plan ends in the cell (e.g. the path was found up to the apple).
+     */
+    public boolean leadsTo(int cell) {
+        return !cells.isEmpty() && cells.peekFirst() == cell;
+    }
+
+    /**
+     * @return int -> number of steps left in the plan.
+     */
+    public int size() {
+        return cells.size();
+    }
+}
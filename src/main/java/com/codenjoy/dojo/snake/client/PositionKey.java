@@ -0,0 +1,131 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Canonical packed encoding of a game position: the same position always gives the same bytes,
+ * so keys can be compared with Arrays.equals() and stored (e.g. to deduplicate recorded positions),
+ * while ZobristKeys gives a 64-bit hash of the same position for hash tables.
+ * <pre>
+ * varint size of the game-board, varint head + 1 (0 if there is no snake), varint length of the snake,
+ * 2 bits per body cell from the neck to the tail: direction (Direction.value()) from the previous cell,
+ * varint count of apples, varint gap from the previous apple of every apple (ascending, the first gap is cell + 1),
+ * varint count of stones, varint gap of every stone in the same way.
+ * </pre>
+ * Varints (see TickRecorder.putVarLong()) keep the key exact on a game-board of any size and with any number
+ * of apples, while a small position stays small: a snake of 100 cells on 15x15 takes 4 + 25 bytes
+ * instead of 100 Points.
+ */
+public final class PositionKey {
+    private static final int MAX_VARINT = 5;   // bytes of an int
+
+    private PositionKey() {
+    }
+
+    /**
+     * @param size   -> size of the game-board (cell id = y * size + x);
+     * @param snake  -> cell ids of snake's body from head to tail;
+     * @param apples -> cell ids of apples (in any order);
+     * @param stones -> cell ids of stones (in any order).
+     */
+    public static byte[] pack(int size, IntDeque snake, int[] apples, int[] stones) {
+        int length = snake.size();
+        ByteBuffer out = ByteBuffer.allocate(3 * MAX_VARINT + linksSize(length)
+                + MAX_VARINT * (2 + apples.length + stones.length));
+        TickRecorder.putVarLong(out, size);
+        TickRecorder.putVarLong(out, length == 0 ? 0 : snake.get(0) + 1L);
+        TickRecorder.putVarLong(out, length);
+
+        int bits = 0;
+        int count = 0;
+        for (int i = 1; i < length; i++) {
+            bits |= ZobristKeys.direction(size, snake.get(i - 1), snake.get(i)) << count;
+            count += 2;
+            if (count == 8) {
+                out.put((byte) bits);
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            out.put((byte) bits);
+        }
+        putCells(out, apples);
+        putCells(out, stones);
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    private static void putCells(ByteBuffer out, int[] cells) {
+        int[] sorted = cells.clone();
+        Arrays.sort(sorted);
+        TickRecorder.putVarLong(out, sorted.length);
+        long previous = -1;
+        for (int cell : sorted) {
+            TickRecorder.putVarLong(out, cell - previous);
+            previous = cell;
+        }
+    }
+
+    private static int linksSize(int length) {
+        return length <= 1 ? 0 : ((length - 1) * 2 + 7) / 8;
+    }
+
+    public static int size(byte[] key) {
+        return (int) TickLog.getVarLong(ByteBuffer.wrap(key));
+    }
+
+    /**
+     * @return IntDeque -> cell ids of snake's body from head to tail.
+     */
+    public static IntDeque snake(byte[] key) {
+        ByteBuffer in = ByteBuffer.wrap(key);
+        int size = (int) TickLog.getVarLong(in);
+        int head = (int) TickLog.getVarLong(in) - 1;
+        int length = (int) TickLog.getVarLong(in);
+        IntDeque snake = new IntDeque(Math.max(1, length));
+        if (head == -1) {
+            return snake;
+        }
+        int links = in.position();
+        int cell = head;
+        snake.addLast(cell);
+        for (int i = 1; i < length; i++) {
+            int bit = (i - 1) * 2;
+            int direction = (key[links + bit / 8] >> (bit % 8)) & 0b11;
+            cell = ZobristKeys.step(size, cell, direction);
+            snake.addLast(cell);
+        }
+        return snake;
+    }
+
+    public static int[] apples(byte[] key) {
+        return cells(afterSnake(key));
+    }
+
+    public static int[] stones(byte[] key) {
+        ByteBuffer in = afterSnake(key);
+        cells(in);
+        return cells(in);
+    }
+
+    // the buffer is positioned at the count of apples
+    private static ByteBuffer afterSnake(byte[] key) {
+        ByteBuffer in = ByteBuffer.wrap(key);
+        TickLog.getVarLong(in);
+        TickLog.getVarLong(in);
+        int length = (int) TickLog.getVarLong(in);
+        in.position(in.position() + linksSize(length));
+        return in;
+    }
+
+    private static int[] cells(ByteBuffer in) {
+        int[] cells = new int[(int) TickLog.getVarLong(in)];
+        long previous = -1;
+        for (int i = 0; i < cells.length; i++) {
+            previous += TickLog.getVarLong(in);
+            cells[i] = (int) previous;
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,134 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates the free region, that the snake enters with its next step.
+ * A step into a pocket, that is smaller than the body of the snake, kills the snake a few ticks later,
+ * even though the step itself doesn't collide with anything.
+ * The region is found by a breadth-first flood fill over the BitBoard (walls and stones) and the BodyTimeline:
+ * a body cell becomes a part of the region, when the tail has left it by the moment the fill reaches it.
+ * Reaching such a cell means, that the snake can follow its own tail, so it can't get trapped.
+ * The fill stops as soon as the region is big enough, and uses generation stamps instead of clearing its arrays,
+ * so a single evaluation costs O(limit) and allocates nothing.
+ */
+public class ReachableArea {
+    private final CellRegistry cells;
+    private final BitBoard bits;
+    private final BodyTimeline timeline;
+
+    private final int[] stamp;   // generation, when the cell was added to the region
+    private final int[] depth;   // steps the snake needs to reach the cell
+    private final int[] queue;
+    private int generation = 0;
+
+    private boolean tailReachable;
+
+    public ReachableArea(CellRegistry cells, BitBoard bits, BodyTimeline timeline) {
+        this.cells = cells;
+        this.bits = bits;
+        this.timeline = timeline;
+        this.stamp = new int[cells.count()];
+        this.depth = new int[cells.count()];
+        this.queue = new int[cells.count()];
+    }
+
+    /**
+     * @param from  -> the cell, that the head of the snake moves into with the next step;
+     * @param limit -> the fill stops, when the region has this number of cells;
+     * @return int -> size of the region (not more than limit), 0 if the cell itself can't be entered.
+     */
+    public int evaluate(int from, int limit) {
+        nextGeneration();
+        tailReachable = false;
+        if (bits.isObstacle(from) || !timeline.isFreeAt(from, 1)) {
+            return 0;
+        }
+        int head = 0;
+        int tail = 0;
+        add(from, 1);
+        queue[tail++] = from;
+        int size = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            if (++size >= limit) {
+                break;
+            }
+            int steps = depth[current] + 1;
+            int[] neighbours = cells.neighbours(current);
+            for (int i = 0; i < neighbours.length; i++) {
+                int next = neighbours[i];
+                if (stamp[next] == generation || bits.isObstacle(next)) {
+                    continue;
+                }
+                int freeAt = timeline.freeAt(next);
+                if (freeAt > steps) {
+                    // the body is still there, but the cell can be reached later by a longer way
+                    continue;
+                }
+                add(next, steps);
+                queue[tail++] = next;
+            }
+        }
+        return size;
+    }
+
+    private void add(int cell, int steps) {
+        stamp[cell] = generation;
+        depth[cell] = steps;
+        if (timeline.freeAt(cell) > 0) {
+            tailReachable = true;
+        }
+    }
+
+    /**
+     * @return boolean -> whether the last evaluate() has reached a cell, that the body of the snake leaves
+     * on the way (i.e. the snake can follow its tail).
+     */
+    public boolean isTailReachable() {
+        return tailReachable;
+    }
+
+    /**
+     * @param from        -> the cell, that the head of the snake moves into with the next step;
+     * @param snakeLength -> the number of cells in the body of the snake;
+     * @return boolean -> whether the region behind the cell can hold the whole snake, or the snake can follow its tail.
+     */
+    public boolean isSafe(int from, int snakeLength) {
+        return evaluate(from, snakeLength) >= snakeLength || tailReachable;
+    }
+
+    /**
+     * Chooses among all the neighbours of the head: safe ones (see isSafe()) first, then the ones where
+     * the tail can be reached, then the biggest region.
+     *
+     * @return int -> cell id of the best neighbour, or -1 if no neighbour can be entered.
+     */
+    public int bestMove(int head, int snakeLength) {
+        int best = -1;
+        int bestScore = 0;
+        int[] neighbours = cells.neighbours(head);
+        for (int i = 0; i < neighbours.length; i++) {
+            int size = evaluate(neighbours[i], snakeLength);
+            if (size == 0) {
+                continue;
+            }
+            // a region, that is smaller than the snake, is filled completely, so its size is exact
+            int score = ((size >= snakeLength || tailReachable) ? 2 : 0) + (tailReachable ? 1 : 0);
+            score = score * (cells.count() + 1) + size;
+            if (score > bestScore) {
+                best = neighbours[i];
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+}
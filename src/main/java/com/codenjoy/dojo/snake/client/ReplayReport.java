@@ -0,0 +1,74 @@
+package com.codenjoy.dojo.snake.client;
+
+/**
+ * Result of a replay of a TickLog (see TickReplay).
+ */
+public class ReplayReport {
+    private final long ticks;
+    private final long mismatches;
+    private final long decisionNanos;
+    private final long recordedNanos;
+    private final long wallNanos;
+
+    /**
+     * @param ticks         -> number of replayed records;
+     * @param mismatches    -> records, where the solver has answered another command than the recorded one;
+     * @param decisionNanos -> time of parsing and solving of all records during the replay;
+     * @param recordedNanos -> sum of the recorded tick latencies of the same records;
+     * @param wallNanos     -> wall time of the whole replay.
+     */
+    public ReplayReport(long ticks, long mismatches, long decisionNanos, long recordedNanos, long wallNanos) {
+        this.ticks = ticks;
+        this.mismatches = mismatches;
+        this.decisionNanos = decisionNanos;
+        this.recordedNanos = recordedNanos;
+        this.wallNanos = wallNanos;
+    }
+
+    /**
+     * @return ReplayReport -> both parts together, wall time is the longest one (parts run in parallel).
+     */
+    public ReplayReport merge(ReplayReport other) {
+        return new ReplayReport(ticks + other.ticks, mismatches + other.mismatches,
+                decisionNanos + other.decisionNanos, recordedNanos + other.recordedNanos,
+                Math.max(wallNanos, other.wallNanos));
+    }
+
+    ReplayReport withWallNanos(long wallNanos) {
+        return new ReplayReport(ticks, mismatches, decisionNanos, recordedNanos, wallNanos);
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    public long getDecisionNanos() {
+        return decisionNanos;
+    }
+
+    public long getRecordedNanos() {
+        return recordedNanos;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public double getNanosPerDecision() {
+        return ticks == 0 ? 0 : (double) decisionNanos / ticks;
+    }
+
+    public double getRecordedNanosPerDecision() {
+        return ticks == 0 ? 0 : (double) recordedNanos / ticks;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ticks=%d mismatches=%d ns/decision=%.0f recorded ns/decision=%.0f wall=%d ms",
+                ticks, mismatches, getNanosPerDecision(), getRecordedNanosPerDecision(), wallNanos / 1_000_000);
+    }
+}
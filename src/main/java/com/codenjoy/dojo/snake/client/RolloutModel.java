@@ -0,0 +1,210 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Mutable model of the game for playouts of MonteCarloSearch: the body of the snake is a ring buffer of cell ids,
+ * occupied cells are a bitset. reset() copies a position into the arrays, step() moves the snake by the rules
+ * of the server and spawns a new apple in a random free cell, when the apple is eaten.
+ * Nothing is allocated after the constructor, so a worker runs millions of steps without garbage.
+ * A model belongs to one thread.
+ */
+public final class RolloutModel {
+    private static final int SAMPLE_ATTEMPTS = 64;
+
+    private final int size;
+    private final int cells;
+    private final int[] body;        // ring buffer, the head is at [head], the tail is length - 1 cells behind
+    private final long[] occupied;
+    private SplittableRandom random;
+    private int head;
+    private int length;
+    private int apple;
+    private long[] stones;           // the bitset of the position, it is not modified
+    private int eaten;
+    private int firstApple;
+    private int steps;
+    private boolean dead;
+
+    /**
+     * @param size -> size of the game-board (borders are walls).
+     */
+    public RolloutModel(int size) {
+        this.size = size;
+        this.cells = size * size;
+        this.body = new int[cells];
+        this.occupied = new long[(cells + 63) >>> 6];
+    }
+
+    /**
+     * @param state  -> the position to start from (apple -1 means, that a new apple is spawned now);
+     * @param random -> new apples are spawned with it.
+     */
+    public void reset(SnakeState state, SplittableRandom random) {
+        this.random = random;
+        Arrays.fill(occupied, 0);
+        length = state.length();
+        head = 0;
+        for (int i = 0; i < length; i++) {
+            int cell = state.bodyAt(i);
+            body[i] = cell;
+            occupied[cell >>> 6] |= 1L << cell;
+        }
+        stones = state.stones();
+        apple = state.apple();
+        eaten = 0;
+        firstApple = -1;
+        steps = 0;
+        dead = state.isDead();
+        if (apple == -1 && !dead) {
+            spawnApple();
+        }
+    }
+
+    /**
+     * @param cell -> a neighbour of the head;
+     * @return boolean -> whether the snake is alive after the step.
+     */
+    public boolean step(int cell) {
+        if (dead) {
+            return false;
+        }
+        steps++;
+        boolean grows = cell == apple;
+        int tail = tail();
+        if (isWall(cell) || isStone(cell) || (isOccupied(cell) && (cell != tail || grows))) {
+            dead = true;
+            return false;
+        }
+        if (!grows) {
+            occupied[tail >>> 6] &= ~(1L << tail);
+            length--;
+        }
+        head = head == 0 ? cells - 1 : head - 1;
+        body[head] = cell;
+        length++;
+        occupied[cell >>> 6] |= 1L << cell;
+        if (grows) {
+            if (eaten++ == 0) {
+                firstApple = steps;
+            }
+            spawnApple();
+        }
+        return true;
+    }
+
+    /**
+     * @param out -> at least 4 cells;
+     * @return int -> number of neighbours of the head, that don't kill the snake right away.
+     */
+    public int safeMoves(int[] out) {
+        int from = head();
+        int count = 0;
+        // the same order as in CellRegistry: LEFT, RIGHT, UP, DOWN
+        count = addIfSafe(out, count, from - 1);
+        count = addIfSafe(out, count, from + 1);
+        count = addIfSafe(out, count, from + size);
+        count = addIfSafe(out, count, from - size);
+        return count;
+    }
+
+    private int addIfSafe(int[] out, int count, int cell) {
+        if (isWall(cell) || isStone(cell)) {
+            return count;
+        }
+        if (isOccupied(cell) && (cell != tail() || cell == apple || length < 3)) {
+            // the neck is occupied as well, a snake of two cells can't turn back into its tail
+            return count;
+        }
+        out[count] = cell;
+        return count + 1;
+    }
+
+    private void spawnApple() {
+        for (int i = 0; i < SAMPLE_ATTEMPTS; i++) {
+            int cell = random.nextInt(cells);
+            if (isFree(cell)) {
+                apple = cell;
+                return;
+            }
+        }
+        // the board is almost full, the first free cell after a random one is taken
+        int start = random.nextInt(cells);
+        for (int i = 0; i < cells; i++) {
+            int cell = (start + i) % cells;
+            if (isFree(cell)) {
+                apple = cell;
+                return;
+            }
+        }
+        apple = -1;
+    }
+
+    private boolean isFree(int cell) {
+        return !isWall(cell) && !isOccupied(cell) && !isStone(cell);
+    }
+
+    public boolean isWall(int cell) {
+        int x = cell % size;
+        int y = cell / size;
+        return x <= 0 || y <= 0 || x >= size - 1 || y >= size - 1;
+    }
+
+    public boolean isStone(int cell) {
+        return (stones[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public boolean isOccupied(int cell) {
+        return (occupied[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int head() {
+        return body[head];
+    }
+
+    public int tail() {
+        int index = head + length - 1;
+        return body[index >= cells ? index - cells : index];
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return int -> cell id of the apple, -1 if there is no free cell left.
+     */
+    public int apple() {
+        return apple;
+    }
+
+    /**
+     * @return int -> apples, that were eaten since reset().
+     */
+    public int eaten() {
+        return eaten;
+    }
+
+    /**
+     * @return int -> the step (counted from 1), at which the first apple was eaten, or -1.
+     */
+    public int firstApple() {
+        return firstApple;
+    }
+
+    /**
+     * @return int -> steps since reset().
+     */
+    public int steps() {
+        return steps;
+    }
+
+    public boolean isDead() {
+        return dead;
+    }
+}
@@ -0,0 +1,58 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the moves of a playout of MonteCarloSearch after the tree has ended.
+ * A policy is called millions of times per second from several workers, so it must not allocate
+ * and must keep its state (if any) in the arguments.
+ */
+public interface RolloutPolicy {
+
+    /**
+     * Any of the safe moves.
+     */
+    RolloutPolicy RANDOM = (model, moves, count, random) -> moves[random.nextInt(count)];
+
+    /**
+     * The move, that is the closest to the apple, like AStarAlgo.getClosest()
+     * (the distance is Manhattan here, ties go to the last of the moves).
+     */
+    RolloutPolicy GREEDY = (model, moves, count, random) -> closest(model, moves, count);
+
+    /**
+     * @param model  -> the playout, the head is model.head();
+     * @param moves  -> safe neighbours of the head (see RolloutModel.safeMoves()), at least one;
+     * @param count  -> number of moves;
+     * @param random -> the random of the worker;
+     * @return int -> one of the moves.
+     */
+    int next(RolloutModel model, int[] moves, int count, SplittableRandom random);
+
+    /**
+     * @param epsilon -> part of random moves, so that playouts of a greedy snake differ not only by apples.
+     */
+    static RolloutPolicy epsilonGreedy(double epsilon) {
+        return (model, moves, count, random) -> random.nextDouble() < epsilon
+                ? moves[random.nextInt(count)]
+                : closest(model, moves, count);
+    }
+
+    static int closest(RolloutModel model, int[] moves, int count) {
+        int apple = model.apple();
+        if (apple == -1) {
+            return moves[0];
+        }
+        int size = model.size();
+        int closest = moves[0];
+        int closestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int distance = Math.abs(moves[i] % size - apple % size) + Math.abs(moves[i] / size - apple / size);
+            if (distance <= closestDistance) {
+                closest = moves[i];
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+}
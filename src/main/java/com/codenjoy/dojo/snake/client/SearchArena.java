@@ -0,0 +1,191 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.Arrays;
+
+/**
+ * All the memory, that AStarAlgo needs for path modelling on the game-board of a given size.
+ * The arena is created once per session and reused from tick to tick.
+ * Scratch arrays (visited, closed, g-scores, parents) are never cleared: every search bumps the generation counter,
+ * and a value in the array is valid only when its stamp equals the current generation.
+ * So starting a new search costs O(1), no matter how big the game-board is.
+ * When the server switches the dimensions of the game-board, the arena reallocates itself (see ensureSize()).
+ */
+public class SearchArena {
+    private int dimX;
+    private int dimY;
+
+    private CellRegistry cells;
+    private BitBoard bits;
+    private BodyTimeline timeline;
+    private IntMinHeap open;
+    private ReachableArea reachable;
+    private MultiTargetSearch targets;
+    private DistanceField distances;
+
+    private int[] visited;   // generation, when gScore and parent of the cell were set
+    private int[] closed;    // generation, when the cell was closed
+    private int[] gScore;
+    private int[] parent;
+    private int[] visitedBack;   // the same for the search from the goal (see AStarAlgo.Mode.BIDIRECTIONAL)
+    private int[] distanceBack;
+    private int[] parentBack;
+    private int[] closedBack;
+    private IntMinHeap openBack;
+    private int generation = 0;
+
+    public SearchArena(int dimX, int dimY) {
+        allocate(dimX, dimY);
+    }
+
+    private void allocate(int dimX, int dimY) {
+        this.dimX = dimX;
+        this.dimY = dimY;
+        int count = dimX * dimY;
+        cells = CellRegistry.of(dimX, dimY);
+        bits = new BitBoard(dimX, dimY);
+        timeline = new BodyTimeline(dimX, dimY);
+        open = new IntMinHeap(count);
+        reachable = new ReachableArea(cells, bits, timeline);
+        targets = new MultiTargetSearch(cells, bits, timeline);
+        distances = new DistanceField(cells);
+        visited = new int[count];
+        closed = new int[count];
+        gScore = new int[count];
+        parent = new int[count];
+        visitedBack = new int[count];
+        distanceBack = new int[count];
+        parentBack = new int[count];
+        closedBack = new int[count];
+        openBack = new IntMinHeap(count);
+        generation = 0;
+    }
+
+    /**
+     * @return boolean -> whether the arena had to be reallocated, because the dimensions of the game-board changed.
+     */
+    public boolean ensureSize(int dimX, int dimY) {
+        if (this.dimX == dimX && this.dimY == dimY) {
+            return false;
+        }
+        allocate(dimX, dimY);
+        return true;
+    }
+
+    /**
+     * Invalidates all the scratch arrays at once, should be called before every search.
+     */
+    public void nextGeneration() {
+        open.clear();
+        openBack.clear();
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            // this happens once in 2 billion searches, so here it is fine to pay for clearing the arrays
+            Arrays.fill(visited, 0);
+            Arrays.fill(closed, 0);
+            Arrays.fill(visitedBack, 0);
+            Arrays.fill(closedBack, 0);
+            generation = 1;
+        }
+    }
+
+    public int getDimX() {
+        return dimX;
+    }
+
+    public int getDimY() {
+        return dimY;
+    }
+
+    public CellRegistry cells() {
+        return cells;
+    }
+
+    public BitBoard bits() {
+        return bits;
+    }
+
+    public BodyTimeline timeline() {
+        return timeline;
+    }
+
+    public IntMinHeap open() {
+        return open;
+    }
+
+    public ReachableArea reachable() {
+        return reachable;
+    }
+
+    public MultiTargetSearch targets() {
+        return targets;
+    }
+
+    public DistanceField distances() {
+        return distances;
+    }
+
+    public boolean isVisited(int cell) {
+        return visited[cell] == generation;
+    }
+
+    public void visit(int cell, int g, int from) {
+        visited[cell] = generation;
+        gScore[cell] = g;
+        parent[cell] = from;
+    }
+
+    /**
+     * @return int -> g-score of the cell, or -1 if the cell was not visited during the current search.
+     */
+    public int gScore(int cell) {
+        return visited[cell] == generation ? gScore[cell] : -1;
+    }
+
+    public int parent(int cell) {
+        return parent[cell];
+    }
+
+    /**
+     * @param distance -> number of steps from the cell to the goal;
+     * @param towards  -> the next cell on the way to the goal (-1 for the goal itself).
+     */
+    public void visitBackward(int cell, int distance, int towards) {
+        visitedBack[cell] = generation;
+        distanceBack[cell] = distance;
+        parentBack[cell] = towards;
+    }
+
+    /**
+     * @return int -> distance to the goal found by the backward search, or -1 if the cell was not visited by it.
+     */
+    public int backwardDistance(int cell) {
+        return visitedBack[cell] == generation ? distanceBack[cell] : -1;
+    }
+
+    public int backwardParent(int cell) {
+        return parentBack[cell];
+    }
+
+    /**
+     * @return IntMinHeap -> open set of the search from the goal.
+     */
+    public IntMinHeap backwardOpen() {
+        return openBack;
+    }
+
+    public boolean isClosedBackward(int cell) {
+        return closedBack[cell] == generation;
+    }
+
+    public void closeBackward(int cell) {
+        closedBack[cell] = generation;
+    }
+
+    public boolean isClosed(int cell) {
+        return closed[cell] == generation;
+    }
+
+    public void close(int cell) {
+        closed[cell] = generation;
+    }
+}
@@ -0,0 +1,105 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limit of the work of a tick: the number of nodes, that a single search may expand,
+ * and/or the wall-clock time. The time is a deadline of the whole tick: YourSolver takes it
+ * from the start of get() (see deadline()) and hands it to every search of the tick (AStarAlgo,
+ * MultiTargetSearch, HierarchicalPathfinder, ExpectimaxLookahead, MonteCarloSearch), so the phases share
+ * the time instead of getting it one after another. When the budget runs out, the search stops and returns
+ * the best step found so far, so the answer is always sent before the server tick ends.
+ * The clock is read only once per CLOCK_CHECK_INTERVAL expansions, because System.nanoTime()
+ * is much more expensive than the expansion itself. The search counts the expansions since the last
+ * reading itself: it may expand several nodes between two checks (e.g. the backtracking of the greedy mode),
+ * so a test of the count against a multiple of the interval could miss all of them.
+ */
+public final class SearchBudget {
+    static final int CLOCK_CHECK_INTERVAL = 32;
+
+    public static final SearchBudget UNLIMITED = new SearchBudget(Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    private final int maxExpansions;
+    private final long maxNanos;
+
+    private SearchBudget(int maxExpansions, long maxNanos) {
+        if (maxExpansions < 1 || maxNanos < 1) {
+            throw new IllegalArgumentException("Budget must be positive: " + maxExpansions + " nodes, " + maxNanos + " ns");
+        }
+        this.maxExpansions = maxExpansions;
+        this.maxNanos = maxNanos;
+    }
+
+    public static SearchBudget ofExpansions(int maxExpansions) {
+        return new SearchBudget(maxExpansions, Long.MAX_VALUE);
+    }
+
+    public static SearchBudget ofTime(long time, TimeUnit unit) {
+        return new SearchBudget(Integer.MAX_VALUE, unit.toNanos(time));
+    }
+
+    /**
+     * @return SearchBudget -> the search stops as soon as any of the limits is reached.
+     */
+    public static SearchBudget of(int maxExpansions, long time, TimeUnit unit) {
+        return new SearchBudget(maxExpansions, unit.toNanos(time));
+    }
+
+    public int getMaxExpansions() {
+        return maxExpansions;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @param start -> System.nanoTime() at the start of the tick;
+     * @return long -> System.nanoTime(), by which the tick must be over, Long.MAX_VALUE if the time is not limited.
+     */
+    public long deadline(long start) {
+        return deadline(start, maxNanos);
+    }
+
+    /**
+     * @return long -> start + nanos, Long.MAX_VALUE (no deadline) if the sum doesn't fit into a long.
+     */
+    public static long deadline(long start, long nanos) {
+        long deadline = start + nanos;
+        return deadline < start ? Long.MAX_VALUE : deadline;
+    }
+
+    /**
+     * @param deadline -> System.nanoTime(), by which the search must stop, Long.MAX_VALUE - never;
+     * @return boolean -> whether the deadline has passed (it reads the clock).
+     */
+    public static boolean isPast(long deadline) {
+        return deadline != Long.MAX_VALUE && System.nanoTime() >= deadline;
+    }
+
+    public boolean isUnlimited() {
+        return maxExpansions == Integer.MAX_VALUE && maxNanos == Long.MAX_VALUE;
+    }
+
+    /**
+     * @param expanded -> number of nodes expanded so far;
+     * @param deadline -> System.nanoTime(), by which the search must stop (see deadline());
+     * @param clockDue -> whether CLOCK_CHECK_INTERVAL nodes were expanded since the clock was read last time;
+     * @return boolean -> whether the search must stop now.
+     */
+    public boolean isExhausted(int expanded, long deadline, boolean clockDue) {
+        if (expanded >= maxExpansions) {
+            return true;
+        }
+        return clockDue && isPast(deadline);
+    }
+
+    @Override
+    public String toString() {
+        if (isUnlimited()) {
+            return "unlimited";
+        }
+        return (maxExpansions == Integer.MAX_VALUE ? "" : maxExpansions + " nodes ")
+                + (maxNanos == Long.MAX_VALUE ? "" : TimeUnit.NANOSECONDS.toMillis(maxNanos) + " ms");
+    }
+}
@@ -0,0 +1,62 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for sessions (see MultiSessionRunner and LocalGameServer): one thread per task.
+ * On Java 21+ these are virtual threads, so hundreds of sessions cost almost nothing while they wait
+ * for the network. The project is compiled for Java 11, so the virtual executor is looked up by reflection;
+ * on older JVMs a cached pool of daemon platform threads is used instead.
+ */
+final class SessionThreads {
+
+    private SessionThreads() {
+    }
+
+    /**
+     * @param name -> prefix for the names of platform threads.
+     * @return ExecutorService -> a new executor, that starts a thread for every task.
+     */
+    static ExecutorService newPerTaskExecutor(String name) {
+        ExecutorService virtual = newVirtualExecutor();
+        if (virtual != null) {
+            return virtual;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return boolean -> whether newPerTaskExecutor() gives virtual threads on this JVM.
+     */
+    static boolean isVirtual() {
+        return virtualFactory() != null;
+    }
+
+    private static ExecutorService newVirtualExecutor() {
+        Method factory = virtualFactory();
+        if (factory == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static Method virtualFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.codenjoy.dojo.snake.client;
 
-public class SinglyLinkedList<E> {
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class SinglyLinkedList<E> implements Iterable<E> {
 
 
     @Override
@@ -130,6 +133,27 @@ public class SinglyLinkedList<E> {
         size++;
     }
 
+    @Override
+    public Iterator<E> iterator() {           // walks through the list from head to tail
+        return new Iterator<E>() {
+            private Node<E> node = head;
+
+            @Override
+            public boolean hasNext() {
+                return node != null;
+            }
+
+            @Override
+            public E next() {
+                if (node == null)
+                    throw new NoSuchElementException();
+                E element = node.getElement();
+                node = node.getNext();
+                return element;
+            }
+        };
+    }
+
     public Node<E> removeAfter(Node<E> previous) {
         if (previous.getNext() != null) {
             Node<E> after = previous.getNext();
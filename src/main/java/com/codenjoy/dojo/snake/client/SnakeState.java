@@ -0,0 +1,171 @@
+package com.codenjoy.dojo.snake.client;
+
+/**
+ * Immutable position of the game in primitive arrays, for the lookahead (see ExpectimaxLookahead):
+ * the body of the snake (cell ids from head to tail), a bitset of occupied cells, the apple and a bitset
+ * of stones (it never changes, so all the states of one lookahead share it).
+ * move() gives a new state and follows the rules of the server: walls and the body kill the snake
+ * (the cell of the tail is free, unless the snake grows), an apple makes it one cell longer,
+ * stones are treated as deadly (a stone costs more cells, than the lookahead can win back).
+ * A state costs O(length + cells / 64) to copy, which is cheap for the few hundred nodes of a lookahead.
+ */
+public final class SnakeState {
+    private final int size;
+    private final int[] body;     // head first
+    private final int length;
+    private final long[] occupied;
+    private final int apple;      // -1 if the apple is eaten and the new one is not known yet
+    private final long[] stones;
+    private final int applesEaten;
+    private final boolean dead;
+
+    private SnakeState(int size, int[] body, int length, long[] occupied, int apple, long[] stones,
+                       int applesEaten, boolean dead) {
+        this.size = size;
+        this.body = body;
+        this.length = length;
+        this.occupied = occupied;
+        this.apple = apple;
+        this.stones = stones;
+        this.applesEaten = applesEaten;
+        this.dead = dead;
+    }
+
+    /**
+     * @param size  -> size of the game-board (borders are walls);
+     * @param snake -> cell ids of snake's body from head to tail;
+     * @param apple -> cell id of the apple or -1;
+     * @param stone -> cell id of the stone or -1.
+     */
+    public static SnakeState of(int size, IntDeque snake, int apple, int stone) {
+        return stone == -1 ? of(size, snake, apple, new int[0], 0) : of(size, snake, apple, new int[]{stone}, 1);
+    }
+
+    /**
+     * @param stones     -> cell ids of the stones, only the first stoneCount values are used;
+     * @param stoneCount -> number of stones.
+     */
+    public static SnakeState of(int size, IntDeque snake, int apple, int[] stones, int stoneCount) {
+        long[] stoneBits = new long[(size * size + 63) >>> 6];
+        for (int i = 0; i < stoneCount; i++) {
+            stoneBits[stones[i] >>> 6] |= 1L << stones[i];
+        }
+        int[] body = new int[snake.size()];
+        long[] occupied = new long[(size * size + 63) >>> 6];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = snake.get(i);
+            occupied[body[i] >>> 6] |= 1L << body[i];
+        }
+        return new SnakeState(size, body, body.length, occupied, apple, stoneBits, 0, body.length == 0);
+    }
+
+    /**
+     * @param cell -> a neighbour of the head;
+     * @return SnakeState -> the state after the snake has moved into the cell.
+     */
+    public SnakeState move(int cell) {
+        if (dead) {
+            return this;
+        }
+        boolean grows = cell == apple;
+        int tail = body[length - 1];
+        if (isWall(cell) || isStone(cell) || (isOccupied(cell) && (cell != tail || grows))) {
+            return new SnakeState(size, body, length, occupied, apple, stones, applesEaten, true);
+        }
+
+        int newLength = grows ? length + 1 : length;
+        int[] newBody = new int[newLength];
+        newBody[0] = cell;
+        System.arraycopy(body, 0, newBody, 1, newLength - 1);
+        long[] newOccupied = occupied.clone();
+        if (!grows) {
+            newOccupied[tail >>> 6] &= ~(1L << tail);
+        }
+        newOccupied[cell >>> 6] |= 1L << cell;
+        return new SnakeState(size, newBody, newLength, newOccupied, grows ? -1 : apple, stones,
+                grows ? applesEaten + 1 : applesEaten, false);
+    }
+
+    /**
+     * @return SnakeState -> the same state with a new apple (a chance node of the lookahead).
+     */
+    public SnakeState withApple(int cell) {
+        return new SnakeState(size, body, length, occupied, cell, stones, applesEaten, dead);
+    }
+
+    /**
+     * @param out -> at least 4 cells (a snake of one cell has no neck);
+     * @return int -> number of neighbours of the head, that the snake may turn to (the neck is excluded),
+     * whether they are deadly or not.
+     */
+    public int moves(int[] out) {
+        int head = body[0];
+        int neck = length > 1 ? body[1] : -1;
+        int count = 0;
+        // the same order as in CellRegistry: LEFT, RIGHT, UP, DOWN
+        if (head - 1 != neck) out[count++] = head - 1;
+        if (head + 1 != neck) out[count++] = head + 1;
+        if (head + size != neck) out[count++] = head + size;
+        if (head - size != neck) out[count++] = head - size;
+        return count;
+    }
+
+    public boolean isWall(int cell) {
+        int x = cell % size;
+        int y = cell / size;
+        return x <= 0 || y <= 0 || x >= size - 1 || y >= size - 1;
+    }
+
+    public boolean isOccupied(int cell) {
+        return (occupied[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * @return boolean -> whether a new apple may appear in the cell.
+     */
+    public boolean isFree(int cell) {
+        return !isWall(cell) && !isOccupied(cell) && !isStone(cell);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int head() {
+        return body[0];
+    }
+
+    /**
+     * @param index -> 0 is the head, length() - 1 is the tail.
+     */
+    public int bodyAt(int index) {
+        return body[index];
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int apple() {
+        return apple;
+    }
+
+    public boolean isStone(int cell) {
+        return (stones[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * @return long[] -> the bitset of stones, it is shared by the states, so it must not be modified.
+     */
+    long[] stones() {
+        return stones;
+    }
+
+    public int applesEaten() {
+        return applesEaten;
+    }
+
+    public boolean isDead() {
+        return dead;
+    }
+}
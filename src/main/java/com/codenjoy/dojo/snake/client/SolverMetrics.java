@@ -0,0 +1,337 @@
+package com.codenjoy.dojo.snake.client;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Low-overhead instrumentation of YourSolver: latency of every tick and of its phases,
+ * and counters of the work done by AStarAlgo.
+ * Everything is lock-free (see LatencyHistogram, LongAdder), so the solver never waits for readers.
+ * The values can be read in three ways: snapshot(), periodic reports (startReporting())
+ * and JMX (registerMBean()).
+ */
+public class SolverMetrics implements SolverMetricsMXBean {
+
+    /**
+     * PARSE - building the index of the Board (decoding of the board string);
+     * SNAKE_TRACE - updating the snake, apples and stones in BoardTracker;
+     * SEARCH - AStarAlgo.trace();
+     * DIRECTION - turning the found step into the command for the server.
+     */
+    public enum Phase {
+        PARSE,
+        SNAKE_TRACE,
+        SEARCH,
+        DIRECTION
+    }
+
+    public static final String DOMAIN = "com.codenjoy.dojo.snake";
+
+    private final LatencyHistogram tick = new LatencyHistogram();
+    private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder nodesExpanded = new LongAdder();
+    private final LongAdder backtracks = new LongAdder();
+    private final LongAdder forbiddenCells = new LongAdder();
+    private final LongAdder searchFailures = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final LongAdder fallbackMoves = new LongAdder();
+    private final LongAdder trapsAvoided = new LongAdder();
+    private final LongAdder planHits = new LongAdder();
+    private final LongAdder cycleMoves = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    // values of the last tick (see TickRecorder), they are written and read by the thread of the solver
+    private final long[] lastPhases = new long[Phase.values().length];
+    private long lastTick;
+
+    private ScheduledExecutorService reporter;
+
+    public SolverMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos);
+        lastPhases[phase.ordinal()] = nanos;
+    }
+
+    public void recordTick(long nanos) {
+        ticks.increment();
+        tick.record(nanos);
+        lastTick = nanos;
+    }
+
+    /**
+     * @return long -> latency of the last tick. Unlike everything else here, it is not meant for other threads.
+     */
+    public long lastTickNanos() {
+        return lastTick;
+    }
+
+    /**
+     * @return long -> latency of the phase in the last tick (0 if the phase was skipped in the first tick).
+     */
+    public long lastPhaseNanos(Phase phase) {
+        return lastPhases[phase.ordinal()];
+    }
+
+    /**
+     * @param expanded   -> nodes expanded by the last search;
+     * @param backtracks -> how many times the search backed up;
+     * @param forbidden  -> size of the forbidden set at the end of the search;
+     * @param failed     -> whether the search didn't find any step.
+     */
+    public void recordSearch(int expanded, int backtracks, int forbidden, boolean failed) {
+        nodesExpanded.add(expanded);
+        this.backtracks.add(backtracks);
+        forbiddenCells.add(forbidden);
+        if (failed) {
+            searchFailures.increment();
+        }
+    }
+
+    /**
+     * The search was stopped by SearchBudget (see AStarAlgo.isBudgetExhausted()).
+     */
+    public void recordBudgetExhausted() {
+        budgetExhausted.increment();
+    }
+
+    /**
+     * The search found nothing and the precomputed fallback move was sent (see AStarAlgo.isFallbackUsed()).
+     */
+    public void recordFallback() {
+        fallbackMoves.increment();
+    }
+
+    /**
+     * The found step led into a region smaller than the snake and was replaced (see ReachableArea).
+     */
+    public void recordTrapAvoided() {
+        trapsAvoided.increment();
+    }
+
+    /**
+     * The step was taken from the path of the previous ticks, the search was not run (see PathPlan).
+     */
+    public void recordPlanHit() {
+        planHits.increment();
+    }
+
+    /**
+     * The step was made by HamiltonianStrategy.
+     */
+    public void recordCycleMove() {
+        cycleMoves.increment();
+    }
+
+    /**
+     * The step was taken from DecisionCache, the search was not run.
+     */
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    /**
+     * The position was not found in DecisionCache.
+     */
+    public void recordCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    public MetricsSnapshot snapshot() {
+        HistogramSnapshot[] phaseSnapshots = new HistogramSnapshot[phases.length];
+        for (int i = 0; i < phases.length; i++) {
+            phaseSnapshots[i] = phases[i].snapshot();
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), ticks.sum(), tick.snapshot(), phaseSnapshots,
+                nodesExpanded.sum(), backtracks.sum(), forbiddenCells.sum(), searchFailures.sum(),
+                budgetExhausted.sum(), fallbackMoves.sum(), trapsAvoided.sum(), planHits.sum(),
+                cycleMoves.sum(), cacheHits.sum(), cacheMisses.sum());
+    }
+
+    /**
+     * Passes snapshot() to the listener every period (in a daemon thread), e.g. to print it into the log.
+     * Only one report can be active at a time, the previous one is stopped.
+     */
+    public synchronized ScheduledFuture<?> startReporting(long period, TimeUnit unit, Consumer<MetricsSnapshot> listener) {
+        stopReporting();
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "snake-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return reporter.scheduleAtFixedRate(() -> listener.accept(snapshot()), period, period, unit);
+    }
+
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    /**
+     * Registers these metrics in the platform MBeanServer as "com.codenjoy.dojo.snake:type=SolverMetrics,name=...".
+     * If there is already an MBean with the same name, it is replaced.
+     *
+     * @param name -> name of the solver (e.g. the player), so that several solvers can live in one JVM.
+     * @return ObjectName -> the name, that the MBean was registered with.
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(name);
+            try {
+                server.registerMBean(this, objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(objectName);
+                server.registerMBean(this, objectName);
+            }
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Can't register metrics " + name, e);
+        }
+    }
+
+    public void unregisterMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Can't unregister metrics " + name, e);
+        }
+    }
+
+    public static ObjectName objectName(String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=SolverMetrics,name=" + ObjectName.quote(name));
+    }
+
+    @Override
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    @Override
+    public HistogramSnapshot getTickLatency() {
+        return tick.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getParseLatency() {
+        return phases[Phase.PARSE.ordinal()].snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getSnakeTraceLatency() {
+        return phases[Phase.SNAKE_TRACE.ordinal()].snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getSearchLatency() {
+        return phases[Phase.SEARCH.ordinal()].snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getDirectionLatency() {
+        return phases[Phase.DIRECTION.ordinal()].snapshot();
+    }
+
+    @Override
+    public long getNodesExpanded() {
+        return nodesExpanded.sum();
+    }
+
+    @Override
+    public long getBacktracks() {
+        return backtracks.sum();
+    }
+
+    @Override
+    public long getForbiddenCells() {
+        return forbiddenCells.sum();
+    }
+
+    @Override
+    public long getSearchFailures() {
+        return searchFailures.sum();
+    }
+
+    @Override
+    public long getBudgetExhausted() {
+        return budgetExhausted.sum();
+    }
+
+    @Override
+    public long getFallbackMoves() {
+        return fallbackMoves.sum();
+    }
+
+    @Override
+    public long getTrapsAvoided() {
+        return trapsAvoided.sum();
+    }
+
+    @Override
+    public long getPlanHits() {
+        return planHits.sum();
+    }
+
+    @Override
+    public long getCycleMoves() {
+        return cycleMoves.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long hits = cacheHits.sum();
+        long lookups = hits + cacheMisses.sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public void reset() {
+        tick.reset();
+        for (LatencyHistogram phase : phases) {
+            phase.reset();
+        }
+        ticks.reset();
+        nodesExpanded.reset();
+        backtracks.reset();
+        forbiddenCells.reset();
+        searchFailures.reset();
+        budgetExhausted.reset();
+        fallbackMoves.reset();
+        trapsAvoided.reset();
+        planHits.reset();
+        cycleMoves.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+    }
+}
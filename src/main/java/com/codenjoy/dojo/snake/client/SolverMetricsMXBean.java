@@ -0,0 +1,46 @@
+package com.codenjoy.dojo.snake.client;
+
+/**
+ * JMX view of SolverMetrics (see SolverMetrics.registerMBean()).
+ * Latencies are in nanoseconds, counters are totals since the start (or the last reset).
+ */
+public interface SolverMetricsMXBean {
+
+    long getTicks();
+
+    HistogramSnapshot getTickLatency();
+
+    HistogramSnapshot getParseLatency();
+
+    HistogramSnapshot getSnakeTraceLatency();
+
+    HistogramSnapshot getSearchLatency();
+
+    HistogramSnapshot getDirectionLatency();
+
+    long getNodesExpanded();
+
+    long getBacktracks();
+
+    long getForbiddenCells();
+
+    long getSearchFailures();
+
+    long getBudgetExhausted();
+
+    long getFallbackMoves();
+
+    long getTrapsAvoided();
+
+    long getPlanHits();
+
+    long getCycleMoves();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    double getCacheHitRate();
+
+    void reset();
+}
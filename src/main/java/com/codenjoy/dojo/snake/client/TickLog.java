@@ -0,0 +1,254 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.snake.model.Elements;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reader of the log, that is written by TickRecorder. The file is memory-mapped and indexed once
+ * (the offset of every record), then any number of cursors can read it at the same time, e.g. one per thread.
+ * A cursor decodes records one by one: it keeps the board of the current record and applies deltas to it,
+ * so it always starts at a keyframe (see cursor(int)).
+ * A record, that was cut off (the recorder was killed while writing it), is ignored with everything after it
+ * (a TickRecorder, that reopens the file, cuts such a record off before it appends new ones).
+ */
+public class TickLog implements Closeable {
+    private static final int HEADER = TickRecorder.HEADER;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int[] offsets;    // offset of every record (its length field)
+    private final int[] keyframes;  // indexes of records, that are keyframes
+
+    private TickLog(FileChannel channel, MappedByteBuffer buffer, int[] offsets, int[] keyframes) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.offsets = offsets;
+        this.keyframes = keyframes;
+    }
+
+    public static TickLog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("The log is too big to be mapped at once, use a log per day / session: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (length < HEADER || buffer.getInt(0) != TickRecorder.MAGIC) {
+                throw new IOException("Not a tick log: " + file);
+            }
+            if (buffer.getInt(4) != TickRecorder.VERSION) {
+                throw new IOException("Unknown version " + buffer.getInt(4) + " of the tick log: " + file);
+            }
+
+            int[] offsets = new int[1024];
+            int[] keyframes = new int[64];
+            int records = 0;
+            int keyframeCount = 0;
+            int position = HEADER;
+            while (position + 4 <= length) {
+                int recordLength = buffer.getInt(position);
+                if (recordLength <= 0 || position + 4L + recordLength > length) {
+                    break;
+                }
+                if (records == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, records * 2);
+                }
+                if (buffer.get(position + 4) == TickRecorder.KEYFRAME) {
+                    if (keyframeCount == keyframes.length) {
+                        keyframes = Arrays.copyOf(keyframes, keyframeCount * 2);
+                    }
+                    keyframes[keyframeCount++] = records;
+                }
+                offsets[records++] = position;
+                position += 4 + recordLength;
+            }
+            return new TickLog(channel, buffer, Arrays.copyOf(offsets, records), Arrays.copyOf(keyframes, keyframeCount));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return int -> number of records.
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    public int getKeyframeCount() {
+        return keyframes.length;
+    }
+
+    /**
+     * @return int -> index of the record, that is the i-th keyframe.
+     */
+    public int keyframeAt(int i) {
+        return keyframes[i];
+    }
+
+    /**
+     * @param from -> index of the first record, that next() returns. The cursor starts decoding at the keyframe
+     *             before it, so it is the cheapest to start at a keyframe.
+     */
+    public Cursor cursor(int from) {
+        int keyframe = Arrays.binarySearch(keyframes, from);
+        if (keyframe < 0) {
+            keyframe = -keyframe - 2;
+        }
+        Cursor cursor = new Cursor(keyframe < 0 ? size() : keyframes[keyframe]);
+        while (cursor.next < from && cursor.next()) {
+            // deltas up to the requested record are applied
+        }
+        return cursor;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads records one by one, it isn't thread-safe (but there may be a cursor per thread).
+     */
+    public class Cursor {
+        private final ByteBuffer data = buffer.duplicate();
+        private final long[] phases = new long[SolverMetrics.Phase.values().length];
+        private int next;
+        private int index = -1;
+        private byte[] ordinals = new byte[0];
+        private int size;
+        private long timestamp;
+        private long tickNanos;
+        private String command;
+
+        private Cursor(int next) {
+            this.next = next;
+        }
+
+        /**
+         * Moves to the next record.
+         *
+         * @return boolean -> false if there are no records any more.
+         */
+        public boolean next() {
+            if (next >= offsets.length) {
+                return false;
+            }
+            data.position(offsets[next] + 4);
+            byte type = data.get();
+            timestamp = data.getLong();
+            size = data.getShort();
+            tickNanos = getVarLong(data);
+            int phaseCount = data.get();
+            Arrays.fill(phases, 0);
+            for (int i = 0; i < phaseCount; i++) {
+                long nanos = getVarLong(data);
+                if (i < phases.length) {
+                    phases[i] = nanos;
+                }
+            }
+            byte[] commandBytes = new byte[data.get() & 0xFF];
+            data.get(commandBytes);
+            command = new String(commandBytes, StandardCharsets.US_ASCII);
+
+            int cells = size * size;
+            if (type == TickRecorder.KEYFRAME) {
+                if (ordinals.length != cells) {
+                    ordinals = new byte[cells];
+                }
+                unpack(data, ordinals, cells);
+            } else {
+                int changes = (int) getVarLong(data);
+                int cell = -1;
+                for (int i = 0; i < changes; i++) {
+                    cell += (int) getVarLong(data);
+                    ordinals[cell] = data.get();
+                }
+            }
+            index = next++;
+            return true;
+        }
+
+        /**
+         * @return String -> the board of the current record, as the server sends it (rows from the top to the bottom).
+         */
+        public String getBoard() {
+            char[] chars = new char[size * size];
+            int i = 0;
+            for (int y = size - 1; y >= 0; y--) {
+                for (int x = 0; x < size; x++) {
+                    chars[i++] = Elements.byOrdinal(ordinals[y * size + x]).ch();
+                }
+            }
+            return new String(chars);
+        }
+
+        /**
+         * @return Elements -> the element at the cell of the current record (cell id = y * size + x).
+         */
+        public Elements getAt(int cell) {
+            return Elements.byOrdinal(ordinals[cell]);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getTickNanos() {
+            return tickNanos;
+        }
+
+        public long getPhaseNanos(SolverMetrics.Phase phase) {
+            return phases[phase.ordinal()];
+        }
+
+        public String getCommand() {
+            return command;
+        }
+    }
+
+    static void unpack(ByteBuffer in, byte[] ordinals, int cells) {
+        long bits = 0;
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            while (count < TickRecorder.BITS_PER_CELL) {
+                bits |= (long) (in.get() & 0xFF) << count;
+                count += 8;
+            }
+            ordinals[cell] = (byte) (bits & 0x1F);
+            bits >>>= TickRecorder.BITS_PER_CELL;
+            count -= TickRecorder.BITS_PER_CELL;
+        }
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,369 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.snake.model.Elements;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only binary log of the ticks, that a solver has played: the board, the command and the latencies
+ * (see SolverMetrics.Phase). It is read back by TickLog and replayed by TickReplay.
+ * <p>
+ * File: int MAGIC, int VERSION, then records. Every record starts with its length (int), so the reader can skip it:
+ * <pre>
+ * byte type (KEYFRAME / DELTA), long timestamp (millis), short size of the game-board,
+ * varint tick nanos, byte phases count, varint nanos of every phase,
+ * byte command length, command (ASCII),
+ * KEYFRAME: all cells (cell id = y * size + x) as Elements ordinals, 5 bits per cell;
+ * DELTA:    varint count of changed cells, then for every changed cell: varint gap from the previous changed cell
+ *           (+1) and byte Elements ordinal.
+ * </pre>
+ * Between two ticks only a few cells change (head, neck, tail, apple), so a delta is a few bytes.
+ * A keyframe is written every keyframeInterval records, when the size changes and when a delta isn't smaller,
+ * so a reader can start at any keyframe. Every new file (or reopened one) starts with a keyframe.
+ * A reopened file is cut after its last complete record first: if the recorder was killed while writing,
+ * new records must not be appended after the broken one.
+ * <p>
+ * A recorder belongs to one solver (one thread), that only hands the decoded board (BoardIndex is immutable)
+ * over to the writer thread of the recorder: the records are encoded and written there, not on the way
+ * of the answer to the server. If writing fails, the recorder stops and keeps the error (see getFailure()):
+ * the game must not die because of the log.
+ */
+public class TickRecorder implements Closeable {
+    static final int MAGIC = 0x534E4B4C;  // "SNKL"
+    static final int VERSION = 1;
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+    static final int BITS_PER_CELL = 5;
+    static final int HEADER = 8;
+
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // a real game makes a tick a second, so records reach the file at once, simulated games are buffered
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    private static final int PHASES = SolverMetrics.Phase.values().length;
+
+    static {
+        if (Elements.values().length > (1 << BITS_PER_CELL)) {
+            throw new IllegalStateException("Elements don't fit into " + BITS_PER_CELL + " bits");
+        }
+    }
+
+    private final FileChannel channel;
+    private final int keyframeInterval;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "snake-tick-recorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // everything below is used only by the writer thread (and by the constructor before it starts)
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private byte[] previous = new byte[0];  // Elements ordinals of the previous tick
+    private byte[] current = new byte[0];
+    private int previousSize = -1;
+    private int sinceKeyframe = 0;
+    private int[] changed = new int[0];
+
+    private volatile long records = 0;
+    private volatile long keyframes = 0;
+    private volatile long bytes = 0;
+    private long lastFlush = System.currentTimeMillis();
+    private volatile IOException failure;
+
+    public TickRecorder(Path file) throws IOException {
+        this(file, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * @param file             -> the log, records are appended, if it already exists;
+     * @param keyframeInterval -> maximal number of records between two keyframes.
+     * @throws IOException -> also if the file exists, but is not a log of ticks.
+     */
+    public TickRecorder(Path file, int keyframeInterval) throws IOException {
+        this.keyframeInterval = keyframeInterval;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long end = completeLength(channel);
+            if (end < channel.size()) {
+                channel.truncate(end);
+            }
+            channel.position(end);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (channel.size() == 0) {
+            buffer.putInt(MAGIC).putInt(VERSION);
+        }
+    }
+
+    /**
+     * @return long -> length of the header and the records, that were written completely
+     * (0 if even the header was cut off).
+     */
+    private static long completeLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER) {
+            return 0;
+        }
+        ByteBuffer word = ByteBuffer.allocate(4);
+        if (readInt(channel, word, 0) != MAGIC) {
+            throw new IOException("Not a log of ticks");
+        }
+        long position = HEADER;
+        while (position + 4 <= size) {
+            int length = readInt(channel, word, position);
+            if (length <= 0 || position + 4 + length > size) {
+                break;
+            }
+            position += 4 + length;
+        }
+        return position;
+    }
+
+    private static int readInt(FileChannel channel, ByteBuffer word, long position) throws IOException {
+        word.clear();
+        while (word.hasRemaining()) {
+            if (channel.read(word, position + word.position()) < 0) {
+                throw new IOException("Unexpected end of the log");
+            }
+        }
+        return word.getInt(0);
+    }
+
+    /**
+     * Records the tick, that the solver has just played: the tick is queued, it is written by the writer thread.
+     *
+     * @param board   -> the board of the tick;
+     * @param command -> the answer of the solver;
+     * @param metrics -> metrics of the solver, the latencies of the last tick are taken from there.
+     */
+    public void record(Board board, String command, SolverMetrics metrics) {
+        long[] phases = new long[PHASES];
+        for (SolverMetrics.Phase phase : SolverMetrics.Phase.values()) {
+            phases[phase.ordinal()] = metrics.lastPhaseNanos(phase);
+        }
+        record(board.index(), command, metrics.lastTickNanos(), phases);
+    }
+
+    /**
+     * @param index      -> the decoded board of the tick;
+     * @param command    -> the answer of the solver;
+     * @param tickNanos  -> latency of the tick;
+     * @param phaseNanos -> latency of every SolverMetrics.Phase (the array is copied).
+     */
+    public void record(BoardIndex index, String command, long tickNanos, long[] phaseNanos) {
+        if (failure != null || writer.isShutdown()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long[] phases = phaseNanos.clone();
+        writer.execute(() -> write(index, command, now, tickNanos, phases));
+    }
+
+    private void write(BoardIndex index, String command, long now, long tickNanos, long[] phaseNanos) {
+        if (failure != null) {
+            return;
+        }
+        int size = index.size();
+        int cells = size * size;
+        if (current.length != cells) {
+            current = new byte[cells];
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            current[cell] = (byte) index.ordinal(cell);
+        }
+
+        int changes = size == previousSize ? countChanges(cells) : -1;
+        int packedSize = packedSize(cells);
+        // a changed cell costs 2 bytes at least (gap and ordinal)
+        boolean keyframe = changes == -1 || sinceKeyframe >= keyframeInterval || changes * 2 >= packedSize;
+
+        byte[] commandBytes = command == null ? new byte[0] : command.getBytes(StandardCharsets.US_ASCII);
+        int commandLength = Math.min(commandBytes.length, 255);
+        int maxLength = 1 + 8 + 2 + 10 + 1 + PHASES * 10 + 1 + commandLength
+                + (keyframe ? packedSize : 5 + changes * 6);
+        ensureCapacity(4 + maxLength);
+
+        int start = buffer.position();
+        buffer.putInt(0); // the length is known at the end
+        buffer.put(keyframe ? KEYFRAME : DELTA);
+        buffer.putLong(now);
+        buffer.putShort((short) size);
+        putVarLong(buffer, tickNanos);
+        buffer.put((byte) PHASES);
+        for (int i = 0; i < PHASES; i++) {
+            putVarLong(buffer, i < phaseNanos.length ? phaseNanos[i] : 0);
+        }
+        buffer.put((byte) commandLength);
+        buffer.put(commandBytes, 0, commandLength);
+        if (keyframe) {
+            pack(buffer, current, cells);
+            sinceKeyframe = 0;
+            keyframes++;
+        } else {
+            putVarLong(buffer, changes);
+            int last = -1;
+            for (int i = 0; i < changes; i++) {
+                int cell = changed[i];
+                putVarLong(buffer, cell - last);
+                buffer.put(current[cell]);
+                last = cell;
+            }
+            sinceKeyframe++;
+        }
+        int length = buffer.position() - start - 4;
+        buffer.putInt(start, length);
+        bytes += length + 4;
+        records++;
+
+        byte[] swap = previous;
+        previous = current;
+        current = swap;
+        previousSize = size;
+
+        if (buffer.remaining() < buffer.capacity() / 4 || now - lastFlush >= FLUSH_INTERVAL_MILLIS) {
+            writeBuffer();
+        }
+    }
+
+    private int countChanges(int cells) {
+        if (changed.length < cells) {
+            changed = new int[cells];
+        }
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (current[cell] != previous[cell]) {
+                changed[count++] = cell;
+            }
+        }
+        return count;
+    }
+
+    static int packedSize(int cells) {
+        return (cells * BITS_PER_CELL + 7) / 8;
+    }
+
+    static void pack(ByteBuffer out, byte[] ordinals, int cells) {
+        long bits = 0;
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            bits |= (long) (ordinals[cell] & 0x1F) << count;
+            count += BITS_PER_CELL;
+            while (count >= 8) {
+                out.put((byte) bits);
+                bits >>>= 8;
+                count -= 8;
+            }
+        }
+        if (count > 0) {
+            out.put((byte) bits);
+        }
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private void ensureCapacity(int length) {
+        if (buffer.remaining() >= length) {
+            return;
+        }
+        writeBuffer();
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(length);
+        }
+    }
+
+    /**
+     * Writes the queued and buffered records into the file and waits for it.
+     */
+    public void flush() {
+        if (writer.isShutdown()) {
+            return;  // close() writes everything itself
+        }
+        try {
+            writer.submit(this::writeBuffer).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void writeBuffer() {
+        if (failure != null) {
+            return;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        buffer.clear();
+        lastFlush = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes all the queued records and closes the file, following records are ignored.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            channel.close();
+            throw new InterruptedIOException("Records are not written");
+        }
+        writeBuffer();
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getKeyframes() {
+        return keyframes;
+    }
+
+    /**
+     * @return long -> size of all encoded records, including the ones, that are still in the buffer
+     * (but not the ones, that are still queued).
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return IOException -> the error, that has stopped the recorder, or null.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+}
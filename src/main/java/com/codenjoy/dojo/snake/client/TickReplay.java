@@ -0,0 +1,111 @@
+package com.codenjoy.dojo.snake.client;
+
+import com.codenjoy.dojo.services.RandomDice;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Feeds the records of a TickLog back through Board and YourSolver.get(), e.g. to reproduce a death
+ * or to use the games of a day as a benchmark and a regression corpus: a record, where the solver answers
+ * another command than the recorded one, is counted as a mismatch.
+ * <p>
+ * run() replays all records in order with one solver, so the solver has the same state as during the game.
+ * runParallel() splits the log into batches, that start at keyframes, and replays every batch with its own solver.
+ * It is much faster, but at the beginning of a batch the solver doesn't know the previous ticks
+ * (e.g. its PathPlan is empty), so a few more mismatches are expected there.
+ */
+public final class TickReplay {
+
+    private TickReplay() {
+    }
+
+    public static ReplayReport run(TickLog log, Supplier<YourSolver> solvers) {
+        return replay(log, 0, log.size(), solvers.get());
+    }
+
+    /**
+     * @param parallelism -> number of threads;
+     * @param batchSize   -> minimal number of records in a batch (a batch always ends at a keyframe).
+     */
+    public static ReplayReport runParallel(TickLog log, Supplier<YourSolver> solvers, int parallelism, int batchSize) {
+        long start = System.nanoTime();
+        List<Callable<ReplayReport>> batches = new ArrayList<>();
+        int from = 0;
+        for (int i = 0; i < log.getKeyframeCount(); i++) {
+            int keyframe = log.keyframeAt(i);
+            if (keyframe - from >= batchSize) {
+                batches.add(batch(log, from, keyframe, solvers));
+                from = keyframe;
+            }
+        }
+        if (from < log.size()) {
+            batches.add(batch(log, from, log.size(), solvers));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ReplayReport result = new ReplayReport(0, 0, 0, 0, 0);
+            for (Future<ReplayReport> future : pool.invokeAll(batches)) {
+                result = result.merge(future.get());
+            }
+            return result.withWallNanos(System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Callable<ReplayReport> batch(TickLog log, int from, int to, Supplier<YourSolver> solvers) {
+        return () -> replay(log, from, to, solvers.get());
+    }
+
+    private static ReplayReport replay(TickLog log, int from, int to, YourSolver solver) {
+        long start = System.nanoTime();
+        long ticks = 0;
+        long mismatches = 0;
+        long decisionNanos = 0;
+        long recordedNanos = 0;
+        TickLog.Cursor cursor = log.cursor(from);
+        for (int i = from; i < to && cursor.next(); i++) {
+            String state = cursor.getBoard();
+            long started = System.nanoTime();
+            Board board = new Board();
+            board.forString(state);
+            String command = solver.get(board);
+            decisionNanos += System.nanoTime() - started;
+            recordedNanos += cursor.getTickNanos();
+            if (!command.equals(cursor.getCommand())) {
+                mismatches++;
+            }
+            ticks++;
+        }
+        return new ReplayReport(ticks, mismatches, decisionNanos, recordedNanos, System.nanoTime() - start);
+    }
+
+    /**
+     * Usage: TickReplay file [threads]
+     */
+    public static void main(String[] args) throws Exception {
+        Path file = Paths.get(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        try (TickLog log = TickLog.open(file)) {
+            Supplier<YourSolver> solvers = () -> new YourSolver(new RandomDice());
+            ReplayReport report = threads == 1
+                    ? run(log, solvers)
+                    : runParallel(log, solvers, threads, TickRecorder.DEFAULT_KEYFRAME_INTERVAL);
+            System.out.println(report);
+        }
+    }
+}
@@ -29,7 +29,10 @@ import com.codenjoy.dojo.services.Dice;
 import com.codenjoy.dojo.services.Direction;
 import com.codenjoy.dojo.services.RandomDice;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import com.codenjoy.dojo.services.Point;
 
@@ -40,36 +43,458 @@ import com.codenjoy.dojo.services.Point;
  */
 public class YourSolver implements Solver<Board> {
 
+    // the server waits for the answer about a second, the rest of the time is left for the network
+    public static final SearchBudget DEFAULT_BUDGET = SearchBudget.ofTime(300, TimeUnit.MILLISECONDS);
+
+    // from this length the snake follows the Hamiltonian cycle instead of searching for a path to the apple
+    public static final int DEFAULT_CYCLE_THRESHOLD = 40;
+
+    // from this size of the game-board the path is searched over clusters first, see HierarchicalPathfinder
+    public static final int DEFAULT_HIERARCHICAL_SIZE = 100;
+
+    // one apple is just the nearest one, more apples are ordered by a tour (see MultiTargetSearch)
+    public static final int DEFAULT_TOUR_LENGTH = 1;
+
+    // enough for millions of positions, see DecisionCache
+    public static final long DEFAULT_CACHE_BYTES = 16L << 20;
+
+    // all the state is per solver (so per session): the board of the tick is passed from method to method,
+    // only immutable tables (CellRegistry, HamiltonianCycle, Elements) are shared by solvers in one JVM
     private Dice dice;
-    private Board board;
+    private AStarAlgo aStarAlgo;  // created once and reused from tick to tick
+    private final BoardTracker tracker = new BoardTracker();
+    private final PathPlan plan = new PathPlan();  // the path is followed for several ticks, while it is valid
+    private boolean planExhausted;  // the plan (or the fallback) comes from a search, that ran out of its budget
+    private int planBeyond;         // steps from the end of the plan to the apple (HierarchicalPathfinder plans a leg)
+    private final SolverMetrics metrics;
+    private SearchBudget budget = DEFAULT_BUDGET;
+    private long deadline;  // of the current tick, every search of the tick stops by it
+    private final HamiltonianStrategy hamiltonian = new HamiltonianStrategy();
+    private int cycleThreshold = DEFAULT_CYCLE_THRESHOLD;
+    private TickRecorder recorder;  // null, if ticks are not recorded
+    private DecisionCache cache;    // null, if decisions are not cached
+    private ExpectimaxLookahead lookahead = new ExpectimaxLookahead();
+    private MonteCarloSearch monteCarlo;  // null, if the path search is used in the middle of the game
+    private int monteCarloThreshold = Integer.MAX_VALUE;
+    private HierarchicalPathfinder hierarchical;  // created for the first big game-board
+    private int hierarchicalSize = DEFAULT_HIERARCHICAL_SIZE;
+    private int tourLength = DEFAULT_TOUR_LENGTH;
+    private Point target;  // the apple, that the snake goes to, if there are several of them
+    // cell ids of all the apples and stones of the tick
+    private int[] appleCells = new int[1];
+    private int[] stoneCells = new int[1];
+    private int stoneCount;
 
     public YourSolver(Dice dice) {
+        this(dice, new SolverMetrics());
+    }
+
+    /**
+     * @param metrics -> latencies and search effort of every tick are recorded here.
+     */
+    public YourSolver(Dice dice, SolverMetrics metrics) {
         this.dice = dice;
+        this.metrics = metrics;
+    }
+
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * @param budget -> limit of every tick (DEFAULT_BUDGET by default): its time is counted from the start
+     *               of get() and shared by all the searches of the tick, its nodes limit every path search.
+     */
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+        if (aStarAlgo != null) {
+            aStarAlgo.setBudget(budget);
+        }
+    }
+
+    public int getCycleThreshold() {
+        return cycleThreshold;
+    }
+
+    /**
+     * @param length -> the length of the snake, from which HamiltonianStrategy is used
+     *               (Integer.MAX_VALUE switches it off).
+     */
+    public void setCycleThreshold(int length) {
+        this.cycleThreshold = length;
+    }
+
+    public TickRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * @param recorder -> every tick (board, answer and latencies) is written there, null switches recording off.
+     */
+    public void setRecorder(TickRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public DecisionCache getDecisionCache() {
+        return cache;
+    }
+
+    /**
+     * @param cache -> decisions of the search are remembered there by the hash of the position, so a position,
+     *              that was solved before, is not searched again. The cache may be shared by solvers
+     *              with the same settings (budget, cycle threshold). Null switches caching off.
+     */
+    public void setDecisionCache(DecisionCache cache) {
+        this.cache = cache;
+    }
+
+    public ExpectimaxLookahead getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * @param lookahead -> checks the steps into the apple (a new ExpectimaxLookahead by default),
+     *                  null switches it off.
+     */
+    public void setLookahead(ExpectimaxLookahead lookahead) {
+        this.lookahead = lookahead;
+    }
+
+    public MonteCarloSearch getMonteCarlo() {
+        return monteCarlo;
+    }
+
+    /**
+     * @param search -> chooses the steps of a snake, that is long enough, but shorter than the cycle threshold,
+     *               instead of the path search; null switches it off (the default);
+     * @param length -> the length of the snake, from which the search is used.
+     */
+    public void setMonteCarlo(MonteCarloSearch search, int length) {
+        this.monteCarlo = search;
+        this.monteCarloThreshold = length;
+    }
+
+    public int getHierarchicalSize() {
+        return hierarchicalSize;
+    }
+
+    /**
+     * @param size -> the size of the game-board, from which HierarchicalPathfinder is used instead of
+     *             the path search of AStarAlgo (Integer.MAX_VALUE switches it off).
+     */
+    public void setHierarchicalSize(int size) {
+        this.hierarchicalSize = size;
+    }
+
+    public HierarchicalPathfinder getHierarchical() {
+        return hierarchical;
+    }
+
+    public int getTourLength() {
+        return tourLength;
+    }
+
+    /**
+     * @param length -> number of apples, that are ordered by a tour, when there are several apples
+     *               on the game-board (the snake goes to the first one of the tour); 1 - the nearest apple.
+     */
+    public void setTourLength(int length) {
+        this.tourLength = length;
     }
 
     @Override
     public String get(Board board) {
-        this.board = board;
+        long start = System.nanoTime();
+        deadline = budget.deadline(start);
+        String result = solve(board, start);
+        metrics.recordTick(System.nanoTime() - start);
+        if (recorder != null) {
+            // it is still on the way of the answer, so the recorder only queues the decoded board,
+            // its own thread encodes and writes it
+            recorder.record(board, result, metrics);
+        }
+        return result;
+    }
+
+    private String solve(Board board, long start) {
+        board.index(); // the board string is decoded once and then shared by the tracker and the solver
+        long parsed = System.nanoTime();
+        metrics.recordPhase(SolverMetrics.Phase.PARSE, parsed - start);
+
+        tracker.update(board); // only cells around the head and the tail are examined, if it is possible
+        long tracked = System.nanoTime();
+        metrics.recordPhase(SolverMetrics.Phase.SNAKE_TRACE, tracked - parsed);
 
-        Point head = board.getHead(); // starting point for movement
-        Point apple = board.getApples().get(0);// finish point for movement
-        Point stone = board.getStones().get(0); // stone - obstacle
+        Point head = tracker.getHead(); // starting point for movement
+        if (head == null) {
+            // the snake is dead, there is nothing to move until the server puts a new one on the board
+            return Direction.STOP.toString();
+        }
 
-        SinglyLinkedList<Point> snakeLL = board.getSnakeAsLinkedList();
+        if (aStarAlgo == null) {
+            aStarAlgo = new AStarAlgo(board.size(), board.size());
+            aStarAlgo.setBudget(budget);
+        } else {
+            aStarAlgo.resize(board.size(), board.size());
+        }
+        aStarAlgo.setDeadline(deadline);
+        IntDeque snake = tracker.getSnake();
+        CellRegistry cells = aStarAlgo.getCells();
+        loadStones(cells);
+        // every stone is an obstacle, the first one is also the stone, that HamiltonianStrategy may eat,
+        // and a part of the key of the PathPlan (other stones on its way are found by PathPlan.isClear())
+        Point stone = stoneCount == 0 ? null : cells.point(stoneCells[0]);
+        Point apple = chooseApple(head, snake, cells); // finish point for movement, null if there is no apple
+        int appleCell = apple == null ? -1 : cells.id(apple);
 
-        AStarAlgo aStarAlgo = new AStarAlgo(15, 15);
-        Optional<Point> nextStep = aStarAlgo.trace(
-                head,
-                apple,
-                snakeLL,
-                stone
-        );
+        Optional<Point> nextStep = Optional.empty();
+        int cycleMove = -1;
+        if (snake.size() >= cycleThreshold) {
+            // a long snake follows the Hamiltonian cycle, the path search is used only if the cycle is blocked
+            aStarAlgo.prepare(head, snake, stoneCells, stoneCount);
+            cycleMove = hamiltonian.next(aStarAlgo, snake, appleCell, stone == null ? -1 : cells.id(stone));
+        }
+        int monteCarloMove = -1;
+        if (cycleMove == -1 && monteCarlo != null && snake.size() >= monteCarloThreshold) {
+            // the playouts sample new apples, so the result is neither planned nor cached
+            monteCarloMove = monteCarlo.choose(SnakeState.of(board.size(), snake, appleCell,
+                    stoneCells, stoneCount), tracker.getHash(), deadline);
+        }
+        if (cycleMove != -1) {
+            nextStep = Optional.of(cells.point(cycleMove));
+            plan.invalidate();
+            metrics.recordCycleMove();
+        } else if (monteCarloMove != -1) {
+            nextStep = Optional.of(cells.point(monteCarloMove));
+            plan.invalidate();
+        } else if (apple == null) {
+            // there is nothing to eat, the snake just keeps the most room around its head
+            aStarAlgo.prepare(head, snake, stoneCells, stoneCount);
+            plan.invalidate();
+            nextStep = avoidTrap(head, aStarAlgo.getFallback(), snake.size());
+        } else if (plan.advance(board.size(), cells.id(head), appleCell, stone == null ? -1 : cells.id(stone), snake.size())
+                && prepareAndCheckPlan(head, snake)) {
+            // the snake follows the path of the previous ticks, nothing has changed on its way
+            nextStep = checkStep(head, Optional.of(cells.point(plan.nextStep())), snake, apple);
+            metrics.recordPlanHit();
+            remember(head, nextStep, snake.size());
+        } else {
+            int decision = lookup(snake.size());
+            if (decision != DecisionCache.MISS) {
+                // the position was solved before, the path itself is not kept, so it is searched again next tick
+                plan.invalidate();
+                int step = ZobristKeys.step(board.size(), cells.id(head), DecisionCache.direction(decision));
+                nextStep = Optional.of(cells.point(step));
+            } else {
+                nextStep = checkStep(head, search(head, apple, snake, stone), snake, apple);
+                remember(head, nextStep, snake.size());
+            }
+        }
+        long searched = System.nanoTime();
+        metrics.recordPhase(SolverMetrics.Phase.SEARCH, searched - tracked);
 
-//        System.out.printf("nextStep: %s \n", nextStep.get());
-        String result = getDirection(head, nextStep.get());
+        String result;
+        if (nextStep.isEmpty()) {
+            // there is no safe cell around the head (even the fallback move), so we just keep moving in the same direction
+            result = board.getSnakeDirection().toString();
+        } else {
+//            System.out.printf("nextStep: %s \n", nextStep.get());
+            result = getDirection(head, nextStep.get());
+        }
+        metrics.recordPhase(SolverMetrics.Phase.DIRECTION, System.nanoTime() - searched);
         return result;
     }
 
+    private void loadStones(CellRegistry cells) {
+        List<Point> stones = tracker.getStones();
+        if (stoneCells.length < stones.size()) {
+            stoneCells = new int[Math.max(stones.size(), stoneCells.length * 2)];
+        }
+        stoneCount = stones.size();
+        for (int i = 0; i < stoneCount; i++) {
+            stoneCells[i] = cells.id(stones.get(i));
+        }
+    }
+
+    /**
+     * With several apples on the game-board a single breadth-first search from the head finds the nearest one,
+     * that can be reached (see MultiTargetSearch), instead of a path search to every apple.
+     * The apple is kept, while the snake follows the plan, that leads to it: other apples appear only
+     * when one is eaten, i.e. when the plan has ended anyway.
+     *
+     * @return Point -> the apple, that the snake goes to, or null if there are no apples.
+     */
+    private Point chooseApple(Point head, IntDeque snake, CellRegistry cells) {
+        List<Point> apples = tracker.getApples();
+        if (apples.size() <= 1) {
+            target = null;
+            return apples.isEmpty() ? null : apples.get(0);
+        }
+        if (target != null && apples.contains(target) && plan.leadsTo(cells.id(target))) {
+            return target;
+        }
+        if (appleCells.length < apples.size()) {
+            appleCells = new int[Math.max(apples.size(), appleCells.length * 2)];
+        }
+        int closest = -1;
+        int closestDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < apples.size(); i++) {
+            Point apple = apples.get(i);
+            appleCells[i] = cells.id(apple);
+            int distance = Math.abs(apple.getX() - head.getX()) + Math.abs(apple.getY() - head.getY());
+            if (distance < closestDistance) {
+                closest = appleCells[i];
+                closestDistance = distance;
+            }
+        }
+        aStarAlgo.prepare(head, snake, stoneCells, stoneCount);
+        int nearest = aStarAlgo.getTargets().search(cells.id(head), appleCells, apples.size(), tourLength,
+                deadline);
+        // no apple can be reached right now, the path search leads as close to the nearest one, as it can
+        target = cells.point(nearest == -1 ? closest : nearest);
+        return target;
+    }
+
+    private Optional<Point> checkStep(Point head, Optional<Point> nextStep, IntDeque snake, Point apple) {
+        Optional<Point> safeStep = lookAhead(avoidTrap(head, nextStep, snake.size()), snake, apple);
+        if (safeStep != nextStep) {
+            plan.invalidate();
+        }
+        return safeStep;
+    }
+
+    /**
+     * The path search doesn't see, what happens after the apple is eaten, so a step into the apple
+     * is checked by the lookahead, that samples where the next apple may appear.
+     */
+    private Optional<Point> lookAhead(Optional<Point> nextStep, IntDeque snake, Point apple) {
+        CellRegistry cells = aStarAlgo.getCells();
+        if (lookahead == null || nextStep.isEmpty() || !nextStep.get().equals(apple)) {
+            return nextStep;
+        }
+        int step = cells.id(nextStep.get());
+        SnakeState state = SnakeState.of(cells.getDimX(), snake, step, stoneCells, stoneCount);
+        int best = lookahead.choose(state, step, tracker.getHash(), deadline);
+        return best == step ? nextStep : Optional.of(cells.point(best));
+    }
+
+    /**
+     * Steps of the path search and of the plan are cached (a step of the plan is the step, that the search
+     * has chosen for this position a few ticks ago). Moves along the Hamiltonian cycle are not cached:
+     * they depend on the state of HamiltonianStrategy, not only on the position.
+     */
+    private int lookup(int snakeLength) {
+        if (cache == null || snakeLength >= cycleThreshold) {
+            return DecisionCache.MISS;
+        }
+        int decision = cache.get(tracker.getHash());
+        if (decision == DecisionCache.MISS) {
+            metrics.recordCacheMiss();
+        } else {
+            metrics.recordCacheHit();
+        }
+        return decision;
+    }
+
+    private void remember(Point head, Optional<Point> nextStep, int snakeLength) {
+        // a search, that has run out of time, may find a better step next time; the flag belongs to the search,
+        // that has made the plan, AStarAlgo keeps the flag of its last trace(), which may be ticks ago
+        if (cache == null || snakeLength >= cycleThreshold || nextStep.isEmpty() || planExhausted) {
+            return;
+        }
+        CellRegistry cells = aStarAlgo.getCells();
+        int direction = ZobristKeys.direction(cells.getDimX(), cells.id(head), cells.id(nextStep.get()));
+        cache.put(tracker.getHash(), direction, plan.isEmpty() ? 0 : plan.size() + planBeyond);
+    }
+
+    private boolean prepareAndCheckPlan(Point head, IntDeque snake) {
+        aStarAlgo.prepare(head, snake, stoneCells, stoneCount);
+        if (plan.isClear(aStarAlgo)) {
+            return true;
+        }
+        plan.invalidate();
+        return false;
+    }
+
+    private Optional<Point> search(Point head, Point apple, IntDeque snake, Point stone) {
+        if (aStarAlgo.getCells().getDimX() >= hierarchicalSize) {
+            Optional<Point> nextStep = searchHierarchical(head, apple, snake, stone);
+            if (nextStep.isPresent()) {
+                return nextStep;
+            }
+            // the body closes the apple for a while, only the exact search knows, when the tail opens the way
+        }
+        Optional<Point> nextStep = aStarAlgo.trace(head, apple, snake, stoneCells, stoneCount);
+        planExhausted = aStarAlgo.isBudgetExhausted();
+        planBeyond = 0;
+        metrics.recordSearch(aStarAlgo.getExpandedNodes(), aStarAlgo.getBacktracks(),
+                aStarAlgo.getForbiddenCells(), nextStep.isEmpty() || aStarAlgo.isFallbackUsed());
+        if (aStarAlgo.isBudgetExhausted()) {
+            metrics.recordBudgetExhausted();
+        }
+        if (aStarAlgo.isFallbackUsed()) {
+            metrics.recordFallback();
+            plan.invalidate();
+        } else {
+            CellRegistry cells = aStarAlgo.getCells();
+            plan.record(aStarAlgo.getPath(), cells.getDimX(), cells.id(apple),
+                    stone == null ? -1 : cells.id(stone), snake.size());
+        }
+        return nextStep;
+    }
+
+    /**
+     * On a big game-board the path is searched over clusters (see HierarchicalPathfinder), only the clusters,
+     * that the snake or the stone has entered or left, are rebuilt. The first leg of the path (up to the border
+     * of the cluster, or to the apple) is followed as a PathPlan, then the next leg is searched.
+     */
+    private Optional<Point> searchHierarchical(Point head, Point apple, IntDeque snake, Point stone) {
+        CellRegistry cells = aStarAlgo.getCells();
+        if (hierarchical == null || hierarchical.getSize() != cells.getDimX()) {
+            hierarchical = new HierarchicalPathfinder(cells.getDimX());
+        }
+        hierarchical.update(snake, stoneCells, stoneCount);
+        int step = hierarchical.next(cells.id(head), cells.id(apple), deadline);
+        if (step == -1) {
+            return Optional.empty();
+        }
+        metrics.recordSearch(hierarchical.getExpandedNodes(), 0, 0, false);
+        // obstacles of this tick for avoidTrap() and the fallback, without the search of AStarAlgo
+        aStarAlgo.prepare(head, snake, stoneCells, stoneCount);
+        plan.record(hierarchical.getLocalPath(), cells.getDimX(), cells.id(apple),
+                stone == null ? -1 : cells.id(stone), snake.size());
+        planExhausted = false;
+        planBeyond = hierarchical.getPathLength() - plan.size();
+        return Optional.of(cells.point(step));
+    }
+
+    /**
+     * A step, that doesn't collide with anything, still may lead into a pocket, that is smaller than the snake.
+     * Such a step is replaced with the neighbour of the head, that leads into the biggest region
+     * (or lets the snake follow its tail).
+     */
+    private Optional<Point> avoidTrap(Point head, Optional<Point> nextStep, int snakeLength) {
+        if (nextStep.isEmpty()) {
+            return nextStep;
+        }
+        CellRegistry cells = aStarAlgo.getCells();
+        ReachableArea area = aStarAlgo.getReachableArea();
+        int step = cells.id(nextStep.get());
+        if (area.isSafe(step, snakeLength)) {
+            return nextStep;
+        }
+        int better = area.bestMove(cells.id(head), snakeLength);
+        if (better == -1 || better == step) {
+            return nextStep;
+        }
+        metrics.recordTrapAvoided();
+        return Optional.of(cells.point(better));
+    }
+
     private String getDirection(Point head, Point next) {
         if (head.getX() == next.getX() && head.getY() < next.getY()) return Direction.UP.toString();
         if (head.getX() == next.getX() && head.getY() > next.getY()) return Direction.DOWN.toString();
@@ -78,11 +503,22 @@ public class YourSolver implements Solver<Board> {
     }
 
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        YourSolver solver = new YourSolver(new RandomDice());
+        solver.setDecisionCache(new DecisionCache(DEFAULT_CACHE_BYTES));
+        // see com.codenjoy.dojo.snake:type=SolverMetrics in jconsole / VisualVM
+        solver.getMetrics().registerMBean("player");
+        // -Dsnake.record=games.log writes every tick into the log, see TickReplay
+        String log = System.getProperty("snake.record");
+        if (log != null) {
+            TickRecorder recorder = new TickRecorder(Paths.get(log));
+            solver.setRecorder(recorder);
+            Runtime.getRuntime().addShutdownHook(new Thread(recorder::flush));
+        }
         WebSocketRunner.runClient(
                 // paste here board page url from browser after registration
                 "http://46.101.224.244/codenjoy-contest/board/player/9edms0fr5h6k57i21xh0?code=8627537874525682193",
-                new YourSolver(new RandomDice()),
+                solver,
                 new Board());
     }
 
@@ -0,0 +1,139 @@
+package com.codenjoy.dojo.snake.client;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random 64-bit keys for Zobrist hashing of a game position: the head, the ordered body, apples and stones.
+ * The hash of a position is the XOR of the keys of its features:
+ * - the head: head(cell);
+ * - every other cell of the body: link(cell, direction), where direction points to the neighbour,
+ *   that is closer to the head. Together with the head these links give the order of the body,
+ *   so two snakes on the same cells, but in a different order, have different hashes;
+ * - every apple: apple(cell), every stone: stone(cell).
+ * When the snake moves, only the head, the old head (it becomes a link) and the tail change,
+ * so the hash is updated in O(1) (see BoardTracker).
+ * Keys depend only on the size and a fixed seed, so hashes are the same in every JVM and can be stored in logs.
+ * Tables are immutable and are cached per size of the game-board.
+ */
+public final class ZobristKeys {
+    private static final ConcurrentHashMap<Integer, ZobristKeys> KEYS = new ConcurrentHashMap<>();
+    private static final long SEED = 0x5EED5A4EL;
+
+    // the same values as Direction.value()
+    static final int LEFT = 0;
+    static final int RIGHT = 1;
+    static final int UP = 2;
+    static final int DOWN = 3;
+
+    private final int size;
+    private final long[] heads;
+    private final long[] links;   // [cell * 4 + direction]
+    private final long[] apples;
+    private final long[] stones;
+
+    private ZobristKeys(int size) {
+        this.size = size;
+        int cells = size * size;
+        SplittableRandom random = new SplittableRandom(SEED ^ size);
+        heads = fill(random, cells);
+        links = fill(random, cells * 4);
+        apples = fill(random, cells);
+        stones = fill(random, cells);
+    }
+
+    private static long[] fill(SplittableRandom random, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    public static ZobristKeys of(int size) {
+        ZobristKeys keys = KEYS.get(size);
+        if (keys == null) {
+            keys = KEYS.computeIfAbsent(size, ZobristKeys::new);
+        }
+        return keys;
+    }
+
+    public long head(int cell) {
+        return heads[cell];
+    }
+
+    /**
+     * @param cell      -> a cell of the body (not the head);
+     * @param direction -> direction from the cell to the next cell towards the head (see Direction.value()).
+     */
+    public long link(int cell, int direction) {
+        return links[cell * 4 + direction];
+    }
+
+    public long apple(int cell) {
+        return apples[cell];
+    }
+
+    public long stone(int cell) {
+        return stones[cell];
+    }
+
+    public int direction(int from, int to) {
+        return direction(size, from, to);
+    }
+
+    /**
+     * @return int -> direction (Direction.value()) from one cell to its neighbour.
+     */
+    public static int direction(int size, int from, int to) {
+        int delta = to - from;
+        if (delta == 1) return RIGHT;
+        if (delta == -1) return LEFT;
+        return delta == size ? UP : DOWN;
+    }
+
+    /**
+     * @return int -> the neighbour of the cell in the direction (Direction.value()).
+     */
+    public static int step(int size, int cell, int direction) {
+        switch (direction) {
+            case LEFT: return cell - 1;
+            case RIGHT: return cell + 1;
+            case UP: return cell + size;
+            default: return cell - size;
+        }
+    }
+
+    /**
+     * @return long -> the hash of the snake alone, calculated from scratch in O(snake.size()).
+     */
+    public long snake(IntDeque snake) {
+        if (snake.isEmpty()) {
+            return 0;
+        }
+        long hash = head(snake.get(0));
+        for (int i = 1; i < snake.size(); i++) {
+            int cell = snake.get(i);
+            hash ^= link(cell, direction(cell, snake.get(i - 1)));
+        }
+        return hash;
+    }
+
+    /**
+     * @return long -> the hash of the whole position, calculated from scratch.
+     */
+    public long hash(IntDeque snake, int[] appleCells, int[] stoneCells) {
+        long hash = snake(snake);
+        for (int cell : appleCells) {
+            hash ^= apple(cell);
+        }
+        for (int cell : stoneCells) {
+            hash ^= stone(cell);
+        }
+        return hash;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,101 @@
+package com.codenjoy.dojo.snake.model;
+
+/**
+ * Renders the state of the game into the same string, that the server sends to the client
+ * (rows from the top to the bottom, chars of Elements), so that it can be parsed by Board.
+ * Cell id is calculated as y * size + x, where y grows from the bottom to the top (the same as in Board).
+ */
+public final class BoardRenderer {
+
+    // the same values as Direction.value()
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+    private static final int UP = 2;
+    private static final int DOWN = 3;
+
+    private BoardRenderer() {
+    }
+
+    /**
+     * @param size   -> size of the game-board (borders are walls);
+     * @param snake  -> cell ids of snake's body from head to tail (may be empty);
+     * @param apples -> cell ids of apples;
+     * @param stones -> cell ids of stones.
+     * @return String -> the board string without new lines.
+     */
+    public static String render(int size, int[] snake, int[] apples, int[] stones) {
+        return render(size, snake, snake.length, apples, stones);
+    }
+
+    /**
+     * The same as render(size, snake, apples, stones), but only first snakeLength cells of the array belong to the snake.
+     */
+    public static String render(int size, int[] snake, int snakeLength, int[] apples, int[] stones) {
+        char[] cells = new char[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean wall = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+                cells[y * size + x] = wall ? Elements.BREAK.ch() : Elements.NONE.ch();
+            }
+        }
+        for (int apple : apples) {
+            cells[apple] = Elements.GOOD_APPLE.ch();
+        }
+        for (int stone : stones) {
+            cells[stone] = Elements.BAD_APPLE.ch();
+        }
+        for (int i = 0; i < snakeLength; i++) {
+            cells[snake[i]] = snakeElement(size, snake, snakeLength, i).ch();
+        }
+
+        // the first row of the string is the top of the game-board
+        StringBuilder result = new StringBuilder(size * size);
+        for (int y = size - 1; y >= 0; y--) {
+            result.append(cells, y * size, size);
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return Elements -> the element for the piece of snake's body with given index (0 is the head).
+     */
+    public static Elements snakeElement(int size, int[] snake, int snakeLength, int index) {
+        if (index == 0) {
+            if (snakeLength == 1) {
+                return Elements.HEAD_UP;
+            }
+            switch (direction(size, snake[1], snake[0])) {
+                case LEFT: return Elements.HEAD_LEFT;
+                case RIGHT: return Elements.HEAD_RIGHT;
+                case DOWN: return Elements.HEAD_DOWN;
+                default: return Elements.HEAD_UP;
+            }
+        }
+        int toHead = direction(size, snake[index], snake[index - 1]);
+        if (index == snakeLength - 1) {
+            // the name of the tail says where the tail points to: away from the rest of the body
+            switch (toHead) {
+                case UP: return Elements.TAIL_END_DOWN;
+                case DOWN: return Elements.TAIL_END_UP;
+                case LEFT: return Elements.TAIL_END_RIGHT;
+                default: return Elements.TAIL_END_LEFT;
+            }
+        }
+        int toTail = direction(size, snake[index], snake[index + 1]);
+        int connections = (1 << toHead) | (1 << toTail);
+        if (connections == ((1 << LEFT) | (1 << RIGHT))) return Elements.TAIL_HORIZONTAL;
+        if (connections == ((1 << UP) | (1 << DOWN))) return Elements.TAIL_VERTICAL;
+        if (connections == ((1 << LEFT) | (1 << UP))) return Elements.TAIL_LEFT_UP;
+        if (connections == ((1 << LEFT) | (1 << DOWN))) return Elements.TAIL_LEFT_DOWN;
+        if (connections == ((1 << RIGHT) | (1 << DOWN))) return Elements.TAIL_RIGHT_DOWN;
+        return Elements.TAIL_RIGHT_UP;
+    }
+
+    private static int direction(int size, int from, int to) {
+        int dx = to % size - from % size;
+        int dy = to / size - from / size;
+        if (dx < 0) return LEFT;
+        if (dx > 0) return RIGHT;
+        return dy > 0 ? UP : DOWN;
+    }
+}
@@ -54,6 +54,21 @@ public enum Elements implements CharElements {
 
     final char ch;
 
+    // all chars of the game differ in their lowest byte, so a table with 256 cells is enough for decoding
+    private static final Elements[] BY_LOW_BYTE = new Elements[256];
+    private static final Elements[] VALUES = values();
+
+    static {
+        for (Elements el : VALUES) {
+            int index = el.ch & 0xFF;
+            if (BY_LOW_BYTE[index] != null) {
+                throw new IllegalStateException("Elements " + BY_LOW_BYTE[index].name() + " and " + el.name()
+                        + " have the same lowest byte of char");
+            }
+            BY_LOW_BYTE[index] = el;
+        }
+    }
+
     Elements(char ch) {
         this.ch = ch;
     }
@@ -69,11 +84,17 @@ public enum Elements implements CharElements {
     }
 
     public static Elements valueOf(char ch) {
-        for (Elements el : Elements.values()) {
-            if (el.ch == ch) {
-                return el;
-            }
+        Elements el = BY_LOW_BYTE[ch & 0xFF];
+        if (el != null && el.ch == ch) {
+            return el;
         }
         throw new IllegalArgumentException("No such element for " + ch);
     }
+
+    /**
+     * The same as values()[ordinal], but the array is not copied on every call.
+     */
+    public static Elements byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
 }
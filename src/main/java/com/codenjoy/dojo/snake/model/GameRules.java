@@ -0,0 +1,14 @@
+package com.codenjoy.dojo.snake.model;
+
+/**
+ * Rules of the server, that both the client and the in-process SnakeGame rely on.
+ */
+public final class GameRules {
+    /**
+     * Cells, that the server cuts off the snake, that eats a stone (a shorter snake dies).
+     */
+    public static final int STONE_PENALTY = 10;
+
+    private GameRules() {
+    }
+}
@@ -0,0 +1,22 @@
+package com.codenjoy.dojo.snake.model;
+
+import com.codenjoy.dojo.services.Dice;
+
+import java.util.SplittableRandom;
+
+/**
+ * Dice with a seed: the same seed gives the same game, so a game can be repeated as many times as needed.
+ * Not thread-safe, every game has its own dice.
+ */
+public class SeededDice implements Dice {
+    private final SplittableRandom random;
+
+    public SeededDice(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int next(int n) {
+        return random.nextInt(n);
+    }
+}
@@ -0,0 +1,223 @@
+package com.codenjoy.dojo.snake.model;
+
+import com.codenjoy.dojo.services.Dice;
+import com.codenjoy.dojo.services.Direction;
+
+/**
+ * In-process snake game for a single player, that follows the rules of the server:
+ * - the game-board is surrounded by walls, the snake (2 cells) starts in the middle and moves to the right;
+ * - every tick the snake moves one cell in its direction, a command to turn back is ignored;
+ * - the snake dies, when its head hits a wall or its own body (the cell of the tail is free,
+ *   because the tail moves away at the same time);
+ * - an apple makes the snake one cell longer, a stone makes it 10 cells shorter (a snake shorter than
+ *   GameRules.STONE_PENALTY + 1 cells dies), a new apple / stone appears in a random free cell right away.
+ * The state is rendered into the same string, that the server sends (see BoardRenderer), so any solver can play it.
+ * There is no clock: the next tick starts as soon as the solver answers.
+ */
+public class SnakeGame {
+    private static final int SPAWN_ATTEMPTS = 100;
+
+    private final int size;
+    private final Dice dice;
+
+    // body of the snake in a ring buffer: head is at index first, tail at (first + length - 1)
+    private final int[] body;
+    private int first;
+    private int length;
+    private final boolean[] occupied;   // cells of the body
+    private int[] snake = new int[0];    // head to tail, for rendering
+
+    private Direction direction = Direction.RIGHT;
+    private int apple = -1;
+    private int stone = -1;
+    private boolean alive = true;
+    private int ticks = 0;
+    private int apples = 0;
+    private int stones = 0;
+
+    public SnakeGame(int size, Dice dice) {
+        if (size < 5) {
+            throw new IllegalArgumentException("Board is too small: " + size);
+        }
+        this.size = size;
+        this.dice = dice;
+        this.body = new int[size * size];
+        this.occupied = new boolean[size * size];
+
+        int y = size / 2;
+        int x = size / 2;
+        addTail(cell(x, y));
+        addTail(cell(x - 1, y));
+        apple = spawn();
+        stone = spawn();
+    }
+
+    /**
+     * @return String -> the board string of the current state (rows from the top to the bottom).
+     */
+    public String render() {
+        if (snake.length < length) {
+            snake = new int[body.length];
+        }
+        for (int i = 0; i < length; i++) {
+            snake[i] = body[(first + i) % body.length];
+        }
+        return BoardRenderer.render(size, snake, length,
+                apple == -1 ? new int[0] : new int[]{apple},
+                stone == -1 ? new int[0] : new int[]{stone});
+    }
+
+    /**
+     * @param command -> the answer of the solver, e.g. "UP" (unknown commands don't change the direction).
+     */
+    public void tick(String command) {
+        tick(parse(command));
+    }
+
+    public void tick(Direction turn) {
+        if (!alive) {
+            return;
+        }
+        ticks++;
+        if (turn != null && isMove(turn) && turn != direction.inverted()) {
+            direction = turn;
+        }
+
+        int head = body[first];
+        int x = direction.changeX(head % size);
+        int y = direction.changeY(head / size);
+        if (x <= 0 || y <= 0 || x >= size - 1 || y >= size - 1) {
+            alive = false;
+            return;
+        }
+        int next = cell(x, y);
+        int tail = body[(first + length - 1) % body.length];
+        boolean grows = next == apple;
+        if (occupied[next] && (next != tail || grows)) {
+            alive = false;
+            return;
+        }
+
+        if (!grows) {
+            removeTail();
+        }
+        addHead(next);
+
+        if (grows) {
+            apples++;
+            apple = spawn();
+        } else if (next == stone) {
+            stones++;
+            if (length < GameRules.STONE_PENALTY + 1) {
+                alive = false;
+                return;
+            }
+            for (int i = 0; i < GameRules.STONE_PENALTY; i++) {
+                removeTail();
+            }
+            stone = spawn();
+        }
+    }
+
+    private static boolean isMove(Direction direction) {
+        return direction == Direction.LEFT || direction == Direction.RIGHT
+                || direction == Direction.UP || direction == Direction.DOWN;
+    }
+
+    private static Direction parse(String command) {
+        if (command == null) {
+            return null;
+        }
+        String name = command.trim().toUpperCase();
+        for (Direction direction : Direction.values()) {
+            if (name.startsWith(direction.name())) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The same as the server does: random cells are tried a number of times, then the first free one is taken.
+     *
+     * @return int -> a free cell, or -1 if the game-board is full.
+     */
+    private int spawn() {
+        int inner = size - 2;
+        for (int i = 0; i < SPAWN_ATTEMPTS; i++) {
+            int c = cell(1 + dice.next(inner), 1 + dice.next(inner));
+            if (isFree(c)) {
+                return c;
+            }
+        }
+        for (int y = 1; y < size - 1; y++) {
+            for (int x = 1; x < size - 1; x++) {
+                if (isFree(cell(x, y))) {
+                    return cell(x, y);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean isFree(int c) {
+        return !occupied[c] && c != apple && c != stone;
+    }
+
+    private void addHead(int c) {
+        first = (first - 1 + body.length) % body.length;
+        body[first] = c;
+        occupied[c] = true;
+        length++;
+    }
+
+    private void addTail(int c) {
+        body[(first + length) % body.length] = c;
+        occupied[c] = true;
+        length++;
+    }
+
+    private void removeTail() {
+        int last = (first + length - 1) % body.length;
+        occupied[body[last]] = false;
+        length--;
+    }
+
+    private int cell(int x, int y) {
+        return y * size + x;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isAlive() {
+        return alive;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return int -> number of apples eaten.
+     */
+    public int getApples() {
+        return apples;
+    }
+
+    /**
+     * @return int -> number of stones eaten.
+     */
+    public int getStones() {
+        return stones;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+}
@@ -0,0 +1,293 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import com.codenjoy.dojo.services.Point;
+import com.codenjoy.dojo.services.PointImpl;
+import com.codenjoy.dojo.snake.model.BoardRenderer;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AStarAlgoTest {
+
+    private Board board(String board) {
+        return (Board) new Board().forString(board);
+    }
+
+    private Optional<Point> trace(AStarAlgo algo, Board board) {
+        return algo.trace(
+                board.getHead(),
+                board.getApples().get(0),
+                board.getSnakeAsLinkedList(),
+                board.getStones().isEmpty() ? null : board.getStones().get(0));
+    }
+
+    @Test
+    public void shouldGoStraightToApple() {
+        Board board = board(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ☺   ☼" +
+                "☼     ☼" +
+                "☼ ▲  ☻☼" +
+                "☼ ╙   ☼" +
+                "☼☼☼☼☼☼☼");
+
+        assertEquals(new PointImpl(2, 3), trace(new AStarAlgo(7, 7), board).get());
+    }
+
+    @Test
+    public void shouldGoAroundStone() {
+        Board board = board(
+                "☼☼☼☼☼☼☼" +
+                "☼  ☺  ☼" +
+                "☼     ☼" +
+                "☼  ☻  ☼" +
+                "☼  ▲  ☼" +
+                "☼  ╙  ☼" +
+                "☼☼☼☼☼☼☼");
+
+        Point next = trace(new AStarAlgo(7, 7), board).get();
+
+        assertTrue(next.equals(new PointImpl(2, 2)) || next.equals(new PointImpl(4, 2)));
+    }
+
+    @Test
+    public void shouldReturnEmptyWhenTrapped() {
+        Board board = board(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ☺   ☼" +
+                "☼     ☼" +
+                "☼☻    ☼" +
+                "☼◄═╕  ☼" +
+                "☼☼☼☼☼☼☼");
+
+        assertFalse(trace(new AStarAlgo(7, 7), board).isPresent());
+    }
+
+    @Test
+    public void shouldNotTurnBackIntoNeck() {
+        Board board = board(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼     ☼" +
+                "☼  ▲  ☼" +
+                "☼  ╙  ☼" +
+                "☼  ☺  ☼" +
+                "☼☼☼☼☼☼☼");
+
+        for (AStarAlgo.Mode mode : AStarAlgo.Mode.values()) {
+            AStarAlgo algo = new AStarAlgo(7, 7);
+            algo.setMode(mode);
+
+            Point next = trace(algo, board).get();
+
+            assertFalse(next.equals(new PointImpl(3, 2)));
+        }
+    }
+
+    @Test
+    public void shouldFollowTailThatMovesAway() {
+        Board board = board(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ╓   ☼" +
+                "☼ ║☺  ☼" +
+                "☼ ╚►  ☼" +
+                "☼     ☼" +
+                "☼☼☼☼☼☼☼");
+        AStarAlgo algo = new AStarAlgo(7, 7);
+        algo.trace(board.getHead(), board.getApples().get(0), board.getSnakeAsLinkedList(), null);
+
+        // tail [2,4] leaves its cell after the first step, neck [2,2] stays for two steps
+        assertFalse(algo.snakeCollision(new PointImpl(2, 4), 1));
+        assertTrue(algo.snakeCollision(new PointImpl(2, 2), 1));
+        assertFalse(algo.snakeCollision(new PointImpl(2, 2), 3));
+    }
+
+    @Test
+    public void shouldReuseArenaWhenBoardSizeChanges() {
+        AStarAlgo algo = new AStarAlgo(7, 7);
+        Board small = board(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ☺   ☼" +
+                "☼     ☼" +
+                "☼ ▲  ☻☼" +
+                "☼ ╙   ☼" +
+                "☼☼☼☼☼☼☼");
+        Board big = board(
+                "☼☼☼☼☼☼☼☼☼" +
+                "☼       ☼" +
+                "☼       ☼" +
+                "☼       ☼" +
+                "☼      ☺☼" +
+                "☼ ▲     ☼" +
+                "☼ ╙   ☻ ☼" +
+                "☼       ☼" +
+                "☼☼☼☼☼☼☼☼☼");
+
+        assertEquals(new PointImpl(2, 3), trace(algo, small).get());
+        assertEquals(new PointImpl(2, 3), trace(algo, small).get());
+
+        algo.resize(9, 9);
+        Point next = trace(algo, big).get();
+        assertTrue(next.equals(new PointImpl(2, 4)) || next.equals(new PointImpl(3, 3)));
+    }
+
+    @Test
+    public void shouldKeepGreedyModeSelectable() {
+        Board board = board(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ☺   ☼" +
+                "☼     ☼" +
+                "☼ ▲  ☻☼" +
+                "☼ ╙   ☼" +
+                "☼☼☼☼☼☼☼");
+        AStarAlgo algo = new AStarAlgo(7, 7);
+        algo.setMode(AStarAlgo.Mode.GREEDY);
+
+        assertEquals(new PointImpl(2, 3), trace(algo, board).get());
+    }
+
+    @Test
+    public void shouldReturnBestStepWhenBudgetRunsOut() {
+        Board board = board(
+                "☼☼☼☼☼☼☼☼☼" +
+                "☼      ☺☼" +
+                "☼       ☼" +
+                "☼       ☼" +
+                "☼       ☼" +
+                "☼       ☼" +
+                "☼ ▲    ☻☼" +
+                "☼ ╙     ☼" +
+                "☼☼☼☼☼☼☼☼☼");
+        AStarAlgo algo = new AStarAlgo(9, 9);
+        algo.setBudget(SearchBudget.ofExpansions(2));
+
+        Point next = trace(algo, board).get();
+
+        assertTrue(algo.isBudgetExhausted());
+        assertEquals(2, algo.getExpandedNodes());
+        assertTrue(next.equals(new PointImpl(2, 3)) || next.equals(new PointImpl(3, 2)));
+    }
+
+    @Test
+    public void shouldStopGreedyBacktrackWhenBudgetRunsOut() {
+        // the head is deep in a cup of the body, the apple is above the bottom of the cup
+        Board board = board(BoardRenderer.render(9,
+                new int[]{4 + 4 * 9, 4 + 5 * 9, 4 + 6 * 9, 5 + 6 * 9, 6 + 6 * 9, 6 + 5 * 9, 6 + 4 * 9, 6 + 3 * 9,
+                        6 + 2 * 9, 5 + 2 * 9, 4 + 2 * 9, 3 + 2 * 9, 2 + 2 * 9, 2 + 3 * 9, 2 + 4 * 9, 2 + 5 * 9},
+                new int[]{4 + 9}, new int[]{7 + 7 * 9}));
+        AStarAlgo algo = new AStarAlgo(9, 9);
+        algo.setMode(AStarAlgo.Mode.GREEDY);
+        algo.setBudget(SearchBudget.ofExpansions(5));
+
+        trace(algo, board);
+
+        // every step back expands a node, the backtrack stops right at the limit
+        assertTrue(algo.isBudgetExhausted());
+        assertEquals(5, algo.getExpandedNodes());
+        assertEquals(1, algo.getBacktracks());
+    }
+
+    @Test
+    public void shouldStopAtDeadlineOfTick() {
+        // the apple is in the opposite corner, the path is much longer than CLOCK_CHECK_INTERVAL
+        Board board = board(BoardRenderer.render(41, new int[]{2 + 41, 1 + 41}, new int[]{39 + 39 * 41}, new int[0]));
+        AStarAlgo algo = new AStarAlgo(41, 41);
+        algo.setDeadline(System.nanoTime() - 1);
+
+        Point next = trace(algo, board).get();
+
+        // the time of the budget is not limited, but the tick is already over at the first reading of the clock
+        assertTrue(algo.isBudgetExhausted());
+        assertEquals(SearchBudget.CLOCK_CHECK_INTERVAL, algo.getExpandedNodes());
+        assertTrue(next.equals(new PointImpl(3, 1)) || next.equals(new PointImpl(2, 2)));
+    }
+
+    @Test
+    public void shouldUseFallbackWhenSearchFindsNothing() {
+        Board board = board(
+                "☼☼☼☼☼☼☼" +
+                "☼    ☺☼" +
+                "☼     ☼" +
+                "☼     ☼" +
+                "☼     ☼" +
+                "☼╘►   ☼" +
+                "☼☼☼☼☼☼☼");
+        AStarAlgo algo = new AStarAlgo(7, 7);
+        // only the head is expanded, so the search has no step yet
+        algo.setBudget(SearchBudget.ofExpansions(1));
+
+        Point next = algo.trace(board.getHead(), board.getApples().get(0), board.getSnakeAsLinkedList(), null).get();
+
+        // [2,2] has more free cells around it than [3,1]
+        assertTrue(algo.isFallbackUsed());
+        assertEquals(new PointImpl(2, 2), algo.getFallback().get());
+        assertEquals(new PointImpl(2, 2), next);
+    }
+
+    @Test
+    public void shouldFindSamePathInBidirectionalMode() {
+        // the body is a wall between the head and the apple, the way around goes below it
+        Board board = board(BoardRenderer.render(9,
+                new int[]{3 + 2 * 9, 4 + 2 * 9, 4 + 3 * 9, 4 + 4 * 9, 4 + 5 * 9, 4 + 6 * 9, 5 + 6 * 9},
+                new int[]{6 + 2 * 9}, new int[]{1 + 7 * 9}));
+
+        for (AStarAlgo.Mode mode : new AStarAlgo.Mode[]{AStarAlgo.Mode.A_STAR, AStarAlgo.Mode.BIDIRECTIONAL}) {
+            AStarAlgo algo = new AStarAlgo(9, 9);
+            algo.setMode(mode);
+
+            assertEquals(new PointImpl(3, 1), trace(algo, board).get());
+            assertEquals(6, algo.getPath().size());
+            assertFalse(algo.isFallbackUsed());
+        }
+    }
+
+    @Test
+    public void shouldGoThroughCellsLeftByTailInBidirectionalMode() {
+        // the apple in the corner is closed by the body, the cells of the body become free before the head comes
+        Board board = board(BoardRenderer.render(7,
+                new int[]{5 + 2 * 7, 5 + 3 * 7, 5 + 4 * 7, 4 + 4 * 7, 4 + 5 * 7},
+                new int[]{5 + 5 * 7}, new int[]{1 + 7}));
+        AStarAlgo algo = new AStarAlgo(7, 7);
+        algo.setMode(AStarAlgo.Mode.BIDIRECTIONAL);
+
+        assertEquals(new PointImpl(4, 2), trace(algo, board).get());
+        assertEquals(6, algo.getPath().size());
+        IntDeque path = algo.getPath();
+        for (int step = 1; step < path.size(); step++) {
+            assertTrue(algo.isSafe(path.getFromLast(step), step));
+        }
+    }
+}
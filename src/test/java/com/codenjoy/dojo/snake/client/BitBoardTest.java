@@ -0,0 +1,85 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BitBoardTest {
+
+    @Test
+    public void shouldMarkBordersAsWalls() {
+        BitBoard bits = new BitBoard(5, 5);
+
+        assertTrue(bits.isBlocked(bits.cell(0, 0)));
+        assertTrue(bits.isBlocked(bits.cell(4, 2)));
+        assertTrue(bits.isBlocked(bits.cell(2, 4)));
+        assertFalse(bits.isBlocked(bits.cell(2, 2)));
+    }
+
+    @Test
+    public void shouldKeepPlanesSeparately() {
+        BitBoard bits = new BitBoard(5, 5);
+        int cell = bits.cell(2, 2);
+
+        bits.set(BitBoard.PATH, cell);
+        assertTrue(bits.test(BitBoard.PATH, cell));
+        assertFalse(bits.test(BitBoard.BODY, cell));
+        assertTrue(bits.isBlocked(cell));
+
+        bits.clearPlane(BitBoard.PATH);
+        assertFalse(bits.isBlocked(cell));
+    }
+
+    @Test
+    public void shouldCalculateSafeMoves() {
+        BitBoard bits = new BitBoard(5, 5);
+
+        // in the corner only RIGHT and UP are possible
+        assertEquals(0b0110, bits.safeMoves(bits.cell(1, 1)));
+
+        bits.set(BitBoard.STONES, bits.cell(2, 1));
+        assertEquals(0b0100, bits.safeMoves(bits.cell(1, 1)));
+    }
+
+    @Test
+    public void shouldWorkAcrossWordBoundaries() {
+        BitBoard bits = new BitBoard(15, 15);
+        long[] free = new long[bits.words()];
+
+        bits.set(BitBoard.BODY, 63);
+        bits.set(BitBoard.FORBIDDEN, 64);
+        bits.freeCells(free);
+
+        assertTrue(bits.test(BitBoard.BODY, 63));
+        assertFalse(bits.test(BitBoard.BODY, 64));
+        assertEquals(0L, free[0] & (1L << 63));
+        assertEquals(0L, free[1] & 1L);
+        assertEquals(0L, free[3] >>> (15 * 15 - 3 * 64));
+    }
+}
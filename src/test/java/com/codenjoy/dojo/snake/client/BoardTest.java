@@ -24,10 +24,16 @@ package com.codenjoy.dojo.snake.client;
 
 
 import com.codenjoy.dojo.services.Direction;
+import com.codenjoy.dojo.services.Point;
 import com.codenjoy.dojo.snake.model.Elements;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class BoardTest {
@@ -128,4 +134,67 @@ public class BoardTest {
                 "☼☼☼☼");
         assertEquals(true, board.isGameOver());
     }
+
+    @Test
+    public void shouldDecodeEveryElement() {
+        for (Elements el : Elements.values()) {
+            assertSame(el, Elements.valueOf(el.ch()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotDecodeUnknownChar() {
+        Elements.valueOf((char) ('☼' + 0x100));
+    }
+
+    @Test
+    public void shouldServeFieldFromIndex() {
+        Board board = (Board) new Board().forString(
+                "☼☼☼☼☼\n" +
+                "☼╔► ☼\n" +
+                "☼╙☺ ☼\n" +
+                "☼  ☻☼\n" +
+                "☼☼☼☼☼\n");
+
+        assertEquals(5, board.size());
+        assertEquals(Elements.HEAD_RIGHT, board.getAt(2, 3));
+        assertEquals(null, board.getAt(5, 0));
+        assertTrue(board.isAt(3, 1, Elements.BAD_APPLE));
+        assertEquals("[[1,2], [1,3]]", board.get(Elements.TAIL_END_DOWN, Elements.TAIL_RIGHT_DOWN).toString());
+        assertEquals(
+                "☼☼☼☼☼\n" +
+                "☼╔► ☼\n" +
+                "☼╙☺ ☼\n" +
+                "☼  ☻☼\n" +
+                "☼☼☼☼☼\n", board.boardAsString());
+    }
+
+    @Test
+    public void shouldParseBoardOnce() {
+        Board board = (Board) new Board().forString(
+                "☼☼☼☼☼" +
+                "☼╔► ☼" +
+                "☼╙☺ ☼" +
+                "☼  ☻☼" +
+                "☼☼☼☼☼");
+        BoardIndex index = board.index();
+
+        assertSame(index, board.index());
+        assertEquals(3, index.getSnakeSize());
+        assertEquals("[[2,3], [1,2], [1,3]]", board.getSnake().toString());
+        List<Point> ordered = new ArrayList<>();
+        board.getSnakeAsLinkedList().forEach(ordered::add);
+        assertEquals("[[2,3], [1,3], [1,2]]", ordered.toString());
+        assertEquals(Direction.RIGHT, board.getSnakeDirection());
+        assertEquals(Elements.TAIL_RIGHT_DOWN, index.getAt(1, 3));
+
+        board.forString(
+                "☼☼☼☼☼" +
+                "☼ ╓ ☼" +
+                "☼ ▼☺☼" +
+                "☼  ☻☼" +
+                "☼☼☼☼☼");
+        assertNotSame(index, board.index());
+        assertEquals("[2,2]", board.getHead().toString());
+    }
 }
@@ -0,0 +1,237 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import com.codenjoy.dojo.services.Point;
+import com.codenjoy.dojo.snake.model.SeededDice;
+import com.codenjoy.dojo.snake.model.SnakeGame;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BoardTrackerTest {
+
+    private BoardTracker tracker = new BoardTracker();
+
+    private boolean update(String board) {
+        return tracker.update((Board) new Board().forString(board));
+    }
+
+    private String snake() {
+        List<Point> result = new ArrayList<>();
+        IntDeque snake = tracker.getSnake();
+        for (int i = 0; i < snake.size(); i++) {
+            result.add(tracker.getCells().point(snake.get(i)));
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void shouldTrackSnakeIncrementally() {
+        assertFalse(update(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ☺   ☼" +
+                "☼     ☼" +
+                "☼ ▲  ☻☼" +
+                "☼ ╙   ☼" +
+                "☼☼☼☼☼☼☼"));
+        assertEquals("[[2,2], [2,1]]", snake());
+
+        // moved up
+        assertTrue(update(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ☺   ☼" +
+                "☼ ▲   ☼" +
+                "☼ ╙  ☻☼" +
+                "☼     ☼" +
+                "☼☼☼☼☼☼☼"));
+        assertEquals("[[2,3], [2,2]]", snake());
+        assertEquals("[2,3]", tracker.getHead().toString());
+
+        // ate the apple, new apple has appeared
+        assertTrue(update(
+                "☼☼☼☼☼☼☼" +
+                "☼   ☺ ☼" +
+                "☼ ▲   ☼" +
+                "☼ ║   ☼" +
+                "☼ ╙  ☻☼" +
+                "☼     ☼" +
+                "☼☼☼☼☼☼☼"));
+        assertEquals("[[2,4], [2,3], [2,2]]", snake());
+        assertEquals("[[4,5]]", tracker.getApples().toString());
+        assertEquals("[[5,2]]", tracker.getStones().toString());
+
+        // turned right
+        assertTrue(update(
+                "☼☼☼☼☼☼☼" +
+                "☼   ☺ ☼" +
+                "☼ ╔►  ☼" +
+                "☼ ╙   ☼" +
+                "☼    ☻☼" +
+                "☼     ☼" +
+                "☼☼☼☼☼☼☼"));
+        assertEquals("[[3,4], [2,4], [2,3]]", snake());
+
+        assertEquals(1, tracker.getRebuilds());
+        assertEquals(3, tracker.getIncrementalUpdates());
+    }
+
+    @Test
+    public void shouldSeeNewAppleWhileOldOneStays() {
+        update(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ☺   ☼" +
+                "☼     ☼" +
+                "☼ ▲  ☻☼" +
+                "☼ ╙   ☼" +
+                "☼☼☼☼☼☼☼");
+
+        // moved up, the old apple and stone are still there, one more apple and stone have appeared
+        assertTrue(update(
+                "☼☼☼☼☼☼☼" +
+                "☼   ☺ ☼" +
+                "☼ ☺   ☼" +
+                "☼ ▲   ☼" +
+                "☼ ╙  ☻☼" +
+                "☼ ☻   ☼" +
+                "☼☼☼☼☼☼☼"));
+        assertEquals("[[2,4], [4,5]]", tracker.getApples().toString());
+        assertEquals("[[2,1], [5,2]]", tracker.getStones().toString());
+
+        BoardTracker fresh = new BoardTracker();
+        fresh.update((Board) new Board().forString(
+                "☼☼☼☼☼☼☼" +
+                "☼   ☺ ☼" +
+                "☼ ☺   ☼" +
+                "☼ ▲   ☼" +
+                "☼ ╙  ☻☼" +
+                "☼ ☻   ☼" +
+                "☼☼☼☼☼☼☼"));
+        assertEquals(fresh.getHash(), tracker.getHash());
+    }
+
+    @Test
+    public void shouldRebuildWhenMoveIsNotLegal() {
+        update(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ☺   ☼" +
+                "☼     ☼" +
+                "☼ ▲  ☻☼" +
+                "☼ ╙   ☼" +
+                "☼☼☼☼☼☼☼");
+
+        // respawn at another place
+        assertFalse(update(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ☺   ☼" +
+                "☼   ◄╕☼" +
+                "☼    ☻☼" +
+                "☼     ☼" +
+                "☼☼☼☼☼☼☼"));
+        assertEquals("[[4,3], [5,3]]", snake());
+        assertEquals(2, tracker.getRebuilds());
+    }
+
+    @Test
+    public void shouldUpdateHashIncrementally() {
+        SnakeGame game = new SnakeGame(15, new SeededDice(5));
+        YourSolver solver = new YourSolver(null);
+        for (int i = 0; i < 300 && game.isAlive(); i++) {
+            Board board = (Board) new Board().forString(game.render());
+            update(game.render());
+            BoardTracker fresh = new BoardTracker();
+            fresh.update(board);
+
+            assertEquals(fresh.getHash(), tracker.getHash());
+            assertArrayEquals(fresh.getPositionKey(), tracker.getPositionKey());
+            game.tick(solver.get(board));
+        }
+        assertTrue(tracker.getIncrementalUpdates() > 100);
+    }
+
+    @Test
+    public void shouldPackPositionWithOrderOfBody() {
+        update(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼ ╔►  ☼" +
+                "☼ ║   ☼" +
+                "☼ ╚═╗ ☼" +
+                "☼☻ ☺╙ ☼" +
+                "☼☼☼☼☼☼☼");
+
+        byte[] key = tracker.getPositionKey();
+
+        assertEquals(7, PositionKey.size(key));
+        assertEquals(tracker.getSnake().toString(), PositionKey.snake(key).toString());
+        assertEquals("[10]", Arrays.toString(PositionKey.apples(key)));
+        assertEquals("[8]", Arrays.toString(PositionKey.stones(key)));
+
+        // the same cells in the opposite order are another position
+        IntDeque reversed = new IntDeque();
+        for (int i = 0; i < tracker.getSnake().size(); i++) {
+            reversed.addFirst(tracker.getSnake().get(i));
+        }
+        ZobristKeys keys = ZobristKeys.of(7);
+        assertNotEquals(keys.snake(tracker.getSnake()), keys.snake(reversed));
+    }
+
+    @Test
+    public void shouldPackPositionOfBigBoardExactly() {
+        int size = 1000;
+        IntDeque snake = new IntDeque();
+        for (int x = 700; x > 600; x--) {
+            snake.addLast(900 * size + x);
+        }
+        // more apples, than a byte can count, and cells, that don't fit into a short
+        int[] apples = new int[300];
+        for (int i = 0; i < apples.length; i++) {
+            apples[i] = (i + 1) * size + 5;
+        }
+        int[] stones = {70000, 70000 + 65536};
+
+        byte[] key = PositionKey.pack(size, snake, apples, stones);
+
+        assertEquals(size, PositionKey.size(key));
+        assertEquals(snake.toString(), PositionKey.snake(key).toString());
+        assertEquals(Arrays.toString(apples), Arrays.toString(PositionKey.apples(key)));
+        assertEquals(Arrays.toString(stones), Arrays.toString(PositionKey.stones(key)));
+        // the cells differ by 65536 only
+        assertFalse(Arrays.equals(key, PositionKey.pack(size, snake, apples, new int[]{70000, 70000 + 2 * 65536})));
+    }
+}
@@ -0,0 +1,65 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import com.codenjoy.dojo.services.PointImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CellRegistryTest {
+
+    @Test
+    public void shouldShareRegistryForTheSameSize() {
+        assertSame(CellRegistry.of(15, 15), CellRegistry.of(15));
+    }
+
+    @Test
+    public void shouldHandOutCanonicalPoints() {
+        CellRegistry cells = CellRegistry.of(7);
+
+        assertSame(cells.point(3, 4), cells.point(cells.id(3, 4)));
+        assertEquals(new PointImpl(3, 4), cells.point(3, 4));
+        assertEquals(3, cells.x(cells.id(3, 4)));
+        assertEquals(4, cells.y(cells.id(3, 4)));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotAllowToMovePoints() {
+        CellRegistry.of(7).point(3, 4).move(1, 1);
+    }
+
+    @Test
+    public void shouldRemoveWallsFromNeighbours() {
+        CellRegistry cells = CellRegistry.of(7);
+
+        assertArrayEquals(new int[]{cells.id(2, 1), cells.id(1, 2)}, cells.neighbours(cells.id(1, 1)));
+        assertArrayEquals(new int[]{cells.id(2, 3), cells.id(4, 3), cells.id(3, 4), cells.id(3, 2)},
+                cells.neighbours(cells.id(3, 3)));
+        assertEquals(0, cells.neighbours(cells.id(0, 3)).length);
+    }
+}
@@ -0,0 +1,145 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import com.codenjoy.dojo.snake.model.BoardRenderer;
+import com.codenjoy.dojo.snake.model.SeededDice;
+import com.codenjoy.dojo.snake.model.SnakeGame;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DecisionCacheTest {
+
+    @Test
+    public void shouldReturnStoredDecision() {
+        DecisionCache cache = new DecisionCache(1024);
+
+        assertEquals(DecisionCache.MISS, cache.get(42));
+        cache.put(42, 3, 17);
+        int decision = cache.get(42);
+
+        assertEquals(3, DecisionCache.direction(decision));
+        assertEquals(17, DecisionCache.planLength(decision));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void shouldKeepMemoryCapAndRecentlyUsedEntries() {
+        DecisionCache cache = new DecisionCache(64 * 16);
+        assertEquals(64, cache.capacity());
+
+        cache.put(7, 1, 1);
+        for (long hash = 100; hash < 10_000; hash++) {
+            cache.put(hash, 2, 0);
+            // the entry is used all the time, so the clock never evicts it
+            assertEquals(1, DecisionCache.direction(cache.get(7)));
+        }
+
+        assertTrue(cache.getEvictions() > 9000);
+        assertEquals(64 * 16, cache.getMemoryBytes());
+    }
+
+    @Test
+    public void shouldNeverReturnTornEntryFromConcurrentWriters() throws Exception {
+        DecisionCache cache = new DecisionCache(256 * 16);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long seed = t;
+            results.add(executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                int wrong = 0;
+                for (int i = 0; i < 200_000; i++) {
+                    int position = random.nextInt(2048);
+                    // the slot check relies on 64-bit random hashes, like Zobrist ones, small numbers would collide
+                    long hash = new SplittableRandom(position).nextLong();
+                    // the decision is a function of the position, so any other value is a torn read
+                    int decision = cache.get(hash);
+                    if (decision != DecisionCache.MISS && DecisionCache.planLength(decision) != position) {
+                        wrong++;
+                    }
+                    cache.put(hash, position & 3, position);
+                }
+                return wrong;
+            }));
+        }
+        for (Future<Integer> result : results) {
+            assertEquals(0, (int) result.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void shouldPlaySameGameWithCachedDecisions() {
+        DecisionCache cache = new DecisionCache(1 << 20);
+        GameSimulator simulator = new GameSimulator(15, 300);
+
+        GameResult first = simulator.play(solver(cache), 11);
+        YourSolver second = solver(cache);
+        GameResult replayed = simulator.play(second, 11);
+
+        assertEquals(first.getTicks(), replayed.getTicks());
+        assertEquals(first.getApples(), replayed.getApples());
+        assertTrue(second.getMetrics().getCacheHits() > 0);
+        assertEquals(0, second.getMetrics().getNodesExpanded());
+    }
+
+    @Test
+    public void shouldStoreLengthOfWholePathOfHierarchicalSearch() {
+        int size = 40;
+        DecisionCache cache = new DecisionCache(1 << 20);
+        YourSolver solver = solver(cache);
+        solver.setLookahead(null);
+        solver.setHierarchicalSize(size);
+        Board board = (Board) new Board().forString(BoardRenderer.render(size,
+                new int[]{5 * size + 5, 4 * size + 5}, new int[]{30 * size + 30}, new int[0]));
+
+        solver.get(board);
+
+        BoardTracker tracker = new BoardTracker();
+        tracker.update(board);
+        int decision = cache.get(tracker.getHash());
+        HierarchicalPathfinder hierarchical = solver.getHierarchical();
+        // the plan holds only the refined first leg, the cache keeps the way up to the apple
+        assertTrue(hierarchical.getLocalPath().size() - 1 < hierarchical.getPathLength());
+        assertEquals(hierarchical.getPathLength(), DecisionCache.planLength(decision));
+    }
+
+    private YourSolver solver(DecisionCache cache) {
+        YourSolver solver = new YourSolver(null);
+        solver.setDecisionCache(cache);
+        return solver;
+    }
+}
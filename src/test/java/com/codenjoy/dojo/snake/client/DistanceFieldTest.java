@@ -0,0 +1,95 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class DistanceFieldTest {
+
+    private static final int SIZE = 9;
+    private final CellRegistry cells = CellRegistry.of(SIZE);
+
+    private int cell(int x, int y) {
+        return cells.id(x, y);
+    }
+
+    @Test
+    public void shouldMeasureDistanceAroundStones() {
+        DistanceField field = new DistanceField(cells);
+        // a wall of stones between [1,4] and the goal [1,6]
+        int[] stones = {cell(1, 5), cell(2, 5), cell(3, 5)};
+
+        field.update(cell(1, 6), stones, stones.length);
+
+        assertEquals(0, field.distance(cell(1, 6)));
+        assertEquals(2, field.distance(cell(3, 6)));
+        assertEquals(8, field.distance(cell(1, 4)));   // around [4,5]
+        assertEquals(DistanceField.UNREACHABLE, field.distance(cell(2, 5)));
+        assertEquals(DistanceField.UNREACHABLE, field.distance(cell(0, 4)));
+    }
+
+    @Test
+    public void shouldUpdateIncrementallyWhileGoalStays() {
+        DistanceField field = new DistanceField(cells);
+        field.update(cell(1, 6), new int[]{cell(1, 5)}, 1);
+        field.update(cell(1, 6), new int[]{cell(2, 5)}, 1);
+        field.update(cell(1, 6), new int[]{cell(2, 5)}, 1);
+
+        assertEquals(1, field.getFullBuilds());
+        assertEquals(1, field.getIncrementalUpdates());
+        assertEquals(2, field.distance(cell(1, 4)));
+    }
+
+    @Test
+    public void shouldMatchFullRebuildAfterRandomChanges() {
+        Random random = new Random(7);
+        DistanceField incremental = new DistanceField(cells);
+        DistanceField full = new DistanceField(cells);
+        int goal = cell(4, 4);
+
+        for (int tick = 0; tick < 500; tick++) {
+            int count = random.nextInt(12);
+            int[] stones = new int[count];
+            for (int i = 0; i < count; i++) {
+                int stone;
+                do {
+                    stone = cell(1 + random.nextInt(SIZE - 2), 1 + random.nextInt(SIZE - 2));
+                } while (stone == goal);
+                stones[i] = stone;
+            }
+
+            incremental.update(goal, stones, count);
+            full.build(goal, stones, count);
+
+            for (int c = 0; c < cells.count(); c++) {
+                assertEquals("tick " + tick + ", cell " + c, full.distance(c), incremental.distance(c));
+            }
+        }
+        assertEquals(1, incremental.getFullBuilds());
+    }
+}
@@ -0,0 +1,119 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.codenjoy.dojo.snake.client.SnakeStates.cell;
+import static com.codenjoy.dojo.snake.client.SnakeStates.state;
+import static com.codenjoy.dojo.snake.client.SnakeStates.trap;
+import static com.codenjoy.dojo.snake.client.SnakeStates.trapApple;
+import static com.codenjoy.dojo.snake.client.SnakeStates.trapEscape;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExpectimaxLookaheadTest {
+
+    @Test
+    public void shouldMoveAndGrow() {
+        SnakeState state = state(cell(3, 4), cell(3, 3), cell(3, 2), cell(3, 1));
+
+        SnakeState moved = state.move(cell(4, 3));
+        assertEquals(3, moved.length());
+        assertEquals(cell(4, 3), moved.head());
+        assertFalse(moved.isOccupied(cell(3, 1)));
+
+        SnakeState grown = state.move(cell(3, 4));
+        assertEquals(4, grown.length());
+        assertEquals(-1, grown.apple());
+        assertEquals(1, grown.applesEaten());
+        assertTrue(grown.isOccupied(cell(3, 1)));
+
+        assertTrue(state.move(cell(3, 2)).isDead());
+        assertTrue(moved.move(cell(5, 3)).move(cell(6, 3)).isDead());
+    }
+
+    @Test
+    public void shouldNotEatAppleInTrap() {
+        ExpectimaxLookahead lookahead = new ExpectimaxLookahead();
+
+        int step = lookahead.choose(trap(), trapApple(), 1);
+
+        assertEquals(trapEscape(), step);
+        assertEquals(1, lookahead.getOverrides());
+    }
+
+    @Test
+    public void shouldKeepSafeStep() {
+        ExpectimaxLookahead lookahead = new ExpectimaxLookahead();
+        SnakeState state = state(cell(3, 4), cell(3, 3), cell(3, 2));
+
+        assertEquals(cell(3, 4), lookahead.choose(state, cell(3, 4), 1));
+        assertEquals(0, lookahead.getOverrides());
+    }
+
+    @Test
+    public void shouldBeDeterministicForSameSeed() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ExpectimaxLookahead lookahead = new ExpectimaxLookahead(8, 4, 1, TimeUnit.DAYS, pool);
+            SnakeState state = state(cell(3, 4), cell(3, 3), cell(3, 2), cell(3, 1));
+            int[] moves = new int[4];
+            int count = state.moves(moves);
+
+            double[] first = lookahead.evaluate(state, moves, count, 42);
+            double[] second = lookahead.evaluate(state, moves, count, 42);
+
+            assertEquals(3, count);
+            assertArrayEquals(first, second, 0);
+            assertTrue(lookahead.getNodes() > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldForkInsideCallerOfSamePool() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ExpectimaxLookahead lookahead = new ExpectimaxLookahead(8, 4, 1, TimeUnit.DAYS, pool);
+            SnakeState state = state(cell(3, 4), cell(3, 3), cell(3, 2), cell(3, 1));
+            int[] moves = new int[4];
+            int count = state.moves(moves);
+
+            double[] outside = lookahead.evaluate(state, moves, count, 42);
+            double[] inside = pool.submit(() -> lookahead.evaluate(state, moves, count, 42)).get();
+
+            assertArrayEquals(outside, inside, 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class GameFarmTest {
+
+    @Test
+    public void shouldPlaySameGameForSameSeed() {
+        int size = 15;
+        GameFarm farm = new GameFarm(new GameSimulator(size, 300), 2);
+        try {
+            // the searches are limited by nodes, not by the clock, so the speed of the machine changes nothing
+            GameResult first = farm.run(seed -> GameFarm.solver(seed, size, farm.getPool()), 7, 1)
+                    .getResults().get(0);
+            GameResult second = farm.run(seed -> GameFarm.solver(seed, size, farm.getPool()), 7, 1)
+                    .getResults().get(0);
+
+            assertEquals(first, second);
+        } finally {
+            farm.shutdown();
+        }
+    }
+}
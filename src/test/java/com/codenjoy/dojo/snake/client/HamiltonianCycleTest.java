@@ -0,0 +1,166 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.snake.model.BoardRenderer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HamiltonianCycleTest {
+
+    @Test
+    public void shouldVisitEveryCellOnce() {
+        for (int size = 4; size <= 30; size++) {
+            CellRegistry cells = CellRegistry.of(size);
+            HamiltonianCycle cycle = HamiltonianCycle.of(size, size);
+            int playable = (size - 2) * (size - 2);
+
+            // both dimensions of the playable area are odd - one cell is left out
+            assertEquals("size " + size, playable % 2 == 0 ? playable : playable - 1, cycle.length());
+            for (int i = 0; i < cycle.length(); i++) {
+                int from = cycle.cellAt(i);
+                int to = cycle.cellAt((i + 1) % cycle.length());
+                assertEquals("size " + size + ", step " + i, i, cycle.order(from));
+                assertEquals("size " + size + ", step " + i, 1,
+                        Math.abs(cells.x(from) - cells.x(to)) + Math.abs(cells.y(from) - cells.y(to)));
+                assertEquals(to, cycle.successor(from));
+            }
+        }
+    }
+
+    @Test
+    public void shouldSupportRectangularBoards() {
+        HamiltonianCycle cycle = HamiltonianCycle.of(7, 6);   // 5x4 playable area
+        assertEquals(20, cycle.length());
+        assertEquals(3, cycle.distance(cycle.cellAt(18), cycle.cellAt(1)));
+    }
+
+    @Test
+    public void shouldFollowCycleWhenSnakeIsLong() {
+        int size = 8;   // 6x6 playable area
+        HamiltonianCycle cycle = HamiltonianCycle.of(size, size);
+        int[] snake = snakeAlongCycle(cycle, 20);
+        AStarAlgo algo = prepare(size, snake, cycle.cellAt(30));
+
+        int move = new HamiltonianStrategy().next(algo, deque(snake), cycle.cellAt(30), -1);
+
+        // the snake takes more than a half of the board, so no shortcuts
+        assertEquals(cycle.successor(snake[0]), move);
+    }
+
+    @Test
+    public void shouldTakeShortcutToApple() {
+        int size = 8;
+        HamiltonianCycle cycle = HamiltonianCycle.of(size, size);
+        int[] snake = snakeAlongCycle(cycle, 12);
+        int apple = cycle.cellAt(30);
+        AStarAlgo algo = prepare(size, snake, apple);
+
+        int move = new HamiltonianStrategy().next(algo, deque(snake), apple, -1);
+
+        int jump = cycle.distance(snake[0], move);
+        assertTrue("jump " + jump, jump > 1 && jump <= cycle.distance(snake[0], apple));
+        assertTrue(algo.isSafe(move, 1));
+        assertFalse(deque(snake).contains(move));
+    }
+
+    @Test
+    public void shouldFollowFreeCycleUntilBodyIsOrdered() {
+        int size = 8;
+        HamiltonianCycle cycle = HamiltonianCycle.of(size, size);
+        int[] snake = snakeAlongCycle(cycle, 12);
+        // swap two cells in the middle of the body - it is not ordered any more, but the head is on the cycle
+        int[] shuffled = snake.clone();
+        shuffled[5] = snake[6];
+        shuffled[6] = snake[5];
+        AStarAlgo algo = prepare(size, snake, cycle.cellAt(30));
+
+        int move = new HamiltonianStrategy().next(algo, deque(shuffled), cycle.cellAt(30), -1);
+
+        assertEquals(cycle.successor(snake[0]), move);
+    }
+
+    @Test
+    public void shouldEatAppleOffCycleByDetour() {
+        int size = 15;   // 13x13 playable area, the top right corner is not on the cycle
+        HamiltonianCycle cycle = HamiltonianCycle.of(size, size);
+        int corner = CellRegistry.of(size).id(size - 2, size - 2);
+        assertEquals(-1, cycle.order(corner));
+        IntDeque snake = deque(snakeAlongCycle(cycle, 40));
+        HamiltonianStrategy strategy = new HamiltonianStrategy();
+
+        int ticks = 0;
+        int move = -1;
+        while (move != corner && ticks++ < cycle.length()) {
+            move = strategy.next(prepare(size, toArray(snake), corner), snake, corner, -1);
+            assertTrue("tick " + ticks, move != -1 && !snake.contains(move) || move == snake.peekLast());
+            snake.addFirst(move);
+            if (move != corner) {
+                snake.pollLast();
+            }
+        }
+        assertEquals(corner, move);
+
+        // the next apple is somewhere on the cycle, the head comes back to the cycle two cells further
+        int apple = cycle.cellAt(10);
+        int exit = strategy.next(prepare(size, toArray(snake), apple), snake, apple, -1);
+        assertTrue(cycle.order(exit) >= 0);
+        assertEquals(2, cycle.distance(snake.get(1), exit));
+    }
+
+    private static int[] toArray(IntDeque deque) {
+        int[] cells = new int[deque.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = deque.get(i);
+        }
+        return cells;
+    }
+
+    // the head is the cell with index (length - 1) of the cycle, the tail is the cell with index 0
+    private static int[] snakeAlongCycle(HamiltonianCycle cycle, int length) {
+        int[] snake = new int[length];
+        for (int i = 0; i < length; i++) {
+            snake[i] = cycle.cellAt(length - 1 - i);
+        }
+        return snake;
+    }
+
+    private static IntDeque deque(int[] cells) {
+        IntDeque deque = new IntDeque();
+        for (int cell : cells) {
+            deque.addLast(cell);
+        }
+        return deque;
+    }
+
+    private static AStarAlgo prepare(int size, int[] snake, int apple) {
+        Board board = (Board) new Board().forString(BoardRenderer.render(size, snake, new int[]{apple}, new int[0]));
+        AStarAlgo algo = new AStarAlgo(size, size);
+        algo.prepare(board.getHead(), board.getSnakeAsDeque(), null);
+        return algo;
+    }
+}
@@ -0,0 +1,146 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HierarchicalPathfinderTest {
+    private static final int SIZE = 20;
+    private static final int CLUSTER = 4;
+
+    private static int cell(int x, int y) {
+        return y * SIZE + x;
+    }
+
+    private static IntDeque snake(int... body) {
+        IntDeque snake = new IntDeque();
+        for (int cell : body) {
+            snake.addLast(cell);
+        }
+        return snake;
+    }
+
+    // a wall of stones at x = 10 with the only gap at the top
+    private static int[] wall() {
+        int[] stones = new int[SIZE - 3];
+        for (int y = 1; y < SIZE - 2; y++) {
+            stones[y - 1] = cell(10, y);
+        }
+        return stones;
+    }
+
+    @Test
+    public void shouldLeadAroundWallThroughClusters() {
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(SIZE, CLUSTER);
+        int[] stones = wall();
+        int head = cell(8, 2);
+        int goal = cell(12, 2);
+
+        int steps = 0;
+        while (head != goal && steps < SIZE * SIZE) {
+            pathfinder.update(snake(head), stones, stones.length);
+            int next = pathfinder.next(head, goal);
+            assertTrue(Math.abs(next - head) == 1 || Math.abs(next - head) == SIZE);
+            assertTrue(next % SIZE != 10 || next / SIZE == SIZE - 2);
+            head = next;
+            steps++;
+        }
+
+        assertEquals(goal, head);
+        // the shortest way is 16 up, 4 to the right and 16 down, clusters may add a few cells on the borders
+        assertTrue("steps " + steps, steps >= 36 && steps <= 44);
+    }
+
+    @Test
+    public void shouldLayOutLocalPathLikeAStarAlgo() {
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(SIZE, CLUSTER);
+        int head = cell(5, 5);
+        pathfinder.update(snake(head, cell(5, 4), cell(5, 3)), new int[0], 0);
+
+        int next = pathfinder.next(head, cell(15, 5));
+
+        IntDeque path = pathfinder.getLocalPath();
+        assertEquals(head, path.peekLast());
+        assertEquals(next, path.getFromLast(1));
+        assertEquals(cell(15, 5), pathfinder.getAbstractPath().peekLast());
+    }
+
+    @Test
+    public void shouldMeasureWholePathNotOnlyRefinedLeg() {
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(SIZE, CLUSTER);
+        int head = cell(5, 5);
+        pathfinder.update(snake(head, cell(5, 4), cell(5, 3)), new int[0], 0);
+
+        pathfinder.next(head, cell(15, 5));
+
+        int length = pathfinder.getPathLength();
+        assertTrue("length " + length, length >= 10 && length <= 14);
+        assertTrue(pathfinder.getLocalPath().size() - 1 < length);
+
+        pathfinder.update(snake(cell(2, 2)), new int[]{cell(14, 3), cell(16, 3), cell(15, 2), cell(15, 4)}, 4);
+        pathfinder.next(cell(2, 2), cell(15, 3));
+        assertEquals(-1, pathfinder.getPathLength());
+    }
+
+    @Test
+    public void shouldStepAcrossBorderOfClusterOfHead() {
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(SIZE, CLUSTER);
+        int head = cell(4, 5);
+        pathfinder.update(snake(head, cell(5, 5)), new int[0], 0);
+
+        assertEquals(cell(3, 5), pathfinder.next(head, cell(3, 5)));
+    }
+
+    @Test
+    public void shouldNotFindClosedGoal() {
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(SIZE, CLUSTER);
+        int[] stones = {cell(14, 3), cell(16, 3), cell(15, 2), cell(15, 4)};
+        pathfinder.update(snake(cell(2, 2)), stones, stones.length);
+
+        assertEquals(-1, pathfinder.next(cell(2, 2), cell(15, 3)));
+    }
+
+    @Test
+    public void shouldRebuildOnlyClustersWithChangedCells() {
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(SIZE, CLUSTER);
+        int[] stones = wall();
+        pathfinder.update(snake(cell(1, 2), cell(1, 1)), stones, stones.length);
+        pathfinder.next(cell(1, 2), cell(17, 2));
+        long rebuilt = pathfinder.getRebuiltClusters();
+
+        // the same obstacles: nothing to rebuild
+        pathfinder.update(snake(cell(1, 2), cell(1, 1)), stones, stones.length);
+        pathfinder.next(cell(1, 2), cell(17, 2));
+        assertEquals(rebuilt, pathfinder.getRebuiltClusters());
+
+        // the snake has moved inside the corner cluster, away from its borders
+        pathfinder.update(snake(cell(2, 2), cell(1, 2)), stones, stones.length);
+        pathfinder.next(cell(2, 2), cell(17, 2));
+        assertEquals(rebuilt + 1, pathfinder.getRebuiltClusters());
+    }
+}
@@ -0,0 +1,97 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntDequeTest {
+
+    @Test
+    public void shouldPushAndPollAtBothEnds() {
+        IntDeque deque = new IntDeque(2);
+
+        deque.addFirst(2);
+        deque.addFirst(1);
+        deque.addLast(3);
+
+        assertEquals("[1, 2, 3]", deque.toString());
+        assertEquals(1, deque.pollFirst());
+        assertEquals(3, deque.pollLast());
+        assertEquals(2, deque.peekFirst());
+        assertEquals(2, deque.peekLast());
+        assertEquals(1, deque.size());
+    }
+
+    @Test
+    public void shouldGrowWhenWrappedAround() {
+        IntDeque deque = new IntDeque(4);
+        for (int i = 0; i < 100; i++) {
+            if (i % 2 == 0) {
+                deque.addFirst(i);
+            } else {
+                deque.addLast(i);
+            }
+        }
+
+        assertEquals(100, deque.size());
+        assertEquals(98, deque.get(0));
+        assertEquals(99, deque.getFromLast(0));
+        assertEquals(0, deque.get(49));
+        assertEquals(1, deque.get(50));
+    }
+
+    @Test
+    public void shouldTruncate() {
+        IntDeque deque = new IntDeque();
+        for (int i = 0; i < 10; i++) {
+            deque.addLast(i);
+        }
+
+        deque.truncateFirst(7);
+        assertEquals("[3, 4, 5, 6, 7, 8, 9]", deque.toString());
+
+        deque.truncateLast(3);
+        assertEquals("[3, 4, 5]", deque.toString());
+        assertTrue(deque.contains(4));
+        assertFalse(deque.contains(6));
+    }
+
+    @Test
+    public void shouldCopyOtherDeque() {
+        IntDeque source = new IntDeque(64);
+        for (int i = 0; i < 40; i++) {
+            source.addFirst(i);
+        }
+        IntDeque copy = new IntDeque(2);
+
+        copy.copyFrom(source);
+
+        assertEquals(source.toString(), copy.toString());
+    }
+}
@@ -0,0 +1,113 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.codenjoy.dojo.snake.client.SnakeStates.SIZE;
+import static com.codenjoy.dojo.snake.client.SnakeStates.cell;
+import static com.codenjoy.dojo.snake.client.SnakeStates.state;
+import static com.codenjoy.dojo.snake.client.SnakeStates.trap;
+import static com.codenjoy.dojo.snake.client.SnakeStates.trapEscape;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MonteCarloSearchTest {
+
+    @Test
+    public void shouldMoveRolloutModelLikeSnakeState() {
+        RolloutModel model = new RolloutModel(SIZE);
+        model.reset(state(cell(3, 4), cell(3, 3), cell(3, 2), cell(3, 1)), new SplittableRandom(1));
+
+        assertTrue(model.step(cell(3, 4)));
+        assertEquals(4, model.length());
+        assertEquals(1, model.eaten());
+        assertEquals(1, model.firstApple());
+        assertEquals(cell(3, 1), model.tail());
+        assertFalse(model.isOccupied(model.apple()));
+
+        int[] moves = new int[4];
+        assertEquals(3, model.safeMoves(moves));
+        assertTrue(model.step(cell(4, 4)));
+        assertTrue(model.step(cell(4, 3)));
+        assertEquals(cell(3, 3), model.tail());
+        assertFalse(model.step(cell(4, 4)));  // the neck
+        assertTrue(model.isDead());
+    }
+
+    @Test
+    public void shouldAvoidTrapWithEveryPolicy() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (RolloutPolicy policy : new RolloutPolicy[]{RolloutPolicy.RANDOM, RolloutPolicy.GREEDY}) {
+                MonteCarloSearch search = new MonteCarloSearch(policy, 2, 1, TimeUnit.DAYS, 2000, pool);
+
+                assertEquals(trapEscape(), search.choose(trap(), 1));
+                assertEquals(4000, search.getPlayouts());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldShareRootCountersBetweenWorkers() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MonteCarloSearch search = new MonteCarloSearch(RolloutPolicy.epsilonGreedy(0.2), 4, 1, TimeUnit.DAYS,
+                    500, pool);
+            SnakeState state = state(cell(3, 4), cell(3, 3), cell(3, 2));
+
+            int step = search.choose(state, 42);
+
+            long visits = 0;
+            for (int direction = 0; direction < 4; direction++) {
+                visits += search.getRootVisits(direction);
+                assertTrue(search.getRootScore(direction) <= 1);
+            }
+            assertEquals(2000, visits);
+            assertEquals(cell(3, 4), step);  // the apple is right in front of the head
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldStopAtDeadline() {
+        MonteCarloSearch search = new MonteCarloSearch(RolloutPolicy.RANDOM, 2, 20, TimeUnit.MILLISECONDS);
+        SnakeState state = state(cell(3, 4), cell(3, 3), cell(3, 2));
+
+        long start = System.nanoTime();
+        search.choose(state, 1);
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertTrue(search.getPlayouts() > 0);
+    }
+}
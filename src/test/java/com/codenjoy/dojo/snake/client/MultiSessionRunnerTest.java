@@ -0,0 +1,66 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class MultiSessionRunnerTest {
+
+    @Test
+    public void shouldConvertBoardUrlIntoWebSocketUrl() {
+        assertEquals("ws://host:8080/codenjoy-contest/ws?user=player1&code=123",
+                BotSession.toWebSocket("http://host:8080/codenjoy-contest/board/player/player1?code=123").toString());
+    }
+
+    @Test
+    public void shouldPlayAllSessionsAgainstLocalServer() throws Exception {
+        try (LocalGameServer server = new LocalGameServer(15, 50, 1);
+             MultiSessionRunner runner = new MultiSessionRunner(() -> new YourSolver(null))) {
+            server.start(0);
+            List<String> urls = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                urls.add(server.getUrl("bot" + i));
+            }
+
+            List<BotSession> sessions = runner.connect(urls);
+
+            assertTrue(runner.awaitClosed(30, TimeUnit.SECONDS));
+            for (BotSession session : sessions) {
+                assertEquals(50, session.getTicks());
+                assertEquals(0, session.getErrors());
+            }
+            assertNotSame(sessions.get(0).getSolver(), sessions.get(1).getSolver());
+            assertEquals(4 * 50, server.getAnswers());
+        }
+    }
+}
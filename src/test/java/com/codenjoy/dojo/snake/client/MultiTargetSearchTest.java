@@ -0,0 +1,93 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import com.codenjoy.dojo.snake.model.BoardRenderer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MultiTargetSearchTest {
+    private static final int SIZE = 9;
+
+    private static int cell(int x, int y) {
+        return y * SIZE + x;
+    }
+
+    // the snake goes up from the head at [4,4]
+    private static MultiTargetSearch prepare(int[] apples, int[] stones) {
+        int[] snake = {cell(4, 4), cell(4, 5), cell(4, 6)};
+        Board board = (Board) new Board().forString(BoardRenderer.render(SIZE, snake, apples, stones));
+        AStarAlgo algo = new AStarAlgo(SIZE, SIZE);
+        algo.prepare(board.getHead(), board.getSnakeAsDeque(), stones, stones.length);
+        return algo.getTargets();
+    }
+
+    @Test
+    public void shouldFindNearestGoalBySingleSearch() {
+        int[] apples = {cell(1, 1), cell(7, 4), cell(2, 7)};
+        MultiTargetSearch search = prepare(apples, new int[0]);
+
+        assertEquals(cell(7, 4), search.search(cell(4, 4), apples, apples.length, 1));
+        assertEquals(1, search.getTourSize());
+        assertEquals(3, search.getTourSteps());
+    }
+
+    @Test
+    public void shouldSkipGoalClosedByStones() {
+        int[] apples = {cell(1, 1), cell(7, 7)};
+        int[] stones = {cell(2, 1), cell(1, 2)};
+        MultiTargetSearch search = prepare(apples, stones);
+
+        assertEquals(cell(7, 7), search.search(cell(4, 4), apples, apples.length, 1));
+        assertEquals(-1, search.search(cell(4, 4), new int[]{cell(1, 1)}, 1, 1));
+    }
+
+    @Test
+    public void shouldStartTourNotAtNearestGoal() {
+        // [1,5] is the nearest, but then the snake has to come back for [6,7]
+        int[] apples = {cell(1, 5), cell(6, 7), cell(1, 1)};
+        MultiTargetSearch search = prepare(apples, new int[0]);
+
+        assertEquals(cell(1, 5), search.search(cell(4, 4), apples, apples.length, 1));
+
+        assertEquals(cell(6, 7), search.search(cell(4, 4), apples, apples.length, 3));
+        assertEquals(3, search.getTourSize());
+        assertEquals(cell(1, 5), search.getTour(1));
+        assertEquals(cell(1, 1), search.getTour(2));
+        assertEquals(16, search.getTourSteps());
+    }
+
+    @Test
+    public void shouldStopAtDeadline() {
+        int[] apples = {cell(1, 1), cell(7, 7)};
+        MultiTargetSearch search = prepare(apples, new int[0]);
+
+        // the clock is read once per CLOCK_CHECK_INTERVAL cells, both apples are further away
+        assertEquals(-1, search.search(cell(4, 4), apples, apples.length, 2, System.nanoTime() - 1));
+        assertEquals(SearchBudget.CLOCK_CHECK_INTERVAL, search.getExpandedNodes());
+        assertEquals(0, search.getTourSize());
+    }
+}
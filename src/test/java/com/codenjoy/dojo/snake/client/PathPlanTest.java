@@ -0,0 +1,112 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.services.Dice;
+import com.codenjoy.dojo.services.Direction;
+import com.codenjoy.dojo.snake.model.BoardRenderer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class PathPlanTest {
+
+    private static final int SIZE = 9;
+
+    private YourSolver solver;
+
+    @Before
+    public void setup() {
+        solver = new YourSolver(mock(Dice.class));
+    }
+
+    private Board board(int[] snake, int apple, int stone) {
+        return (Board) new Board().forString(BoardRenderer.render(SIZE, snake, new int[]{apple}, new int[]{stone}));
+    }
+
+    private static int cell(int x, int y) {
+        return y * SIZE + x;
+    }
+
+    @Test
+    public void shouldFollowPlanWhileNothingChanges() {
+        int apple = cell(2, 6);
+        int stone = cell(6, 1);
+
+        assertEquals(Direction.UP.toString(), solver.get(board(new int[]{cell(2, 2), cell(2, 1)}, apple, stone)));
+        assertEquals(Direction.UP.toString(), solver.get(board(new int[]{cell(2, 3), cell(2, 2)}, apple, stone)));
+        assertEquals(Direction.UP.toString(), solver.get(board(new int[]{cell(2, 4), cell(2, 3)}, apple, stone)));
+
+        assertEquals(2, solver.getMetrics().getPlanHits());
+        assertEquals(3, solver.getMetrics().getTicks());
+    }
+
+    @Test
+    public void shouldSearchAgainWhenAppleMoves() {
+        int stone = cell(6, 1);
+
+        solver.get(board(new int[]{cell(2, 2), cell(2, 1)}, cell(2, 6), stone));
+        String direction = solver.get(board(new int[]{cell(2, 3), cell(2, 2)}, cell(6, 3), stone));
+
+        assertEquals(Direction.RIGHT.toString(), direction);
+        assertEquals(0, solver.getMetrics().getPlanHits());
+    }
+
+    @Test
+    public void shouldSearchAgainWhenHeadLeavesPlan() {
+        PathPlan plan = new PathPlan();
+        IntDeque path = new IntDeque();
+        path.addLast(cell(2, 4));
+        path.addLast(cell(2, 3));
+        path.addLast(cell(2, 2));   // head
+        plan.record(path, SIZE, cell(2, 4), -1, 2);
+
+        assertEquals(cell(2, 3), plan.nextStep());
+        assertFalse(plan.advance(SIZE, cell(3, 2), cell(2, 4), -1, 2));
+        assertTrue(plan.isEmpty());
+    }
+
+    @Test
+    public void shouldDropPlanWhenStepIsBlocked() {
+        PathPlan plan = new PathPlan();
+        IntDeque path = new IntDeque();
+        path.addLast(cell(2, 5));
+        path.addLast(cell(2, 4));
+        path.addLast(cell(2, 3));
+        path.addLast(cell(2, 2));   // head
+        plan.record(path, SIZE, cell(2, 5), -1, 2);
+        assertTrue(plan.advance(SIZE, cell(2, 3), cell(2, 5), -1, 2));
+
+        // a stone has appeared on the way (the stone of the plan was unknown)
+        Board board = board(new int[]{cell(2, 3), cell(2, 2)}, cell(2, 5), cell(2, 4));
+        AStarAlgo algo = new AStarAlgo(SIZE, SIZE);
+        algo.prepare(board.getHead(), board.getSnakeAsDeque(), board.getStones().get(0));
+
+        assertFalse(plan.isClear(algo));
+    }
+}
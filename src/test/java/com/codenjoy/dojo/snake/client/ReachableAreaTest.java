@@ -0,0 +1,97 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.services.Dice;
+import com.codenjoy.dojo.services.Direction;
+import com.codenjoy.dojo.snake.model.BoardRenderer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ReachableAreaTest {
+
+    private static final int SIZE = 8;
+
+    // the snake (10 cells) and the stone [1,3] close the pocket [1,2], [1,1], [2,1] at the left bottom corner,
+    // the apple is inside the pocket
+    private static final int[] SNAKE = {18, 19, 11, 12, 13, 14, 22, 30, 38, 46};
+    private static final int APPLE = 9;
+    private static final int STONE = 25;
+
+    private Board board;
+    private AStarAlgo algo;
+    private ReachableArea area;
+
+    @Before
+    public void setup() {
+        board = (Board) new Board().forString(
+                BoardRenderer.render(SIZE, SNAKE, new int[]{APPLE}, new int[]{STONE}));
+        algo = new AStarAlgo(SIZE, SIZE);
+        algo.trace(board.getHead(), board.getApples().get(0), board.getSnakeAsDeque(), board.getStones().get(0));
+        area = algo.getReachableArea();
+    }
+
+    @Test
+    public void shouldMeasurePocket() {
+        assertEquals(3, area.evaluate(cell(1, 2), 100));
+        assertFalse(area.isTailReachable());
+        assertFalse(area.isSafe(cell(1, 2), SNAKE.length));
+        assertFalse(area.isSafe(cell(2, 1), SNAKE.length));
+    }
+
+    @Test
+    public void shouldStopWhenRegionIsBigEnough() {
+        assertEquals(SNAKE.length, area.evaluate(cell(2, 3), SNAKE.length));
+        assertTrue(area.isSafe(cell(2, 3), SNAKE.length));
+    }
+
+    @Test
+    public void shouldNotEnterObstacles() {
+        assertEquals(0, area.evaluate(cell(1, 3), 100));   // stone
+        assertEquals(0, area.evaluate(cell(3, 2), 100));   // neck
+        assertEquals(0, area.evaluate(cell(0, 2), 100));   // wall
+    }
+
+    @Test
+    public void shouldChooseOpenRegion() {
+        assertEquals(cell(2, 3), area.bestMove(cell(2, 2), SNAKE.length));
+    }
+
+    @Test
+    public void shouldNotFollowPathIntoPocket() {
+        YourSolver solver = new YourSolver(mock(Dice.class));
+
+        assertEquals(Direction.UP.toString(), solver.get(board));
+        assertEquals(1, solver.getMetrics().getTrapsAvoided());
+    }
+
+    private static int cell(int x, int y) {
+        return y * SIZE + x;
+    }
+}
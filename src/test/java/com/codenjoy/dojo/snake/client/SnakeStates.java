@@ -0,0 +1,67 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Positions on a small game-board for the tests of the searches, that work on SnakeState.
+ */
+final class SnakeStates {
+    static final int SIZE = 7;
+
+    private SnakeStates() {
+    }
+
+    static int cell(int x, int y) {
+        return y * SIZE + x;
+    }
+
+    /**
+     * @param apple -> cell id of the apple;
+     * @param body  -> cell ids of the snake from the head to the tail.
+     */
+    static SnakeState state(int apple, int... body) {
+        IntDeque snake = new IntDeque();
+        for (int cell : body) {
+            snake.addLast(cell);
+        }
+        return SnakeState.of(SIZE, snake, apple, -1);
+    }
+
+    /**
+     * The apple is next to the head in the corner, the body closes it: after the apple the snake has no way out,
+     * the only safe step is trapEscape().
+     */
+    static SnakeState trap() {
+        return state(cell(1, 5),
+                cell(2, 5), cell(2, 4), cell(1, 4), cell(1, 3), cell(1, 2), cell(1, 1), cell(2, 1), cell(3, 1));
+    }
+
+    static int trapApple() {
+        return cell(1, 5);
+    }
+
+    static int trapEscape() {
+        return cell(3, 5);
+    }
+}
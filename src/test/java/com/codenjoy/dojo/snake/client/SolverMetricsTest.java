@@ -0,0 +1,104 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import com.codenjoy.dojo.services.Dice;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class SolverMetricsTest {
+
+    @Test
+    public void shouldCalculatePercentilesByBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);     // bucket 64..127
+        }
+        histogram.record(5000);        // bucket 4096..8191
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(149, snapshot.getMean());
+        assertEquals(127, snapshot.getP50());
+        assertEquals(127, snapshot.getP99());
+        assertEquals(5000, snapshot.getP999());   // upper bound of the bucket is limited by max
+        assertEquals(5000, snapshot.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getP99());
+    }
+
+    @Test
+    public void shouldRecordEveryTick() {
+        YourSolver solver = new YourSolver(mock(Dice.class));
+        Board board = (Board) new Board().forString(
+                "☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼  ☺  ☼" +
+                "☼     ☼" +
+                "☼ ☻▲  ☼" +
+                "☼  ╙  ☼" +
+                "☼☼☼☼☼☼☼");
+
+        solver.get(board);
+        solver.get(board);
+
+        MetricsSnapshot snapshot = solver.getMetrics().snapshot();
+        assertEquals(2, snapshot.getTicks());
+        assertEquals(2, snapshot.getTickLatency().getCount());
+        for (SolverMetrics.Phase phase : SolverMetrics.Phase.values()) {
+            assertEquals(2, snapshot.getLatency(phase).getCount());
+        }
+        assertTrue(snapshot.getNodesExpanded() > 0);
+        assertEquals(0, snapshot.getSearchFailures());
+    }
+
+    @Test
+    public void shouldBeVisibleThroughJmx() throws Exception {
+        SolverMetrics metrics = new SolverMetrics();
+        metrics.recordTick(1000);
+        metrics.recordSearch(10, 0, 0, true);
+
+        ObjectName name = metrics.registerMBean("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "Ticks"));
+            assertEquals(10L, server.getAttribute(name, "NodesExpanded"));
+            assertEquals(1L, server.getAttribute(name, "SearchFailures"));
+            CompositeData latency = (CompositeData) server.getAttribute(name, "TickLatency");
+            assertEquals(1000L, latency.get("max"));
+        } finally {
+            metrics.unregisterMBean("test");
+        }
+    }
+}
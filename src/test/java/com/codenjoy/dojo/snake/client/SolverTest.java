@@ -73,8 +73,56 @@ public class SolverTest {
                 "☼  ╙  ☼" +
                 "☼ ☻   ☼" +
                 "☼    ☺☼" +
-                "☼☼☼☼☼☼☼", Direction.UP);
+                "☼☼☼☼☼☼☼", Direction.RIGHT);
+
+    }
 
+    @Test
+    public void shouldGoToNearestOfSeveralApples() {
+        asertAI("☼☼☼☼☼☼☼☼☼" +
+                "☼☺      ☼" +
+                "☼       ☼" +
+                "☼       ☼" +
+                "☼       ☼" +
+                "☼    ▲  ☼" +
+                "☼    ╙  ☼" +
+                "☼      ☺☼" +
+                "☼☼☼☼☼☼☼☼☼", Direction.RIGHT);
+    }
+
+    @Test
+    public void shouldAvoidEveryStone() {
+        asertAI("☼☼☼☼☼☼☼☼☼" +
+                "☼       ☼" +
+                "☼    ☺  ☼" +
+                "☼       ☼" +
+                "☼    ☻  ☼" +
+                "☼    ▲  ☼" +
+                "☼    ╙  ☼" +
+                "☼☻      ☼" +
+                "☼☼☼☼☼☼☼☼☼", Direction.LEFT);
+    }
+
+    @Test
+    public void shouldMoveWithoutApplesAndStones() {
+        asertAI("☼☼☼☼☼☼☼" +
+                "☼  ▲  ☼" +
+                "☼  ╙  ☼" +
+                "☼     ☼" +
+                "☼     ☼" +
+                "☼     ☼" +
+                "☼☼☼☼☼☼☼", Direction.LEFT);
+    }
+
+    @Test
+    public void shouldStopWithoutSnake() {
+        asertAI("☼☼☼☼☼☼☼" +
+                "☼     ☼" +
+                "☼  ☺  ☼" +
+                "☼     ☼" +
+                "☼ ☻   ☼" +
+                "☼     ☼" +
+                "☼☼☼☼☼☼☼", Direction.STOP);
     }
 
     private void asertAI(String board, Direction expected) {
@@ -0,0 +1,176 @@
+package com.codenjoy.dojo.snake.client;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import com.codenjoy.dojo.snake.model.SeededDice;
+import com.codenjoy.dojo.snake.model.SnakeGame;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TickRecorderTest {
+
+    private Path file;
+    private final List<String> boards = new ArrayList<>();
+    private final List<String> commands = new ArrayList<>();
+
+    @Before
+    public void setup() throws IOException {
+        file = Files.createTempFile("ticks", ".log");
+        Files.delete(file);
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private TickRecorder play(int ticks) throws IOException {
+        TickRecorder recorder = new TickRecorder(file, 16);
+        YourSolver solver = new YourSolver(null);
+        solver.setRecorder(recorder);
+        SnakeGame game = new SnakeGame(15, new SeededDice(3));
+        for (int i = 0; i < ticks && game.isAlive(); i++) {
+            String state = game.render();
+            Board board = new Board();
+            board.forString(state);
+            String command = solver.get(board);
+            boards.add(state);
+            commands.add(command);
+            game.tick(command);
+        }
+        recorder.close();
+        return recorder;
+    }
+
+    @Test
+    public void shouldReadBackEveryBoardAndCommand() throws IOException {
+        TickRecorder recorder = play(100);
+
+        try (TickLog log = TickLog.open(file)) {
+            assertEquals(boards.size(), log.size());
+            TickLog.Cursor cursor = log.cursor(0);
+            for (int i = 0; i < boards.size(); i++) {
+                assertTrue(cursor.next());
+                assertEquals(i, cursor.getIndex());
+                assertEquals(boards.get(i), cursor.getBoard());
+                assertEquals(commands.get(i), cursor.getCommand());
+            }
+        }
+        // keyframes are 141 bytes for 15x15, deltas a few bytes
+        assertTrue(recorder.getBytes() < boards.size() * 60L);
+        // every keyframe is followed by 16 deltas
+        assertEquals((boards.size() + 16) / 17, recorder.getKeyframes());
+    }
+
+    @Test
+    public void shouldWriteQueuedRecordsOnFlush() throws IOException {
+        TickRecorder recorder = new TickRecorder(file, 16);
+        SnakeGame game = new SnakeGame(15, new SeededDice(3));
+        for (int i = 0; i < 10; i++) {
+            Board board = new Board();
+            board.forString(game.render());
+            recorder.record(board.index(), "UP", 0, new long[0]);
+        }
+
+        // the records are written by the thread of the recorder, flush() waits for all of them
+        recorder.flush();
+        try (TickLog log = TickLog.open(file)) {
+            assertEquals(10, log.size());
+        }
+        recorder.close();
+    }
+
+    @Test
+    public void shouldStartCursorBetweenKeyframes() throws IOException {
+        play(100);
+
+        try (TickLog log = TickLog.open(file)) {
+            TickLog.Cursor cursor = log.cursor(37);
+            assertTrue(cursor.next());
+
+            assertEquals(37, cursor.getIndex());
+            assertEquals(boards.get(37), cursor.getBoard());
+        }
+    }
+
+    @Test
+    public void shouldReplayWithSameCommands() throws IOException {
+        play(100);
+
+        try (TickLog log = TickLog.open(file)) {
+            ReplayReport sequential = TickReplay.run(log, () -> new YourSolver(null));
+            ReplayReport parallel = TickReplay.runParallel(log, () -> new YourSolver(null), 2, 32);
+
+            assertEquals(boards.size(), sequential.getTicks());
+            assertEquals(0, sequential.getMismatches());
+            assertEquals(boards.size(), parallel.getTicks());
+        }
+    }
+
+    @Test
+    public void shouldIgnoreRecordThatWasCutOff() throws IOException {
+        play(20);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        try (TickLog log = TickLog.open(file)) {
+            assertEquals(boards.size() - 1, log.size());
+        }
+    }
+
+    @Test
+    public void shouldAppendAfterLastCompleteRecord() throws IOException {
+        play(20);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        boards.remove(boards.size() - 1);
+
+        // the recorder was restarted after a crash
+        play(20);
+
+        try (TickLog log = TickLog.open(file)) {
+            assertEquals(boards.size(), log.size());
+            TickLog.Cursor cursor = log.cursor(0);
+            for (int i = 0; i < boards.size(); i++) {
+                assertTrue(cursor.next());
+                assertEquals(boards.get(i), cursor.getBoard());
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.codenjoy.dojo.snake.model;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import com.codenjoy.dojo.snake.client.Board;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class BoardRendererTest {
+
+    private int cell(int x, int y) {
+        return y * 7 + x;
+    }
+
+    @Test
+    public void shouldRenderSnakeThatBoardCanParse() {
+        int[] snake = {cell(3, 4), cell(2, 4), cell(2, 3), cell(2, 2), cell(3, 2), cell(4, 2), cell(4, 1)};
+
+        String rendered = BoardRenderer.render(7, snake, new int[]{cell(5, 5)}, new int[]{cell(1, 1)});
+
+        assertEquals(
+                "☼☼☼☼☼☼☼" +
+                "☼    ☺☼" +
+                "☼ ╔►  ☼" +
+                "☼ ║   ☼" +
+                "☼ ╚═╗ ☼" +
+                "☼☻  ╙ ☼" +
+                "☼☼☼☼☼☼☼", rendered);
+
+        Board board = (Board) new Board().forString(rendered);
+        assertEquals(Arrays.toString(snake), board.getSnakeAsDeque().toString());
+    }
+}
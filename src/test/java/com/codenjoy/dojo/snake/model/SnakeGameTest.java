@@ -0,0 +1,84 @@
+package com.codenjoy.dojo.snake.model;
+
+/*-
+ * #%L
+ * Codenjoy - it's a dojo-like platform from developers to developers.
+ * %%
+ * Copyright (C) 2018 Codenjoy
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+
+import com.codenjoy.dojo.services.Direction;
+import com.codenjoy.dojo.snake.client.Board;
+import com.codenjoy.dojo.snake.client.GameResult;
+import com.codenjoy.dojo.snake.client.GameSimulator;
+import com.codenjoy.dojo.snake.client.YourSolver;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SnakeGameTest {
+
+    @Test
+    public void shouldStartWithShortSnakeMovingRight() {
+        SnakeGame game = new SnakeGame(15, new SeededDice(1));
+
+        Board board = (Board) new Board().forString(game.render());
+
+        assertEquals(2, board.getSnakeAsDeque().size());
+        assertEquals(Direction.RIGHT, board.getSnakeDirection());
+        assertEquals(1, board.getApples().size());
+        assertEquals(1, board.getStones().size());
+    }
+
+    @Test
+    public void shouldIgnoreCommandToTurnBack() {
+        SnakeGame game = new SnakeGame(15, new SeededDice(1));
+
+        game.tick(Direction.LEFT);
+
+        assertTrue(game.isAlive());
+        assertEquals(Direction.RIGHT, game.getDirection());
+    }
+
+    @Test
+    public void shouldDieOnWall() {
+        SnakeGame game = new SnakeGame(15, new SeededDice(1));
+
+        for (int i = 0; i < 15 && game.isAlive(); i++) {
+            game.tick(Direction.UP);
+        }
+
+        assertFalse(game.isAlive());
+    }
+
+    @Test
+    public void shouldPlaySameGameForSameSeed() {
+        GameSimulator simulator = new GameSimulator(15, 300);
+
+        GameResult first = simulator.play(new YourSolver(null), 7);
+        GameResult second = simulator.play(new YourSolver(null), 7);
+
+        assertEquals(first.getTicks(), second.getTicks());
+        assertEquals(first.getApples(), second.getApples());
+        assertEquals(first.getLength(), second.getLength());
+    }
+}